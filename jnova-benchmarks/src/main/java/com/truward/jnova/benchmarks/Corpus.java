@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.ast.corpus.CorpusGenerator;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+
+import java.util.Random;
+
+/**
+ * Generates deterministic Java sources of the requested size used as benchmark inputs.
+ */
+public final class Corpus {
+    private Corpus() {} // Hidden ctor
+
+    public static final long DEFAULT_SEED = 20130301L;
+
+    private static final String[] MESSAGES = { "Processing request for user ", "Request completed in ",
+            "Unable to connect to the database", "Retrying operation, attempt ", "Cache miss for key ",
+            "Invalid argument: ", "Session expired", "Starting batch job ", "Finished batch job ",
+            "Configuration reloaded", "Unexpected state: ", "Access denied for ", "Transaction rolled back",
+            "Message queue is full", "Skipping duplicate entry " };
+
+    private static final String[] QUERIES = { "SELECT id, name, email FROM users WHERE id = ?",
+            "UPDATE accounts SET balance = balance - ? WHERE id = ?", "DELETE FROM sessions WHERE expires < ?",
+            "INSERT INTO audit_log (user_id, action, created) VALUES (?, ?, ?)",
+            "SELECT COUNT(*) FROM orders WHERE status = 'PENDING'", "SELECT * FROM products ORDER BY price" };
+
+    /**
+     * Generates compilation unit of the default shape with at least the given count of characters.
+     *
+     * @param minLength Minimal source length.
+     * @param seed      Random seed.
+     * @return Java source.
+     */
+    public static String generate(int minLength, long seed) {
+        return generate(new CorpusShape(), minLength, seed);
+    }
+
+    /**
+     * Generates compilation unit of the given shape with at least the given count of characters.
+     *
+     * @param shape     Corpus shape.
+     * @param minLength Minimal source length.
+     * @param seed      Random seed.
+     * @return Java source.
+     */
+    public static String generate(CorpusShape shape, int minLength, long seed) {
+        return new CorpusGenerator(new HashSymbolTable(), shape, seed).generateSource(minLength);
+    }
+
+    /**
+     * Generates service class with the repeated string literals: log messages, SQL queries and annotation values.
+     *
+     * @param methodCount   Count of the service methods.
+     * @param seed          Random seed.
+     * @return Java source.
+     */
+    public static String generateService(int methodCount, long seed) {
+        final Random random = new Random(seed);
+        final StringBuilder builder = new StringBuilder("package com.example.service;\n\n");
+        builder.append("@Service(\"service\")\n");
+        builder.append("public final class Service {\n");
+        for (int i = 0; i < methodCount; ++i) {
+            builder.append("    @Query(\"").append(QUERIES[random.nextInt(QUERIES.length)]).append("\")\n");
+            builder.append("    @Timed(name = \"service.method\", unit = \"ms\")\n");
+            builder.append("    public void m").append(i).append("(String user, int count) {\n");
+            builder.append("        log.info(\"").append(MESSAGES[random.nextInt(MESSAGES.length)])
+                    .append("\" + user);\n");
+            builder.append("        if (count > ").append(random.nextInt(100)).append(") {\n");
+            builder.append("            log.warn(\"").append(MESSAGES[random.nextInt(MESSAGES.length)])
+                    .append("\", count, '").append((char) ('a' + random.nextInt(26))).append("');\n");
+            builder.append("        }\n");
+            builder.append("        execute(\"").append(QUERIES[random.nextInt(QUERIES.length)])
+                    .append("\", user, separator == ',' ? \"").append(MESSAGES[random.nextInt(MESSAGES.length)])
+                    .append("\" : \"\");\n");
+            builder.append("    }\n");
+        }
+        return builder.append("}\n").toString();
+    }
+
+    /**
+     * Generates class of the array constants made of the numeric and char literals, as the generated lookup
+     * tables are.
+     *
+     * @param tableSize Count of the int, hexadecimal int and long literals, there are four times less double
+     *                  and char ones.
+     * @param seed      Random seed.
+     * @return Java source.
+     */
+    public static String generateNumericTables(int tableSize, long seed) {
+        final Random random = new Random(seed);
+        final StringBuilder builder = new StringBuilder("final class Tables {\n");
+
+        builder.append("    static final int[] INTS = {");
+        for (int i = 0; i < tableSize; ++i) {
+            builder.append(i % 16 == 0 ? "\n        " : " ").append(random.nextInt(1000000)).append(',');
+        }
+        builder.append("\n    };\n    static final int[] MASKS = {");
+        for (int i = 0; i < tableSize; ++i) {
+            builder.append(i % 8 == 0 ? "\n        " : " ").append("0x")
+                    .append(Integer.toHexString(random.nextInt())).append(',');
+        }
+        builder.append("\n    };\n    static final long[] LONGS = {");
+        for (int i = 0; i < tableSize; ++i) {
+            builder.append(i % 8 == 0 ? "\n        " : " ").append(random.nextLong()).append("L,");
+        }
+        builder.append("\n    };\n    static final double[] DOUBLES = {");
+        for (int i = 0; i < tableSize / 4; ++i) {
+            builder.append(i % 8 == 0 ? "\n        " : " ").append(random.nextDouble()).append(',');
+        }
+        builder.append("\n    };\n    static final char[] CHARS = {");
+        for (int i = 0; i < tableSize / 4; ++i) {
+            builder.append(i % 16 == 0 ? "\n        " : " ").append('\'').append((char) ('a' + random.nextInt(26)))
+                    .append("',");
+        }
+        return builder.append("\n    };\n}\n").toString();
+    }
+}
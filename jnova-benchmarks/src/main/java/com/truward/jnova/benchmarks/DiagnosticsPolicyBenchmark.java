@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.parser.Parser;
+import com.truward.jnova.util.diagnostics.DiagnosticsLimitExceededException;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.diagnostics.support.PolicyDiagnosticsLog;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parse latency of the malformed inputs, random printable characters and the corpus truncated in half,
+ * with and without the per-source error budget.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DiagnosticsPolicyBenchmark {
+
+    @Param({"random", "truncated"})
+    public String input;
+
+    /** Count of the errors per source before the parse is aborted, zero for no budget. */
+    @Param({"0", "100"})
+    public int errorBudget;
+
+    @Param({"256"})
+    public int sourceKb;
+
+    private CollectingDiagnosticsLog collectingLog;
+
+    private Parser parser;
+
+    private DefaultSource source;
+
+    @Setup
+    public void setUp() {
+        collectingLog = new CollectingDiagnosticsLog();
+        final PolicyDiagnosticsLog log = new PolicyDiagnosticsLog(collectingLog);
+        if (errorBudget > 0) {
+            log.setMaxErrorsPerSource(errorBudget);
+        }
+        parser = new ParserFixture(log).getParser();
+
+        final String content;
+        if ("random".equals(input)) {
+            final Random random = new Random(Corpus.DEFAULT_SEED);
+            final char[] chars = new char[sourceKb * 1024];
+            for (int i = 0; i < chars.length; ++i) {
+                chars[i] = (char) (random.nextInt(0x5F) + 0x20); // printable ascii
+            }
+            content = new String(chars);
+        } else {
+            final String corpus = Corpus.generate(sourceKb * 1024, Corpus.DEFAULT_SEED);
+            content = corpus.substring(0, corpus.length() / 2);
+        }
+        source = ParserFixture.toSource(content);
+    }
+
+    @Benchmark
+    public boolean parseMalformed() {
+        collectingLog.clear();
+        parser.reset(source);
+        try {
+            parser.parseCompilationUnit();
+        } catch (DiagnosticsLimitExceededException e) {
+            return true;
+        }
+        return false;
+    }
+}
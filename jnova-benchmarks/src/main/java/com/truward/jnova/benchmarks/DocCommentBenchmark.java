@@ -0,0 +1,74 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstInfo;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.java.parser.Parser;
+import com.truward.jnova.java.parser.impl.LexerImpl;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of the comment-heavy source with the doc comments skipped by the lexer and kept as the source
+ * ranges, and the extraction of the text of all the doc comments.
+ * Run with the GC profiler (enabled by default in {@link BenchmarkRunner}) to compare allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DocCommentBenchmark {
+
+    @Param({"32"})
+    public int sourceKb;
+
+    /** Whether the doc comments are kept, otherwise the lexer skips them as the regular block comments. */
+    @Param({"false", "true"})
+    public boolean docComments;
+
+    private Parser parser;
+
+    private DefaultSource source;
+
+    @Setup
+    public void setUp() {
+        final ParserFixture fixture = new ParserFixture();
+        ((LexerImpl) fixture.getLexer()).setDocComments(docComments);
+        parser = fixture.getParser();
+
+        final CorpusShape shape = new CorpusShape();
+        shape.setCommentRatio(0.5);
+        source = ParserFixture.toSource(Corpus.generate(shape, sourceKb * 1024, Corpus.DEFAULT_SEED));
+    }
+
+    @Benchmark
+    public Ast.CompilationUnit parse() {
+        parser.reset(source);
+        return parser.parseCompilationUnit();
+    }
+
+    @Benchmark
+    public Map<Ast.Node, String> parseAndGetText() {
+        parser.reset(source);
+        return AstInfo.getDocComments(parser.parseCompilationUnit());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.java.parser.Parser;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of the corpus dominated by the deeply nested infix expressions.
+ * Run with the GC profiler (enabled by default in {@link BenchmarkRunner}) to see the allocation of the operator
+ * precedence parsing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionParserBenchmark {
+
+    @Param({"64"})
+    public int sourceKb;
+
+    private Parser parser;
+
+    private DefaultSource source;
+
+    @Setup
+    public void setUp() {
+        final CorpusShape shape = new CorpusShape();
+        shape.setStatementsPerMethod(50);
+        shape.setExpressionDepth(5);
+        shape.setStringChainLength(0);
+        shape.setCommentRatio(0.0);
+
+        parser = new ParserFixture().getParser();
+        source = ParserFixture.toSource(Corpus.generate(shape, sourceKb * 1024, Corpus.DEFAULT_SEED));
+    }
+
+    @Benchmark
+    public Ast.CompilationUnit parseExpressions() {
+        parser.reset(source);
+        return parser.parseCompilationUnit();
+    }
+}
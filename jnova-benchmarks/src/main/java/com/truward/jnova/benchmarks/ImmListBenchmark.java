@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.util.ImmList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ImmList operations used by the parser.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ImmListBenchmark {
+
+    @Param({"8", "128"})
+    public int size;
+
+    private Integer[] elements;
+
+    private ImmList<Integer> list;
+
+    @Setup
+    public void setUp() {
+        elements = new Integer[size];
+        for (int i = 0; i < size; ++i) {
+            elements[i] = i;
+        }
+        list = ImmList.from(elements);
+    }
+
+    @Benchmark
+    public ImmList<Integer> prependAndReverse() {
+        ImmList<Integer> result = ImmList.nil();
+        for (final Integer element : elements) {
+            result = result.prepend(element);
+        }
+        return result.reverse();
+    }
+
+    @Benchmark
+    public ImmList<Integer> append() {
+        ImmList<Integer> result = ImmList.nil();
+        for (final Integer element : elements) {
+            result = result.append(element);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public ImmList<Integer> fromArray() {
+        return ImmList.from(elements);
+    }
+
+    @Benchmark
+    public int iterate() {
+        int sum = 0;
+        for (final Integer element : list) {
+            sum += element;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int size() {
+        return list.size();
+    }
+}
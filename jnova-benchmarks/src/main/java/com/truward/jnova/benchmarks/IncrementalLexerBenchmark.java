@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.parser.IncrementalLexer;
+import com.truward.jnova.java.parser.Lexer;
+import com.truward.jnova.java.parser.TokenBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures per-keystroke latency of updating the tokens of the large file incrementally against scanning
+ * the whole file again. Each invocation types a statement char by char at a random place and then deletes it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IncrementalLexerBenchmark {
+
+    private static final String TYPED = "int counter = 42; /* typed */ ";
+
+    /** Each char of {@link #TYPED} is typed and deleted. */
+    private static final int KEYSTROKES = 60;
+
+    /** About 20k lines of the generated corpus. */
+    @Param({"640"})
+    public int sourceKb;
+
+    private Lexer lexer;
+
+    private IncrementalLexer incrementalLexer;
+
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        lexer = new ParserFixture().getLexer();
+        incrementalLexer = new IncrementalLexer(new ParserFixture().getLexer(),
+                Corpus.generate(sourceKb * 1024, Corpus.DEFAULT_SEED));
+        random = new Random(Corpus.DEFAULT_SEED);
+        assert KEYSTROKES == 2 * TYPED.length();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYSTROKES)
+    public TokenBuffer editIncrementally() {
+        final int offset = random.nextInt(incrementalLexer.length());
+        for (int i = 0; i < TYPED.length(); ++i) {
+            incrementalLexer.edit(offset + i, 0, TYPED.subSequence(i, i + 1));
+        }
+        for (int i = TYPED.length() - 1; i >= 0; --i) {
+            incrementalLexer.edit(offset + i, 1, "");
+        }
+        return incrementalLexer.getTokens();
+    }
+
+    /** Full scan of the same text for a keystroke. */
+    @Benchmark
+    public TokenBuffer scanFully() {
+        return TokenBuffer.scan(lexer, incrementalLexer.getBuffer(), incrementalLexer.length());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstScanner;
+import com.truward.jnova.java.parser.Parser;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures per-edit latency of parsing the edited source incrementally and from scratch. Each invocation inserts
+ * a statement before the closing brace of a method body and then removes it, the edited sources are prepared
+ * in advance for the fixed set of the method bodies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IncrementalParseBenchmark {
+
+    private static final String STATEMENT = "counter = counter + 1;";
+
+    private static final int PLACE_COUNT = 16;
+
+    @Param({"256"})
+    public int sourceKb;
+
+    /** Whether the innermost block enclosing the edit is parsed again in place of the whole source. */
+    @Param({"false", "true"})
+    public boolean incremental;
+
+    private Parser parser;
+
+    private DefaultSource source;
+
+    private int[] offsets;
+
+    private DefaultSource[] editedSources;
+
+    private Ast.CompilationUnit unit;
+
+    private int place;
+
+    @Setup
+    public void setUp() {
+        parser = new ParserFixture().getParser();
+        parser.setUpdateInPlace(true);
+        final String content = Corpus.generate(sourceKb * 1024, Corpus.DEFAULT_SEED);
+        source = ParserFixture.toSource(content);
+        parser.reset(source);
+        unit = parser.parseCompilationUnit();
+
+        final List<Ast.Block> bodies = methodBodies(unit);
+        final Random random = new Random(Corpus.DEFAULT_SEED);
+        offsets = new int[PLACE_COUNT];
+        editedSources = new DefaultSource[PLACE_COUNT];
+        for (int i = 0; i < PLACE_COUNT; ++i) {
+            offsets[i] = bodies.get(random.nextInt(bodies.size())).getEndPos();
+            editedSources[i] = ParserFixture.toSource(content.substring(0, offsets[i]) + STATEMENT +
+                    content.substring(offsets[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public Ast.CompilationUnit insertAndRemoveStatement() {
+        final int offset = offsets[place];
+        parser.reset(editedSources[place]);
+        unit = incremental ? parser.parseCompilationUnit(unit, offset, 0, STATEMENT.length()) :
+                parser.parseCompilationUnit();
+
+        parser.reset(source);
+        unit = incremental ? parser.parseCompilationUnit(unit, offset, STATEMENT.length(), 0) :
+                parser.parseCompilationUnit();
+
+        place = (place + 1) % PLACE_COUNT;
+        return unit;
+    }
+
+    private static List<Ast.Block> methodBodies(Ast.CompilationUnit unit) {
+        final List<Ast.Block> result = new ArrayList<Ast.Block>();
+        unit.accept(new AstScanner() {
+            @Override
+            public void visitMethod(Ast.MethodDecl node) {
+                if (node.getBody() != null) {
+                    result.add(node.getBody());
+                }
+                super.visitMethod(node);
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstScanner;
+import com.truward.jnova.java.parser.Parser;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parse latency with eager and lazy method bodies, both for the declarations alone and for the
+ * declarations followed by the scan that parses all the lazy bodies.
+ * Run with the GC profiler (enabled by default in {@link BenchmarkRunner}) to compare allocation of the modes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LazyBodiesBenchmark {
+
+    @Param({"32"})
+    public int sourceKb;
+
+    @Param({"false", "true"})
+    public boolean lazyBodies;
+
+    private Parser parser;
+
+    private DefaultSource source;
+
+    @Setup
+    public void setUp() {
+        parser = new ParserFixture().getParser();
+        parser.setLazyBodies(lazyBodies);
+        source = ParserFixture.toSource(Corpus.generate(sourceKb * 1024, Corpus.DEFAULT_SEED));
+    }
+
+    @Benchmark
+    public Ast.CompilationUnit parseDeclarations() {
+        parser.reset(source);
+        return parser.parseCompilationUnit();
+    }
+
+    @Benchmark
+    public Ast.CompilationUnit parseAndScanBodies() {
+        parser.reset(source);
+        final Ast.CompilationUnit unit = parser.parseCompilationUnit();
+        unit.accept(new AstScanner());
+        return unit;
+    }
+}
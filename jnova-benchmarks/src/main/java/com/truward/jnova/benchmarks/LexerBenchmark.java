@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.java.parser.Lexer;
+import com.truward.jnova.java.parser.Token;
+import com.truward.jnova.java.parser.TokenBuffer;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lexer throughput, the auxiliary counters report tokens and characters per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LexerBenchmark {
+
+    @Param({"16", "256"})
+    public int sourceKb;
+
+    /** Shape of the corpus: the regular one, with unicode escapes or dominated by comments. */
+    @Param({"plain", "escaped", "commented"})
+    public String corpus;
+
+    private Lexer lexer;
+
+    private DefaultSource source;
+
+    /**
+     * Counters normalized by JMH to the rates.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long tokens;
+        public long chars;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+            chars = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        lexer = new ParserFixture().getLexer();
+        final CorpusShape shape = new CorpusShape();
+        shape.setCommentRatio("commented".equals(corpus) ? 0.8 : 0.2);
+        shape.setUnicodeEscapeRatio("escaped".equals(corpus) ? 0.01 : 0.0);
+        source = ParserFixture.toSource(Corpus.generate(shape, sourceKb * 1024, Corpus.DEFAULT_SEED));
+    }
+
+    @Benchmark
+    public int scanAll(Counters counters) {
+        lexer.setSource(source.getBuffer(), source.length());
+
+        int count = 0;
+        do {
+            lexer.nextToken();
+            ++count;
+        } while (lexer.token() != Token.EOF);
+
+        counters.tokens += count;
+        counters.chars += source.length();
+        return count;
+    }
+
+    /** Scan into the token buffer that is replayed by the parser, see {@link ParserBenchmark#parseFromTokens()}. */
+    @Benchmark
+    public TokenBuffer scanToBuffer(Counters counters) {
+        final TokenBuffer tokens = TokenBuffer.scan(lexer, source.getBuffer(), source.length());
+
+        counters.tokens += tokens.size();
+        counters.chars += source.length();
+        return tokens;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.util.diagnostics.DiagnosticsLog;
+import com.truward.jnova.util.diagnostics.support.DefaultDiagnosticsLog;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.truward.jnova.util.diagnostics.parameter.Offset.at;
+
+/**
+ * Measures logging of the diagnostics at random offsets of the large source, each diagnostic translates
+ * its offset to the line and column. The line map is built anew for each invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LineMapBenchmark {
+
+    private static final int DIAGNOSTICS_COUNT = 10000;
+
+    @Param({"5120"})
+    public int sourceKb;
+
+    private DefaultSource source;
+
+    private int[] offsets;
+
+    private DiagnosticsLog log;
+
+    @Setup
+    public void setUp() {
+        source = ParserFixture.toSource(Corpus.generate(sourceKb * 1024, Corpus.DEFAULT_SEED));
+        final Random random = new Random(Corpus.DEFAULT_SEED);
+        offsets = new int[DIAGNOSTICS_COUNT];
+        for (int i = 0; i < offsets.length; ++i) {
+            offsets[i] = random.nextInt(source.length());
+        }
+        log = new DefaultDiagnosticsLog(new NullWriter());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DIAGNOSTICS_COUNT)
+    public int logDiagnostics() {
+        log.setSource(source);
+        for (final int offset : offsets) {
+            log.error("diagnostic", at(offset));
+        }
+        return log.getTotalErrors();
+    }
+
+    private static final class NullWriter extends Writer {
+        @Override
+        public void write(char[] buf, int off, int len) {
+            // do nothing
+        }
+
+        @Override
+        public void flush() {
+            // do nothing
+        }
+
+        @Override
+        public void close() {
+            // do nothing
+        }
+    }
+}
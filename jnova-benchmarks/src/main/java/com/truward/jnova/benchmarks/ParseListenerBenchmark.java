@@ -0,0 +1,117 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstScanner;
+import com.truward.jnova.java.ast.DefaultAstFactory;
+import com.truward.jnova.java.code.PredefinedNames;
+import com.truward.jnova.java.parser.JavaParseAdapter;
+import com.truward.jnova.java.parser.JavaParseSkeletonBuilder;
+import com.truward.jnova.java.parser.Parser;
+import com.truward.jnova.util.naming.Symbol;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures counting of the methods and identifiers with the parse listener against the same count over the
+ * parsed compilation unit, and building of the declaration skeletons from the parse events.
+ * Run with the GC profiler (enabled by default in {@link BenchmarkRunner}) to compare allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseListenerBenchmark {
+
+    @Param({"32"})
+    public int sourceKb;
+
+    private PredefinedNames names;
+
+    private Parser parser;
+
+    private DefaultSource source;
+
+    private static final class CountingListener extends JavaParseAdapter {
+        int methods;
+
+        int identifiers;
+
+        @Override
+        public void enterMethod(int kind, int flags, Symbol name, int pos, int typeStart, int typeEnd,
+                                int signatureStart, int signatureEnd) {
+            ++methods;
+        }
+
+        @Override
+        public void onIdentifier(Symbol name, int pos) {
+            ++identifiers;
+        }
+    }
+
+    private static final class CountingScanner extends AstScanner {
+        int methods;
+
+        int identifiers;
+
+        @Override
+        public void visitMethod(Ast.MethodDecl node) {
+            ++methods;
+            super.visitMethod(node);
+        }
+
+        @Override
+        public void visitIdent(Ast.Ident node) {
+            ++identifiers;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        final ParserFixture fixture = new ParserFixture();
+        names = new PredefinedNames(fixture.getSymbolTable());
+        parser = fixture.getParser();
+        source = ParserFixture.toSource(Corpus.generate(sourceKb * 1024, Corpus.DEFAULT_SEED));
+    }
+
+    @Benchmark
+    public int countWithListener() {
+        final CountingListener listener = new CountingListener();
+        parser.reset(source);
+        parser.parse(listener);
+        return listener.methods + listener.identifiers;
+    }
+
+    @Benchmark
+    public int countWithTreeScan() {
+        final CountingScanner scanner = new CountingScanner();
+        parser.reset(source);
+        parser.parseCompilationUnit().accept(scanner);
+        return scanner.methods + scanner.identifiers;
+    }
+
+    @Benchmark
+    public Ast.CompilationUnit buildSkeleton() {
+        final JavaParseSkeletonBuilder builder = new JavaParseSkeletonBuilder(new DefaultAstFactory(), names);
+        parser.reset(source);
+        parser.parse(builder);
+        return builder.getCompilationUnit();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.parser.JavaParseAdapter;
+import com.truward.jnova.java.parser.Outline;
+import com.truward.jnova.java.parser.Parser;
+import com.truward.jnova.java.parser.TokenBuffer;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures per-file parse latency of the warm parser reset for each file and, for comparison,
+ * of the parser wired from scratch for each file.
+ * Run with the GC profiler (enabled by default in {@link BenchmarkRunner}) and divide
+ * <code>gc.alloc.rate.norm</code> by <code>sourceKb</code> to get allocation per KB of source.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParserBenchmark {
+
+    private static final JavaParseAdapter LISTENER = new JavaParseAdapter();
+
+    @Param({"4", "64"})
+    public int sourceKb;
+
+    /** Method and initializer bodies are skipped and left unparsed in the lazy mode. */
+    @Param({"false", "true"})
+    public boolean lazyBodies;
+
+    private ParserFixture fixture;
+
+    private Parser parser;
+
+    private DefaultSource source;
+
+    private TokenBuffer tokens;
+
+    @Setup
+    public void setUp() {
+        fixture = new ParserFixture();
+        parser = fixture.getParser();
+        parser.setLazyBodies(lazyBodies);
+        source = ParserFixture.toSource(Corpus.generate(sourceKb * 1024, Corpus.DEFAULT_SEED));
+        tokens = TokenBuffer.scan(fixture.getLexer(), source.getBuffer(), source.length());
+    }
+
+    @Benchmark
+    public Ast.CompilationUnit parseCompilationUnit() {
+        parser.reset(source);
+        return parser.parseCompilationUnit();
+    }
+
+    /** Parse from the tokens scanned in advance, as for the source with the cached token buffer. */
+    @Benchmark
+    public Ast.CompilationUnit parseFromTokens() {
+        parser.reset(source, tokens);
+        return parser.parseCompilationUnit();
+    }
+
+    /** Outline does not depend on {@link #lazyBodies}, method bodies and initializers are always skipped. */
+    @Benchmark
+    public Outline parseOutline() {
+        parser.reset(source);
+        return parser.parseOutline();
+    }
+
+    /** Streaming parse with the listener that ignores all the events, does not depend on {@link #lazyBodies}. */
+    @Benchmark
+    public void parseStreaming() {
+        parser.reset(source);
+        parser.parse(LISTENER);
+    }
+
+    @Benchmark
+    public Ast.CompilationUnit parseWithNewParser() {
+        final Parser newParser = new ParserFixture().getParser();
+        newParser.setLazyBodies(lazyBodies);
+        newParser.reset(source);
+        return newParser.parseCompilationUnit();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.di.InjectionContext;
+import com.truward.di.support.DefaultInjectionContext;
+import com.truward.jnova.java.code.PredefinedNames;
+import com.truward.jnova.java.parser.Lexer;
+import com.truward.jnova.java.parser.Parser;
+import com.truward.jnova.java.parser.impl.LexerImpl;
+import com.truward.jnova.java.parser.impl.ParserBundle;
+import com.truward.jnova.java.parser.impl.ParserImpl;
+import com.truward.jnova.java.source.Keywords;
+import com.truward.jnova.java.source.Source;
+import com.truward.jnova.util.diagnostics.DiagnosticsLog;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.naming.SymbolTable;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+import com.truward.jnova.util.source.support.DefaultSource;
+
+/**
+ * Wires lexer and parser the same way as parser tests do.
+ * Diagnostics are collected in memory, so that benchmarks do not measure console output.
+ */
+public final class ParserFixture {
+    private final InjectionContext context;
+
+    public ParserFixture() {
+        this(new CollectingDiagnosticsLog());
+    }
+
+    /**
+     * @param log Log of the lexer and parser diagnostics.
+     */
+    public ParserFixture(DiagnosticsLog log) {
+        assert log != null;
+        context = new DefaultInjectionContext();
+
+        context.registerBean(new HashSymbolTable());
+        context.registerBean(PredefinedNames.class);
+        context.registerBean(Keywords.class);
+        context.registerBean(Source.DEFAULT);
+        context.registerBean(ParserBundle.class);
+        context.registerBean(log);
+        context.registerBean(LexerImpl.class);
+        context.registerBean(ParserImpl.class);
+    }
+
+    public Lexer getLexer() {
+        return context.getBean(Lexer.class);
+    }
+
+    public Parser getParser() {
+        return context.getBean(Parser.class);
+    }
+
+    public SymbolTable getSymbolTable() {
+        return context.getBean(SymbolTable.class);
+    }
+
+    public DiagnosticsLog getLog() {
+        return context.getBean(DiagnosticsLog.class);
+    }
+
+    /**
+     * Creates source buffer with one spare character, so that lexer can put EOI marker without copying the buffer.
+     *
+     * @param content Source content.
+     * @return Source with the loaded buffer.
+     */
+    public static DefaultSource toSource(String content) {
+        final DefaultSource source = new DefaultSource(content);
+        source.setOverflowSize(1);
+        source.getBuffer();
+        return source;
+    }
+}
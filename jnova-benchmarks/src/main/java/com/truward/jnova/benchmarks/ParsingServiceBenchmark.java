@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.parser.ParseResult;
+import com.truward.jnova.java.parser.impl.ParallelParsingService;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how parsing of a batch of files scales with the count of threads.
+ * Files differ in size, so that the load balancing between the threads matters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParsingServiceBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int threads;
+
+    @Param({"256"})
+    public int fileCount;
+
+    @Param({"16"})
+    public int averageFileKb;
+
+    private ParallelParsingService service;
+
+    private List<DefaultSource> sources;
+
+    @Setup
+    public void setUp() {
+        service = new ParallelParsingService(threads);
+
+        sources = new ArrayList<DefaultSource>(fileCount);
+        for (int i = 0; i < fileCount; ++i) {
+            // sizes from 1/4 to 7/4 of the average
+            final int sizeKb = Math.max(1, averageFileKb * (1 + (i % 7)) / 4);
+            sources.add(ParserFixture.toSource(Corpus.generate(sizeKb * 1024, Corpus.DEFAULT_SEED + i)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.close();
+    }
+
+    @Benchmark
+    public List<ParseResult> parseAll() {
+        return service.parse(sources);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstPrettyPrinter;
+import com.truward.jnova.java.parser.Parser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures speed of printing the parsed compilation unit back to the source form.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrettyPrinterBenchmark {
+
+    @Param({"4", "64"})
+    public int sourceKb;
+
+    private Ast.CompilationUnit compilationUnit;
+
+    @Setup
+    public void setUp() {
+        final Parser parser = new ParserFixture().getParser();
+        parser.reset(ParserFixture.toSource(Corpus.generate(sourceKb * 1024, Corpus.DEFAULT_SEED)));
+        compilationUnit = parser.parseCompilationUnit();
+    }
+
+    @Benchmark
+    public int print() {
+        final StringWriter writer = new StringWriter(sourceKb * 1024);
+        final AstPrettyPrinter printer = new AstPrettyPrinter(writer, true);
+        printer.printExpr(compilationUnit);
+        return writer.getBuffer().length();
+    }
+}
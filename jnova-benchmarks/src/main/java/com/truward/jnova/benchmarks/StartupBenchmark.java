@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.parser.JavaParsers;
+import com.truward.jnova.java.parser.Parser;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures time to the first parsed compilation unit in a fresh JVM: every fork runs a single invocation,
+ * so that class loading and wiring are included.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    private static final String SOURCE = "package com.example;\n\n" +
+            "import java.util.List;\n\n" +
+            "public class Sample {\n" +
+            "    private List<String> names;\n\n" +
+            "    public int count(int limit) {\n" +
+            "        int result = 0;\n" +
+            "        for (int i = 0; i < limit; ++i) {\n" +
+            "            result += names.get(i).length();\n" +
+            "        }\n" +
+            "        return result;\n" +
+            "    }\n" +
+            "}\n";
+
+    @Benchmark
+    public Ast.CompilationUnit firstParseWithBuilder() {
+        final Parser parser = JavaParsers.builder().diagnostics(new CollectingDiagnosticsLog()).build();
+        parser.reset(new DefaultSource(SOURCE));
+        return parser.parseCompilationUnit();
+    }
+
+    @Benchmark
+    public Ast.CompilationUnit firstParseWithInjectionContext() {
+        final Parser parser = new ParserFixture().getParser();
+        parser.reset(new DefaultSource(SOURCE));
+        return parser.parseCompilationUnit();
+    }
+}
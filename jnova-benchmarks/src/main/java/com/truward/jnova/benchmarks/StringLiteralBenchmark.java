@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.parser.Parser;
+import com.truward.jnova.java.parser.impl.LexerImpl;
+import com.truward.jnova.util.naming.support.HashStringPool;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of the source with the repeated string literals with and without the string pool.
+ * Run with the GC profiler (enabled by default in {@link BenchmarkRunner}) to compare allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StringLiteralBenchmark {
+
+    @Param({"200"})
+    public int methodCount;
+
+    /** Whether the equal string literal values share one string. */
+    @Param({"false", "true"})
+    public boolean pooled;
+
+    private Parser parser;
+
+    private DefaultSource source;
+
+    @Setup
+    public void setUp() {
+        final ParserFixture fixture = new ParserFixture();
+        if (pooled) {
+            ((LexerImpl) fixture.getLexer()).setStringPool(new HashStringPool());
+        }
+        parser = fixture.getParser();
+        source = ParserFixture.toSource(Corpus.generateService(methodCount, Corpus.DEFAULT_SEED));
+    }
+
+    @Benchmark
+    public Ast.CompilationUnit parseService() {
+        parser.reset(source);
+        return parser.parseCompilationUnit();
+    }
+}
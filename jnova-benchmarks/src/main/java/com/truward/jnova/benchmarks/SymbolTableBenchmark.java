@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.util.naming.Symbol;
+import com.truward.jnova.util.naming.SymbolTable;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures symbol interning: lookups of the already interned names and insertion of the new ones.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SymbolTableBenchmark {
+
+    private static final int NAME_COUNT = 4096;
+
+    private char[][] names;
+
+    private SymbolTable warmTable;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(Corpus.DEFAULT_SEED);
+        names = new char[NAME_COUNT][];
+        for (int i = 0; i < NAME_COUNT; ++i) {
+            final char[] name = new char[4 + random.nextInt(16)];
+            for (int j = 0; j < name.length; ++j) {
+                name[j] = (char) ('a' + random.nextInt(26));
+            }
+            names[i] = name;
+        }
+
+        warmTable = new HashSymbolTable();
+        for (final char[] name : names) {
+            warmTable.fromChars(name, 0, name.length);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAME_COUNT)
+    public void lookupExisting(Blackhole blackhole) {
+        for (final char[] name : names) {
+            final Symbol symbol = warmTable.fromChars(name, 0, name.length);
+            blackhole.consume(symbol);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAME_COUNT)
+    public SymbolTable internNew() {
+        final SymbolTable table = new HashSymbolTable();
+        for (final char[] name : names) {
+            table.fromChars(name, 0, name.length);
+        }
+        return table;
+    }
+}
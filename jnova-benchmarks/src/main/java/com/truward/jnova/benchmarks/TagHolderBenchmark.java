@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.benchmarks;
+
+import com.truward.jnova.util.tag.DefaultTagHolder;
+import com.truward.jnova.util.tag.IndexedTagHolder;
+import com.truward.jnova.util.tag.Key;
+import com.truward.jnova.util.tag.TagHolder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures tagging of the holders with a type, a symbol and a scope and reading the tags back, as the tree
+ * attribution does with the nodes. Every other holder has a symbol, every fourth one has a scope.
+ * Run with the GC profiler (enabled by default in {@link BenchmarkRunner}) to compare allocation per holder.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TagHolderBenchmark {
+
+    private static final Key<Object> TYPE = new Key<Object>();
+
+    private static final Key<Object> SYMBOL = new Key<Object>();
+
+    private static final Key<Object> SCOPE = new Key<Object>();
+
+    private static final int HOLDER_COUNT = 4096;
+
+    @Param({"default", "indexed"})
+    public String kind;
+
+    private Object[] values;
+
+    private TagHolder[] holders;
+
+    @Setup
+    public void setUp() {
+        values = new Object[64];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = "value" + i;
+        }
+        holders = putTags();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HOLDER_COUNT)
+    public TagHolder[] putTags() {
+        final TagHolder[] result = new TagHolder[HOLDER_COUNT];
+        for (int i = 0; i < HOLDER_COUNT; ++i) {
+            final TagHolder holder = "indexed".equals(kind) ? new IndexedTagHolder() : new DefaultTagHolder();
+            holder.putTag(TYPE, values[i & 63]);
+            if ((i & 1) == 0) {
+                holder.putTag(SYMBOL, values[(i >> 1) & 63]);
+            }
+            if ((i & 3) == 0) {
+                holder.putTag(SCOPE, values[(i >> 2) & 63]);
+            }
+            result[i] = holder;
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HOLDER_COUNT)
+    public int getTags() {
+        int found = 0;
+        for (final TagHolder holder : holders) {
+            if (holder.getTag(TYPE) != null) {
+                ++found;
+            }
+            if (holder.getTag(SYMBOL) != null) {
+                ++found;
+            }
+            if (holder.getTag(SCOPE) != null) {
+                ++found;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util.diagnostics;
+
+import com.truward.jnova.util.diagnostics.formatter.DiagnosticsSeverity;
+import com.truward.jnova.util.diagnostics.parameter.DiagnosticsParameter;
+import com.truward.jnova.util.diagnostics.parameter.Offset;
+import com.truward.jnova.util.resource.Bundle;
+
+import java.util.Arrays;
+
+/**
+ * Structured diagnostic message.
+ * Message text is resolved from the bundle only when it is requested, so that consumers that
+ * need just keys, offsets or counts never pay for formatting.
+ */
+public final class Diagnostic {
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private static final DiagnosticsParameter[] NO_PARAMETERS = new DiagnosticsParameter[0];
+
+    private final DiagnosticsSeverity severity;
+
+    private final Bundle bundle;
+
+    private final String key;
+
+    private final Object[] arguments;
+
+    private final Offset offset;
+
+    private final DiagnosticsParameter[] parameters;
+
+    private Diagnostic(DiagnosticsSeverity severity, Bundle bundle, String key, Object[] arguments, Offset offset,
+                       DiagnosticsParameter[] parameters) {
+        assert severity != null && key != null && arguments != null && offset != null && parameters != null;
+
+        this.severity = severity;
+        this.bundle = bundle;
+        this.key = key;
+        this.arguments = arguments;
+        this.offset = offset;
+        this.parameters = parameters;
+    }
+
+    private static DiagnosticsParameter[] toParameters(Offset offset) {
+        return offset.isValid() ? new DiagnosticsParameter[] { offset } : NO_PARAMETERS;
+    }
+
+    public static Diagnostic error(Bundle bundle, Offset offset, String key, Object... arguments) {
+        return new Diagnostic(DiagnosticsSeverity.ERROR, bundle, key, arguments, offset, toParameters(offset));
+    }
+
+    public static Diagnostic warning(Bundle bundle, Offset offset, String key, Object... arguments) {
+        return new Diagnostic(DiagnosticsSeverity.WARNING, bundle, key, arguments, offset, toParameters(offset));
+    }
+
+    /**
+     * Creates diagnostic for the already formatted message.
+     * The message itself is used as a key.
+     *
+     * @param severity      Message severity.
+     * @param message       Formatted message.
+     * @param parameters    Diagnostic parameters, the first {@link Offset} if any is used as a message offset.
+     * @return New diagnostic.
+     */
+    public static Diagnostic ofMessage(DiagnosticsSeverity severity, String message,
+                                       DiagnosticsParameter... parameters) {
+        Offset offset = Offset.INVALID;
+        for (final DiagnosticsParameter parameter : parameters) {
+            if (parameter instanceof Offset) {
+                offset = (Offset) parameter;
+                break;
+            }
+        }
+
+        return new Diagnostic(severity, null, message, NO_ARGUMENTS, offset, parameters);
+    }
+
+    public DiagnosticsSeverity getSeverity() {
+        return severity;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Object[] getArguments() {
+        return arguments.clone();
+    }
+
+    public Offset getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return Parameters to be passed to the diagnostic formatter.
+     */
+    public DiagnosticsParameter[] getParameters() {
+        return parameters.clone();
+    }
+
+    /**
+     * Formats message text, this method is not supposed to be called on the hot path.
+     *
+     * @return Formatted message.
+     */
+    public String getMessage() {
+        return bundle != null ? bundle.message(key, arguments) : key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        final Diagnostic that = (Diagnostic) o;
+
+        return severity == that.severity && key.equals(that.key) && offset.equals(that.offset) &&
+                Arrays.equals(arguments, that.arguments);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = severity.hashCode();
+        result = 31 * result + key.hashCode();
+        result = 31 * result + offset.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(severity).append(' ').append(key);
+        if (arguments.length > 0) {
+            sb.append(Arrays.toString(arguments));
+        }
+        if (offset.isValid()) {
+            sb.append(" @").append(offset.getOffset());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util.diagnostics;
+
+/**
+ * Thrown by the diagnostics log when the error budget is exhausted, signals that
+ * processing of the current source should be aborted.
+ */
+public final class DiagnosticsLimitExceededException extends RuntimeException {
+    private final int totalErrors;
+
+    public DiagnosticsLimitExceededException(String message, int totalErrors) {
+        super(message);
+        this.totalErrors = totalErrors;
+    }
+
+    /**
+     * @return Count of errors reported when the limit has been exceeded.
+     */
+    public int getTotalErrors() {
+        return totalErrors;
+    }
+}
@@ -25,6 +25,14 @@ public interface DiagnosticsLog {
     void warning(String message, DiagnosticsParameter... parameters);
     void info(String message, DiagnosticsParameter... parameters);
 
+    /**
+     * Reports structured diagnostic, implementations are expected to format message text
+     * only when it is really needed.
+     *
+     * @param diagnostic Diagnostic to be reported.
+     */
+    void report(Diagnostic diagnostic);
+
     int getTotalErrors();
     int getTotalWarnings();
 
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util.diagnostics.support;
+
+import com.truward.jnova.util.diagnostics.Diagnostic;
+import com.truward.jnova.util.diagnostics.DiagnosticsLog;
+import com.truward.jnova.util.diagnostics.formatter.DiagnosticsFormatter;
+import com.truward.jnova.util.diagnostics.formatter.DiagnosticsSeverity;
+import com.truward.jnova.util.diagnostics.formatter.support.BasicDiagnosticsFormatter;
+import com.truward.jnova.util.diagnostics.parameter.DiagnosticsParameter;
+import com.truward.jnova.util.source.Source;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Diagnostics log that formats and writes messages on the background thread.
+ * Messages are queued into the bounded queue and formatted and written in batches, error and warning counters are
+ * maintained on the calling thread and thus are always exact.
+ * Source buffer is read on the writer thread, so it should be fully loaded before it is passed to this log.
+ * The owner must call {@link #close()} to release the writer thread.
+ */
+public final class AsyncDiagnosticsLog implements DiagnosticsLog, Flushable, Closeable {
+
+    /**
+     * Determines what happens when the message queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Caller thread waits until the writer thread frees space in the queue.
+         */
+        BLOCK,
+
+        /**
+         * New message is discarded, errors are still counted.
+         */
+        DROP
+    }
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final Record STOP = new Record(null, null);
+
+    private final BlockingQueue<Record> queue;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final PrintWriter logWriter;
+
+    private final Thread writerThread;
+
+    private final AtomicInteger droppedCount = new AtomicInteger();
+
+    private Source source;
+
+    private int totalErrors = 0;
+
+    private int totalWarnings = 0;
+
+    private boolean closed = false;
+
+    public AsyncDiagnosticsLog() {
+        this(new PrintWriter(System.err));
+    }
+
+    public AsyncDiagnosticsLog(Writer logWriter) {
+        this(logWriter, new BasicDiagnosticsFormatter(), DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    public AsyncDiagnosticsLog(Writer logWriter, DiagnosticsFormatter formatter,
+                               int capacity, OverflowPolicy overflowPolicy) {
+        assert logWriter != null && formatter != null && capacity > 0 && overflowPolicy != null;
+
+        this.queue = new ArrayBlockingQueue<Record>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.logWriter = new PrintWriter(logWriter);
+
+        this.writerThread = new Thread(new BatchWriter(formatter), "jnova-diagnostics-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * @return Count of the messages discarded due to the queue overflow.
+     */
+    public int getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Waits until all the messages queued so far are written.
+     */
+    @Override
+    public void flush() {
+        if (closed) {
+            return;
+        }
+
+        final Record marker = new Record(null, null);
+        marker.written = new CountDownLatch(1);
+        put(marker);
+        awaitUninterruptibly(marker.written);
+    }
+
+    /**
+     * Writes all the pending messages and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        put(STOP);
+
+        boolean interrupted = false;
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    private void enqueue(Diagnostic diagnostic) {
+        if (closed) {
+            throw new IllegalStateException("Diagnostics log has been closed");
+        }
+
+        final Record record = new Record(diagnostic, source);
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            put(record);
+        } else if (!queue.offer(record)) {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    private void put(Record record) {
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                queue.put(record);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    @Override
+    public void error(String message, DiagnosticsParameter... parameters) {
+        report(Diagnostic.ofMessage(DiagnosticsSeverity.ERROR, message, parameters));
+    }
+
+    @Override
+    public void warning(String message, DiagnosticsParameter... parameters) {
+        report(Diagnostic.ofMessage(DiagnosticsSeverity.WARNING, message, parameters));
+    }
+
+    @Override
+    public void info(String message, DiagnosticsParameter... parameters) {
+        report(Diagnostic.ofMessage(DiagnosticsSeverity.INFO, message, parameters));
+    }
+
+    @Override
+    public void report(Diagnostic diagnostic) {
+        enqueue(diagnostic);
+
+        final DiagnosticsSeverity severity = diagnostic.getSeverity();
+        if (severity == DiagnosticsSeverity.ERROR) {
+            ++totalErrors;
+        } else if (severity == DiagnosticsSeverity.WARNING) {
+            ++totalWarnings;
+        }
+    }
+
+    @Override
+    public int getTotalErrors() {
+        return totalErrors;
+    }
+
+    @Override
+    public int getTotalWarnings() {
+        return totalWarnings;
+    }
+
+    @Override
+    public void setSource(Source source) {
+        this.source = source;
+    }
+
+
+    /**
+     * Queued diagnostic message.
+     */
+    private static final class Record {
+        final Diagnostic diagnostic;
+        final Source source;
+
+        // non-null for flush markers
+        CountDownLatch written;
+
+        Record(Diagnostic diagnostic, Source source) {
+            this.diagnostic = diagnostic;
+            this.source = source;
+        }
+    }
+
+    /**
+     * Drains the queue, formats the drained messages into the intermediate buffer and
+     * writes this buffer to the target writer at once.
+     */
+    private final class BatchWriter implements Runnable {
+        private final StringWriter batchBuffer = new StringWriter();
+
+        private final DefaultDiagnosticsLog formattingLog;
+
+        private Source currentSource;
+
+        BatchWriter(DiagnosticsFormatter formatter) {
+            this.formattingLog = new DefaultDiagnosticsLog(batchBuffer, formatter);
+        }
+
+        @Override
+        public void run() {
+            final List<Record> batch = new ArrayList<Record>();
+            boolean stopped = false;
+
+            while (!stopped) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    // writer thread is stopped via STOP record only
+                    continue;
+                }
+                queue.drainTo(batch);
+
+                for (final Record record : batch) {
+                    if (record == STOP) {
+                        stopped = true;
+                    } else if (record.written != null) {
+                        writeBatch();
+                        record.written.countDown();
+                    } else {
+                        try {
+                            format(record);
+                        } catch (RuntimeException e) {
+                            // keep the writer thread alive, otherwise flush and close would never return
+                            e.printStackTrace(new PrintWriter(batchBuffer));
+                        }
+                    }
+                }
+
+                batch.clear();
+                writeBatch();
+            }
+        }
+
+        private void format(Record record) {
+            if (record.source != currentSource) {
+                currentSource = record.source;
+                formattingLog.setSource(currentSource);
+            }
+
+            formattingLog.report(record.diagnostic);
+        }
+
+        private void writeBatch() {
+            final StringBuffer buffer = batchBuffer.getBuffer();
+            if (buffer.length() == 0) {
+                return;
+            }
+
+            logWriter.append(buffer);
+            logWriter.flush();
+            buffer.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util.diagnostics.support;
+
+import com.truward.jnova.util.diagnostics.Diagnostic;
+import com.truward.jnova.util.diagnostics.DiagnosticsLog;
+import com.truward.jnova.util.diagnostics.formatter.DiagnosticsSeverity;
+import com.truward.jnova.util.diagnostics.parameter.DiagnosticsParameter;
+import com.truward.jnova.util.source.Source;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Diagnostics log that keeps reported diagnostics in memory without formatting them.
+ */
+public final class CollectingDiagnosticsLog implements DiagnosticsLog {
+
+    private final List<Diagnostic> diagnostics = new ArrayList<Diagnostic>();
+
+    private Source source;
+
+    private int totalErrors = 0;
+
+    private int totalWarnings = 0;
+
+    /**
+     * @return All the diagnostics reported so far in the order of reporting.
+     */
+    public List<Diagnostic> getDiagnostics() {
+        return Collections.unmodifiableList(diagnostics);
+    }
+
+    /**
+     * @param severity Severity of the diagnostics to be returned.
+     * @return Diagnostics of the given severity in the order of reporting.
+     */
+    public List<Diagnostic> getDiagnostics(DiagnosticsSeverity severity) {
+        final List<Diagnostic> result = new ArrayList<Diagnostic>();
+        for (final Diagnostic diagnostic : diagnostics) {
+            if (diagnostic.getSeverity() == severity) {
+                result.add(diagnostic);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Source set at the moment, null if no source has been associated.
+     */
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * Removes all the collected diagnostics and resets counters.
+     */
+    public void clear() {
+        diagnostics.clear();
+        totalErrors = 0;
+        totalWarnings = 0;
+    }
+
+
+    @Override
+    public void error(String message, DiagnosticsParameter... parameters) {
+        report(Diagnostic.ofMessage(DiagnosticsSeverity.ERROR, message, parameters));
+    }
+
+    @Override
+    public void warning(String message, DiagnosticsParameter... parameters) {
+        report(Diagnostic.ofMessage(DiagnosticsSeverity.WARNING, message, parameters));
+    }
+
+    @Override
+    public void info(String message, DiagnosticsParameter... parameters) {
+        report(Diagnostic.ofMessage(DiagnosticsSeverity.INFO, message, parameters));
+    }
+
+    @Override
+    public void report(Diagnostic diagnostic) {
+        diagnostics.add(diagnostic);
+
+        final DiagnosticsSeverity severity = diagnostic.getSeverity();
+        if (severity == DiagnosticsSeverity.ERROR) {
+            ++totalErrors;
+        } else if (severity == DiagnosticsSeverity.WARNING) {
+            ++totalWarnings;
+        }
+    }
+
+    @Override
+    public int getTotalErrors() {
+        return totalErrors;
+    }
+
+    @Override
+    public int getTotalWarnings() {
+        return totalWarnings;
+    }
+
+    @Override
+    public void setSource(Source source) {
+        this.source = source;
+    }
+}
@@ -21,7 +21,9 @@ import com.truward.jnova.util.diagnostics.formatter.DiagnosticsTemplate;
 import com.truward.jnova.util.diagnostics.formatter.support.BasicDiagnosticsFormatter;
 import com.truward.jnova.util.diagnostics.parameter.DiagnosticsParameter;
 import com.truward.jnova.util.diagnostics.source.SourcePosition;
+import com.truward.jnova.util.source.LineMap;
 import com.truward.jnova.util.source.Source;
+import com.truward.jnova.util.source.support.DefaultLineMap;
 
 import java.io.PrintWriter;
 import java.io.Writer;
@@ -35,6 +37,8 @@ public final class DefaultDiagnosticsLog implements DiagnosticsLog {
 
     private Source source;
 
+    private LineMap lineMap;
+
     private final PrintWriter logWriter;
 
     private final DiagnosticsFormatter formatter;
@@ -58,6 +62,12 @@ public final class DefaultDiagnosticsLog implements DiagnosticsLog {
 
 
 
+    private LineMap getLineMap() {
+        if (lineMap == null) {
+            lineMap = new DefaultLineMap(source);
+        }
+        return lineMap;
+    }
 
     private void print(final DiagnosticsSeverity severity,
                        final String message,
@@ -79,7 +89,7 @@ public final class DefaultDiagnosticsLog implements DiagnosticsLog {
                     return null;
                 }
 
-                return DiagnosticsSourceUtil.translateOffset(source, offset);
+                return DiagnosticsSourceUtil.translateOffset(source, getLineMap(), offset);
             }
 
             @Override
@@ -88,7 +98,7 @@ public final class DefaultDiagnosticsLog implements DiagnosticsLog {
                     throw new IllegalStateException("Can't get content with unknown diagnostic source");
                 }
 
-                return DiagnosticsSourceUtil.getLine(source, row);
+                return DiagnosticsSourceUtil.getLine(source, getLineMap(), row);
             }
 
             @Override
@@ -135,6 +145,18 @@ public final class DefaultDiagnosticsLog implements DiagnosticsLog {
         print(DiagnosticsSeverity.INFO, message, parameters);
     }
 
+    @Override
+    public void report(Diagnostic diagnostic) {
+        final DiagnosticsSeverity severity = diagnostic.getSeverity();
+        print(severity, diagnostic.getMessage(), diagnostic.getParameters());
+
+        if (severity == DiagnosticsSeverity.ERROR) {
+            ++totalErrors;
+        } else if (severity == DiagnosticsSeverity.WARNING) {
+            ++totalWarnings;
+        }
+    }
+
     @Override
     public int getTotalErrors() {
         return totalErrors;
@@ -148,5 +170,6 @@ public final class DefaultDiagnosticsLog implements DiagnosticsLog {
     @Override
     public void setSource(Source source) {
         this.source = source;
+        this.lineMap = null;
     }
 }
@@ -15,7 +15,9 @@
 package com.truward.jnova.util.diagnostics.support;
 
 import com.truward.jnova.util.diagnostics.source.SourcePosition;
+import com.truward.jnova.util.source.LineMap;
 import com.truward.jnova.util.source.Source;
+import com.truward.jnova.util.source.support.DefaultLineMap;
 
 /**
  * Internally used utility class for working with diagnostic source.
@@ -25,53 +27,28 @@ public final class DiagnosticsSourceUtil {
 
 
     public static SourcePosition translateOffset(Source source, int offset) {
-        final char[] buf = source.getBuffer();
-        final int length = source.length();
-
-        int currentColumn = 0;
-        int currentRow = 0;
-        int currentOffset = 0;
-
-        for (int i = 0; i < length; ++i) {
-            if (currentOffset == offset) {
-                return new SourcePosition(currentRow, currentColumn);
-            }
-            ++currentOffset;
+        return translateOffset(source, new DefaultLineMap(source), offset);
+    }
 
-            if (buf[i] == '\n') {
-                currentColumn = 0;
-                ++currentRow;
-            } else {
-                ++currentColumn;
-            }
+    public static SourcePosition translateOffset(Source source, LineMap lineMap, int offset) {
+        if (offset < 0 || offset >= source.length()) {
+            return null;
         }
 
-        return null;
+        final int row = lineMap.getRow(offset);
+        return new SourcePosition(row, offset - lineMap.getLineStart(row));
     }
 
     public static String getLine(Source source, int row) {
-        int currentRow = 0;
-        final char[] buf = source.getBuffer();
-        final int length = source.length();
-
-        for (int i = 0; i < length; ++i) {
-            final char ch = buf[i];
-            if (ch == '\n') {
-                ++currentRow;
-                continue;
-            }
-
-            if (currentRow == row) {
-                int startOffset = i;
-                int endOffset = i + 1;
-
-                // advance ahead till end of the buffer or new line
-                for (; endOffset < length && buf[endOffset] != '\n'; ++endOffset) {}
+        return getLine(source, new DefaultLineMap(source), row);
+    }
 
-                return new String(buf, startOffset, endOffset - startOffset);
-            }
+    public static String getLine(Source source, LineMap lineMap, int row) {
+        if (row < 0 || row >= lineMap.getLineCount()) {
+            return null;
         }
 
-        return null;
+        final int startOffset = lineMap.getLineStart(row);
+        return new String(source.getBuffer(), startOffset, lineMap.getLineEnd(row) - startOffset);
     }
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util.diagnostics.support;
+
+import com.truward.jnova.util.diagnostics.Diagnostic;
+import com.truward.jnova.util.diagnostics.DiagnosticsLimitExceededException;
+import com.truward.jnova.util.diagnostics.DiagnosticsLog;
+import com.truward.jnova.util.diagnostics.formatter.DiagnosticsSeverity;
+import com.truward.jnova.util.diagnostics.parameter.DiagnosticsParameter;
+import com.truward.jnova.util.source.Source;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Diagnostics log that filters diagnostics before passing them to the delegate log.
+ * <ul>
+ *     <li>Error budgets: once the count of errors in the current source or in all the sources exceeds
+ *     the limit, {@link DiagnosticsLimitExceededException} is thrown (or, if aborting is disabled,
+ *     all the subsequent diagnostics are suppressed).</li>
+ *     <li>Deduplication: diagnostics with the same key and offset are reported once per source.</li>
+ *     <li>Rate limiting: at most the given count of diagnostics with the same key is reported per source.</li>
+ * </ul>
+ * Counters returned by this log include suppressed diagnostics.
+ */
+public final class PolicyDiagnosticsLog implements DiagnosticsLog {
+
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final DiagnosticsLog delegate;
+
+    private int maxErrorsPerSource = UNLIMITED;
+
+    private int maxErrors = UNLIMITED;
+
+    private int maxReportsPerKey = UNLIMITED;
+
+    private boolean deduplicate = true;
+
+    private boolean abortOnLimit = true;
+
+    private final Set<KeyOffset> reported = new HashSet<KeyOffset>();
+
+    private final Map<String, int[]> keyCounts = new HashMap<String, int[]>();
+
+    private Source source;
+
+    private int sourceErrors = 0;
+
+    private int totalErrors = 0;
+
+    private int totalWarnings = 0;
+
+    private int suppressedCount = 0;
+
+    private boolean limitExceeded = false;
+
+    public PolicyDiagnosticsLog(DiagnosticsLog delegate) {
+        assert delegate != null;
+        this.delegate = delegate;
+    }
+
+    public void setMaxErrorsPerSource(int maxErrorsPerSource) {
+        assert maxErrorsPerSource >= 0;
+        this.maxErrorsPerSource = maxErrorsPerSource;
+    }
+
+    public void setMaxErrors(int maxErrors) {
+        assert maxErrors >= 0;
+        this.maxErrors = maxErrors;
+    }
+
+    public void setMaxReportsPerKey(int maxReportsPerKey) {
+        assert maxReportsPerKey > 0;
+        this.maxReportsPerKey = maxReportsPerKey;
+    }
+
+    public void setDeduplicate(boolean deduplicate) {
+        this.deduplicate = deduplicate;
+    }
+
+    /**
+     * @param abortOnLimit If true, exhausting the error budget results in
+     *                     {@link DiagnosticsLimitExceededException}, otherwise it is only flagged.
+     */
+    public void setAbortOnLimit(boolean abortOnLimit) {
+        this.abortOnLimit = abortOnLimit;
+    }
+
+    /**
+     * @return True, if the error budget for the current source has been exhausted.
+     */
+    public boolean isLimitExceeded() {
+        return limitExceeded;
+    }
+
+    /**
+     * @return Count of diagnostics that have not been passed to the delegate log.
+     */
+    public int getSuppressedCount() {
+        return suppressedCount;
+    }
+
+
+    @Override
+    public void error(String message, DiagnosticsParameter... parameters) {
+        report(Diagnostic.ofMessage(DiagnosticsSeverity.ERROR, message, parameters));
+    }
+
+    @Override
+    public void warning(String message, DiagnosticsParameter... parameters) {
+        report(Diagnostic.ofMessage(DiagnosticsSeverity.WARNING, message, parameters));
+    }
+
+    @Override
+    public void info(String message, DiagnosticsParameter... parameters) {
+        report(Diagnostic.ofMessage(DiagnosticsSeverity.INFO, message, parameters));
+    }
+
+    @Override
+    public void report(Diagnostic diagnostic) {
+        final DiagnosticsSeverity severity = diagnostic.getSeverity();
+        if (severity == DiagnosticsSeverity.ERROR) {
+            ++totalErrors;
+            ++sourceErrors;
+
+            if (sourceErrors > maxErrorsPerSource || totalErrors > maxErrors) {
+                limitExceeded = true;
+                if (abortOnLimit) {
+                    ++suppressedCount;
+                    throw new DiagnosticsLimitExceededException("Too many errors in " +
+                            (source != null ? source.getSourceName() : "<unspecified>") + ": " +
+                            sourceErrors + " in the source, " + totalErrors + " in total", totalErrors);
+                }
+            }
+        } else if (severity == DiagnosticsSeverity.WARNING) {
+            ++totalWarnings;
+        }
+
+        if (limitExceeded || !isAllowed(diagnostic)) {
+            ++suppressedCount;
+            return;
+        }
+
+        delegate.report(diagnostic);
+    }
+
+    private boolean isAllowed(Diagnostic diagnostic) {
+        final String key = diagnostic.getKey();
+
+        if (deduplicate && !reported.add(new KeyOffset(key, diagnostic.getOffset().getOffset()))) {
+            return false;
+        }
+
+        if (maxReportsPerKey != UNLIMITED) {
+            int[] count = keyCounts.get(key);
+            if (count == null) {
+                count = new int[1];
+                keyCounts.put(key, count);
+            }
+
+            if (count[0] >= maxReportsPerKey) {
+                return false;
+            }
+            ++count[0];
+        }
+
+        return true;
+    }
+
+    @Override
+    public int getTotalErrors() {
+        return totalErrors;
+    }
+
+    @Override
+    public int getTotalWarnings() {
+        return totalWarnings;
+    }
+
+    /**
+     * Associates new source with this log, per-source budgets, deduplication and rate limits are reset.
+     *
+     * @param source New source.
+     */
+    @Override
+    public void setSource(Source source) {
+        this.source = source;
+        this.sourceErrors = 0;
+        this.limitExceeded = totalErrors > maxErrors;
+        this.reported.clear();
+        this.keyCounts.clear();
+
+        delegate.setSource(source);
+    }
+
+
+    /**
+     * Deduplication key.
+     */
+    private static final class KeyOffset {
+        final String key;
+        final int offset;
+
+        KeyOffset(String key, int offset) {
+            this.key = key;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            final KeyOffset that = (KeyOffset) o;
+
+            return offset == that.offset && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * key.hashCode() + offset;
+        }
+    }
+}
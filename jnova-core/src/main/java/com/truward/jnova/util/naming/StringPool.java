@@ -0,0 +1,42 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util.naming;
+
+/**
+ * Represents pool of strings, equal character sequences are mapped to the same string instance,
+ * so that the repeated literals share one string.
+ */
+public interface StringPool {
+
+    /**
+     * Gets a string with the characters from the given buffer in the specified range.
+     *
+     * @param src       Source char buffer.
+     * @param start     Index in source chars buffer.
+     * @param length    Length of the string.
+     * @return Non-null string, the same instance for the same characters.
+     */
+    String fromChars(char[] src, int start, int length);
+
+    /**
+     * @return Count of the pooled strings.
+     */
+    int size();
+
+    /**
+     * Removes all the pooled strings.
+     */
+    void clear();
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util.naming.support;
+
+import com.truward.jnova.util.naming.StringPool;
+
+/**
+ * Open addressing hash set of strings looked up by the character ranges, so that a string is created only
+ * for the characters that are not pooled yet.
+ * Not thread-safe, the pool should be shared only between the lexers used by one thread as the symbol table.
+ */
+public final class HashStringPool implements StringPool {
+
+    /**
+     * The hash table of the pooled strings, its length is a power of two.
+     */
+    private String[] strings;
+
+    /**
+     * The number of the pooled strings.
+     */
+    private int size;
+
+    /**
+     * Public constructor.
+     *
+     * @param capacity  Initial size of the hash table, needs to be a power of two.
+     */
+    public HashStringPool(int capacity) {
+        assert capacity > 0 && (capacity & (capacity - 1)) == 0;
+        strings = new String[capacity];
+    }
+
+    /**
+     * Default public constructor.
+     */
+    public HashStringPool() {
+        this(0x400);
+    }
+
+    // Same as String.hashCode(), so that the pooled strings are rehashed with their cached hash codes.
+    private static int hashValue(char[] src, int start, int length) {
+        int h = 0;
+        for (int i = start; i < start + length; i++) {
+            h = 31 * h + src[i];
+        }
+        return h;
+    }
+
+    // Does the string equal to src[start..start+length-1]?
+    private static boolean equals(String s, char[] src, int start, int length) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(i) != src[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String fromChars(char[] src, int start, int length) {
+        final int hash = hashValue(src, start, length);
+        final int mask = strings.length - 1;
+        int index = hash & mask;
+        String s;
+        while ((s = strings[index]) != null) {
+            if (s.hashCode() == hash && equals(s, src, start, length)) {
+                return s;
+            }
+            index = (index + 1) & mask;
+        }
+
+        s = new String(src, start, length);
+        strings[index] = s;
+        if (++size * 2 > strings.length) {
+            rehash();
+        }
+        return s;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = null;
+        }
+        size = 0;
+    }
+
+    private void rehash() {
+        final String[] newStrings = new String[strings.length * 2];
+        final int mask = newStrings.length - 1;
+        for (final String s : strings) {
+            if (s != null) {
+                int index = s.hashCode() & mask;
+                while (newStrings[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                newStrings[index] = s;
+            }
+        }
+        strings = newStrings;
+    }
+}
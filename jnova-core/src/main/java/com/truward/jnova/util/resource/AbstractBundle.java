@@ -14,56 +14,62 @@
 
 package com.truward.jnova.util.resource;
 
-import java.lang.ref.Reference;
-import java.lang.ref.SoftReference;
-import java.text.MessageFormat;
-import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Abstract implementation of the bundle interface.
+ * Messages are compiled once on the first access and cached, the instances are safe to be shared across threads.
  */
 public abstract class AbstractBundle implements Bundle {
-    private Reference<ResourceBundle> bundleReference;
+    private volatile ResourceBundle bundle;
+
+    private final ConcurrentMap<String, Message> messages = new ConcurrentHashMap<String, Message>();
 
     private ResourceBundle getBundle() {
-        ResourceBundle bundle = null;
-        if (bundleReference != null) {
-            bundle = bundleReference.get();
+        ResourceBundle result = bundle;
+        if (result == null) {
+            // racy initialization is fine here, since resource bundles are cached by the JDK
+            result = ResourceBundle.getBundle(getBundleName());
+            bundle = result;
         }
+        return result;
+    }
 
-        if (bundle == null) {
-            bundle = ResourceBundle.getBundle(getBundleName());
-            bundleReference = new SoftReference<ResourceBundle>(bundle);
+    private Message getMessage(String key) {
+        Message message = messages.get(key);
+        if (message == null) {
+            final ResourceBundle resourceBundle = getBundle();
+            if (!resourceBundle.containsKey(key)) {
+                return null;
+            }
+
+            message = new Message(postProcess(resourceBundle.getString(key)));
+            final Message existing = messages.putIfAbsent(key, message);
+            if (existing != null) {
+                message = existing;
+            }
         }
-        return bundle;
+        return message;
     }
 
     private String messageOrDefault(String key, String defaultValue, Object... params) {
-        if (getBundle() == null) {
-            return defaultValue;
-        }
-
-        String value;
-        try {
-            value = getBundle().getString(key);
-        }
-        catch (MissingResourceException e) {
+        final Message message = getMessage(key);
+        if (message == null) {
             if (defaultValue != null) {
-                value = defaultValue;
-            } else {
-                value = "!" + key + "!";
-                assert false: key + " is not found in " + getBundleName();
+                return defaultValue;
             }
-        }
 
-        value = postProcess(value);
+            assert false: key + " is not found in " + getBundleName();
+            return "!" + key + "!";
+        }
 
-        if (params.length > 0 && value.indexOf('{')>=0) {
-            return MessageFormat.format(value, params);
+        if (params.length > 0 && message.template != null) {
+            return message.template.format(params);
         }
 
-        return value;
+        return message.text;
     }
 
     protected abstract String getBundleName();
@@ -87,4 +93,20 @@ public abstract class AbstractBundle implements Bundle {
     public String getString(String key) {
         return getBundle().getString(key);
     }
+
+
+    /**
+     * Cached bundle message.
+     */
+    private static final class Message {
+        final String text;
+
+        // null if the message has no arguments
+        final MessageTemplate template;
+
+        Message(String text) {
+            this.text = text;
+            this.template = text.indexOf('{') >= 0 ? MessageTemplate.compile(text) : null;
+        }
+    }
 }
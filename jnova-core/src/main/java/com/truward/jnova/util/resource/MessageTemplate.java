@@ -0,0 +1,172 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util.resource;
+
+import java.text.DateFormat;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.Date;
+
+/**
+ * Immutable precompiled message pattern.
+ * Pattern is split once into literal segments and argument references, so formatting does
+ * not need to parse the pattern again. Instances are thread safe.
+ * Only simple <code>{n}</code> arguments are precompiled, patterns that use format types or styles
+ * (e.g. <code>{0,number}</code>) are delegated to {@link MessageFormat}.
+ * @see MessageFormat
+ */
+public final class MessageTemplate {
+    private final String pattern;
+
+    /**
+     * Literal segments, literals[i] precedes the argument argumentIndexes[i].
+     * Null if the pattern is not precompiled.
+     */
+    private final String[] literals;
+
+    private final int[] argumentIndexes;
+
+    private final int literalLength;
+
+    private MessageTemplate(String pattern, String[] literals, int[] argumentIndexes) {
+        this.pattern = pattern;
+        this.literals = literals;
+        this.argumentIndexes = argumentIndexes;
+
+        int length = 0;
+        if (literals != null) {
+            for (final String literal : literals) {
+                length += literal.length();
+            }
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compiles the given pattern.
+     *
+     * @param pattern Message pattern in the {@link MessageFormat} syntax.
+     * @return Compiled template.
+     */
+    public static MessageTemplate compile(String pattern) {
+        final int length = pattern.length();
+        final StringBuilder literal = new StringBuilder(length);
+        final String[] literals = new String[length + 1];
+        final int[] argumentIndexes = new int[length];
+        int argumentCount = 0;
+        boolean quoted = false;
+
+        for (int i = 0; i < length; ++i) {
+            final char ch = pattern.charAt(i);
+            if (ch == '\'') {
+                if (i + 1 < length && pattern.charAt(i + 1) == '\'') {
+                    literal.append('\'');
+                    ++i;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (ch == '{' && !quoted) {
+                final int end = pattern.indexOf('}', i + 1);
+                final int argumentIndex = (end < 0) ? -1 : parseArgumentIndex(pattern, i + 1, end);
+                if (argumentIndex < 0) {
+                    // unsupported argument syntax, leave it to the message format
+                    return new MessageTemplate(pattern, null, null);
+                }
+
+                literals[argumentCount] = literal.toString();
+                argumentIndexes[argumentCount] = argumentIndex;
+                ++argumentCount;
+                literal.setLength(0);
+                i = end;
+            } else {
+                literal.append(ch);
+            }
+        }
+
+        literals[argumentCount] = literal.toString();
+
+        final String[] compiledLiterals = new String[argumentCount + 1];
+        System.arraycopy(literals, 0, compiledLiterals, 0, compiledLiterals.length);
+        final int[] compiledIndexes = new int[argumentCount];
+        System.arraycopy(argumentIndexes, 0, compiledIndexes, 0, argumentCount);
+        return new MessageTemplate(pattern, compiledLiterals, compiledIndexes);
+    }
+
+    private static int parseArgumentIndex(String pattern, int start, int end) {
+        if (start == end) {
+            return -1;
+        }
+
+        int result = 0;
+        for (int i = start; i < end; ++i) {
+            final char ch = pattern.charAt(i);
+            if (ch < '0' || ch > '9' || result > (Integer.MAX_VALUE / 10 - 1)) {
+                return -1;
+            }
+            result = result * 10 + (ch - '0');
+        }
+
+        return result;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Formats message by using the given arguments, the result is the same as the one
+     * returned by {@link MessageFormat#format(String, Object...)}.
+     *
+     * @param arguments Format arguments.
+     * @return Formatted message.
+     */
+    public String format(Object... arguments) {
+        if (literals == null) {
+            return MessageFormat.format(pattern, arguments);
+        }
+
+        final StringBuilder builder = new StringBuilder(literalLength + 16 * argumentIndexes.length);
+        for (int i = 0; i < argumentIndexes.length; ++i) {
+            builder.append(literals[i]);
+            appendArgument(builder, argumentIndexes[i], arguments);
+        }
+        builder.append(literals[argumentIndexes.length]);
+
+        return builder.toString();
+    }
+
+    private static void appendArgument(StringBuilder builder, int index, Object[] arguments) {
+        if (arguments == null || index >= arguments.length) {
+            builder.append('{').append(index).append('}');
+            return;
+        }
+
+        final Object argument = arguments[index];
+        if (argument instanceof String) {
+            builder.append((String) argument);
+        } else if (argument instanceof Number) {
+            builder.append(NumberFormat.getInstance().format(argument));
+        } else if (argument instanceof Date) {
+            builder.append(DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT).format(argument));
+        } else {
+            builder.append(argument);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util.source;
+
+/**
+ * Maps character offsets in the source to zero-based rows and columns.
+ * Lines are separated by the line feed character.
+ */
+public interface LineMap {
+    /**
+     * Returns total number of lines in the source, an empty source contains exactly one line.
+     *
+     * @return Line count.
+     */
+    int getLineCount();
+
+    /**
+     * Gets zero-based row that contains the given offset.
+     *
+     * @param offset Offset in the source, should be in [0, length] range.
+     * @return Row number.
+     */
+    int getRow(int offset);
+
+    /**
+     * Gets zero-based column of the given offset.
+     *
+     * @param offset Offset in the source, should be in [0, length] range.
+     * @return Column number.
+     */
+    int getColumn(int offset);
+
+    /**
+     * Gets offset of the first character in the given row.
+     *
+     * @param row Zero-based row number.
+     * @return Start offset.
+     */
+    int getLineStart(int row);
+
+    /**
+     * Gets offset of the line feed that terminates the given row or source length for the last row.
+     *
+     * @param row Zero-based row number.
+     * @return End offset, exclusive.
+     */
+    int getLineEnd(int row);
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util.source.support;
+
+import com.truward.jnova.util.source.LineMap;
+import com.truward.jnova.util.source.Source;
+
+/**
+ * Default implementation of the line map.
+ * Line starts are collected on the first access with the single pass over the source buffer,
+ * subsequent lookups use binary search.
+ */
+public final class DefaultLineMap implements LineMap {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Source source;
+
+    private int[] lineStarts;
+
+    private int lineCount;
+
+    public DefaultLineMap(Source source) {
+        assert source != null;
+        this.source = source;
+    }
+
+    @Override
+    public int getLineCount() {
+        ensureLineStarts();
+        return lineCount;
+    }
+
+    @Override
+    public int getRow(int offset) {
+        ensureLineStarts();
+        if (offset < 0 || offset > source.length()) {
+            throw new IndexOutOfBoundsException("Offset " + offset + " is out of source bounds");
+        }
+
+        // find the last line start that is less than or equal to the given offset
+        int low = 0;
+        int high = lineCount - 1;
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if (lineStarts[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+
+    @Override
+    public int getColumn(int offset) {
+        return offset - lineStarts[getRow(offset)];
+    }
+
+    @Override
+    public int getLineStart(int row) {
+        ensureLineStarts();
+        checkRow(row);
+        return lineStarts[row];
+    }
+
+    @Override
+    public int getLineEnd(int row) {
+        ensureLineStarts();
+        checkRow(row);
+        return (row + 1 < lineCount) ? lineStarts[row + 1] - 1 : source.length();
+    }
+
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= lineCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " is out of source bounds");
+        }
+    }
+
+    private void ensureLineStarts() {
+        if (lineStarts != null) {
+            return;
+        }
+
+        final char[] buf = source.getBuffer();
+        final int length = source.length();
+
+        int[] starts = new int[INITIAL_CAPACITY];
+        int count = 1; // first line always starts at zero offset
+
+        for (int i = 0; i < length; ++i) {
+            if (buf[i] == '\n') {
+                if (count == starts.length) {
+                    final int[] tmp = new int[starts.length * 2];
+                    System.arraycopy(starts, 0, tmp, 0, count);
+                    starts = tmp;
+                }
+                starts[count++] = i + 1;
+            }
+        }
+
+        lineStarts = starts;
+        lineCount = count;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util.tag;
+
+import java.util.Arrays;
+
+/**
+ * Tag holder that keeps the values in an array indexed by the key slots, see {@link Key#getSlot()}.
+ * Array is allocated by the first put and grows to the exact size of the greatest slot, so that the holders
+ * without tags take no memory besides the reference.
+ */
+public class IndexedTagHolder implements TagHolder {
+
+    private Object[] tags;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T putTag(Key<T> key, T value) {
+        final int slot = key.getSlot();
+        if (tags == null) {
+            if (value == null) {
+                return null;
+            }
+            tags = new Object[slot + 1];
+        } else if (slot >= tags.length) {
+            if (value == null) {
+                return null;
+            }
+            tags = Arrays.copyOf(tags, slot + 1);
+        }
+        final T result = (T) tags[slot];
+        tags[slot] = value;
+        return result;
+    }
+
+    @Override
+    public <T> T getTag(Key<T> key) {
+        final int slot = key.getSlot();
+        if (tags == null || slot >= tags.length) {
+            return key.getDefaultValue();
+        }
+        @SuppressWarnings("unchecked")
+        final T result = (T) tags[slot];
+        if (result == null) {
+            return key.getDefaultValue();
+        }
+        return result;
+    }
+}
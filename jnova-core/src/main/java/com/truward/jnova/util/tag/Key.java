@@ -14,19 +14,28 @@
 
 package com.truward.jnova.util.tag;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Tag key.
+ * Each key gets its own slot number when it is created, keys are expected to be constants,
+ * so that the slots are dense, see {@link IndexedTagHolder}.
  * @param <T> Value, associated with the given key.
  */
 public final class Key<T> {
+    private static final AtomicInteger SLOT_COUNT = new AtomicInteger();
+
     private final T defaultValue;
 
+    private final int slot;
+
     public Key(T defaultValue) {
         this.defaultValue = defaultValue;
+        this.slot = SLOT_COUNT.getAndIncrement();
     }
 
     public Key() {
-        this.defaultValue = null;
+        this(null);
     }
 
     /**
@@ -39,4 +48,11 @@ public final class Key<T> {
     public T getDefaultValue() {
         return defaultValue;
     }
+
+    /**
+     * @return Slot number of the key, keys are numbered sequentially from zero in the order of creation.
+     */
+    public int getSlot() {
+        return slot;
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util;
+
+import com.truward.jnova.util.diagnostics.formatter.support.BasicDiagnosticsFormatter;
+import com.truward.jnova.util.diagnostics.support.AsyncDiagnosticsLog;
+import com.truward.jnova.util.diagnostics.support.DefaultDiagnosticsLog;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+
+import static com.truward.jnova.util.diagnostics.parameter.Offset.at;
+import static org.junit.Assert.assertEquals;
+
+public final class AsyncDiagnosticsLogTest {
+
+    private static final String CONTENT = "asd\ndef asd  987 asd sfg\n\t\tdef";
+
+    private static DefaultSource newSource() {
+        return new DefaultSource(new StringReader(CONTENT), CONTENT.length(), "/path/to/myfile.ext");
+    }
+
+    @Test
+    public void testSameOutputAsDefaultLog() {
+        final StringWriter expected = new StringWriter();
+        final DefaultDiagnosticsLog defaultLog = new DefaultDiagnosticsLog(expected);
+        defaultLog.setSource(newSource());
+        defaultLog.error("first", at(0));
+        defaultLog.warning("second", at(8));
+        defaultLog.info("third", at(27));
+
+        final StringWriter actual = new StringWriter();
+        final AsyncDiagnosticsLog asyncLog = new AsyncDiagnosticsLog(actual);
+        try {
+            asyncLog.setSource(newSource());
+            asyncLog.error("first", at(0));
+            asyncLog.warning("second", at(8));
+            asyncLog.info("third", at(27));
+
+            assertEquals(1, asyncLog.getTotalErrors());
+            assertEquals(1, asyncLog.getTotalWarnings());
+
+            asyncLog.flush();
+            assertEquals(expected.toString(), actual.toString());
+        } finally {
+            asyncLog.close();
+        }
+    }
+
+    @Test
+    public void testCloseWritesPendingMessages() {
+        final StringWriter writer = new StringWriter();
+        final AsyncDiagnosticsLog log = new AsyncDiagnosticsLog(writer);
+        for (int i = 0; i < 100; ++i) {
+            log.error("Error!");
+        }
+        log.close();
+
+        assertEquals(100, log.getTotalErrors());
+        assertEquals(100 * "<unspecified>: error:\nError!\n\n".length(), writer.toString().length());
+    }
+
+    @Test
+    public void testDropPolicy() throws InterruptedException {
+        final BlockingWriter writer = new BlockingWriter();
+        final AsyncDiagnosticsLog log = new AsyncDiagnosticsLog(writer, new BasicDiagnosticsFormatter(), 1,
+                AsyncDiagnosticsLog.OverflowPolicy.DROP);
+
+        log.error("first");
+        writer.entered.await(); // writer thread is blocked now and queue is empty
+        log.error("second");    // occupies the only queue slot
+        log.error("third");     // dropped
+
+        assertEquals(3, log.getTotalErrors());
+        assertEquals(1, log.getDroppedCount());
+
+        writer.released.countDown();
+        log.close();
+
+        assertEquals("<unspecified>: error:\nfirst\n\n<unspecified>: error:\nsecond\n\n", writer.target.toString());
+    }
+
+
+    private static final class BlockingWriter extends Writer {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        final StringWriter target = new StringWriter();
+
+        @Override
+        public void write(char[] buf, int off, int len) throws IOException {
+            entered.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                throw new IOException("Interrupted");
+            }
+            target.write(buf, off, len);
+        }
+
+        @Override
+        public void flush() {
+            // do nothing
+        }
+
+        @Override
+        public void close() {
+            // do nothing
+        }
+    }
+}
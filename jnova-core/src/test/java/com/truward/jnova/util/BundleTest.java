@@ -0,0 +1,74 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util;
+
+import com.truward.jnova.util.resource.AbstractBundle;
+import com.truward.jnova.util.resource.Bundle;
+import com.truward.jnova.util.resource.MessageTemplate;
+import org.junit.Test;
+
+import java.text.MessageFormat;
+
+import static org.junit.Assert.assertEquals;
+
+public final class BundleTest {
+
+    private static void assertSameAsMessageFormat(String pattern, Object... arguments) {
+        assertEquals(MessageFormat.format(pattern, arguments), MessageTemplate.compile(pattern).format(arguments));
+    }
+
+    @Test
+    public void testTemplateFormatting() {
+        assertSameAsMessageFormat("");
+        assertSameAsMessageFormat("no arguments");
+        assertSameAsMessageFormat("{0} expected", "';'");
+        assertSameAsMessageFormat("{0}, {1}, or {2} expected", "a", "b", "c");
+        assertSameAsMessageFormat("{1} before {0}, {1} again", "x", "y");
+        assertSameAsMessageFormat("Can''t use '{0}' here: {0}", "abc");
+        assertSameAsMessageFormat("missing {2} argument", "a");
+        assertSameAsMessageFormat("null {0}", (Object) null);
+        assertSameAsMessageFormat("number {0}", 12345);
+        assertSameAsMessageFormat("object {0}", Token.NAME);
+        assertSameAsMessageFormat("formatted {0,number,#.##}", 3.14159);
+        assertSameAsMessageFormat("unbalanced } brace {0}", "a");
+    }
+
+    @Test
+    public void testBundleMessages() {
+        final Bundle bundle = new TestBundle();
+
+        assertEquals("Plain message", bundle.message("plain"));
+        assertEquals("Plain message", bundle.message("plain", "unused"));
+        assertEquals("';' expected", bundle.message("expected", "';'"));
+        assertEquals("a, b, or c expected", bundle.message("expected3", "a", "b", "c"));
+        assertEquals("Can't use {0} here: x", bundle.message("quoted", "x"));
+
+        // messages without arguments are returned as is
+        assertEquals("{0} expected", bundle.message("expected"));
+        assertEquals("Can''t use '{0}' here: {0}", bundle.getString("quoted"));
+    }
+
+
+    private enum Token {
+        NAME
+    }
+
+    private static final class TestBundle extends AbstractBundle {
+        @Override
+        protected String getBundleName() {
+            return "com.truward.jnova.util.TestBundle";
+        }
+    }
+}
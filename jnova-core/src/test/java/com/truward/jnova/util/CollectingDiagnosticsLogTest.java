@@ -0,0 +1,98 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util;
+
+import com.truward.jnova.util.diagnostics.Diagnostic;
+import com.truward.jnova.util.diagnostics.formatter.DiagnosticsSeverity;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.diagnostics.support.DefaultDiagnosticsLog;
+import com.truward.jnova.util.resource.Bundle;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.text.MessageFormat;
+
+import static com.truward.jnova.util.diagnostics.parameter.Offset.at;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public final class CollectingDiagnosticsLogTest {
+
+    @Test
+    public void testCollectsWithoutFormatting() {
+        final CountingBundle bundle = new CountingBundle();
+        final CollectingDiagnosticsLog log = new CollectingDiagnosticsLog();
+
+        log.report(Diagnostic.error(bundle, at(3), "expected", "';'"));
+        log.report(Diagnostic.warning(bundle, at(7), "deprecated"));
+        log.error("plain error", at(1));
+        log.info("plain info");
+
+        assertEquals(0, bundle.messageCount);
+        assertEquals(2, log.getTotalErrors());
+        assertEquals(1, log.getTotalWarnings());
+        assertEquals(4, log.getDiagnostics().size());
+
+        final Diagnostic first = log.getDiagnostics().get(0);
+        assertEquals("expected", first.getKey());
+        assertArrayEquals(new Object[] { "';'" }, first.getArguments());
+        assertEquals(at(3), first.getOffset());
+
+        assertEquals(1, log.getDiagnostics(DiagnosticsSeverity.WARNING).size());
+        assertEquals("plain error", log.getDiagnostics(DiagnosticsSeverity.ERROR).get(1).getMessage());
+        assertEquals(at(1), log.getDiagnostics(DiagnosticsSeverity.ERROR).get(1).getOffset());
+        assertEquals(0, bundle.messageCount);
+
+        assertEquals("';' expected", first.getMessage());
+        assertEquals(1, bundle.messageCount);
+
+        log.clear();
+        assertEquals(0, log.getDiagnostics().size());
+        assertEquals(0, log.getTotalErrors());
+    }
+
+    @Test
+    public void testReportedDiagnosticFormatting() {
+        final StringWriter writer = new StringWriter();
+        final DefaultDiagnosticsLog log = new DefaultDiagnosticsLog(writer);
+        log.setSource(new DefaultSource("int a b;"));
+
+        log.report(Diagnostic.error(new CountingBundle(), at(6), "expected", "SEMI"));
+
+        assertEquals(1, log.getTotalErrors());
+        assertEquals("<string>:[1,7]: error:\n" +
+                "SEMI expected\n" +
+                "int a b;\n" +
+                "      ^\n",
+                writer.toString());
+    }
+
+
+    private static final class CountingBundle implements Bundle {
+        int messageCount;
+
+        @Override
+        public String message(String key, Object... params) {
+            ++messageCount;
+            return MessageFormat.format(getString(key), params);
+        }
+
+        @Override
+        public String getString(String key) {
+            return "expected".equals(key) ? "{0} expected" : key;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util;
+
+import com.truward.jnova.util.diagnostics.source.SourcePosition;
+import com.truward.jnova.util.diagnostics.support.DiagnosticsSourceUtil;
+import com.truward.jnova.util.source.LineMap;
+import com.truward.jnova.util.source.Source;
+import com.truward.jnova.util.source.support.DefaultLineMap;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public final class LineMapTest {
+
+    @Test
+    public void testRowsAndColumns() {
+        final LineMap lineMap = new DefaultLineMap(new DefaultSource("asd\ndef asd\n\n\t\tdef"));
+
+        assertEquals(4, lineMap.getLineCount());
+
+        assertEquals(0, lineMap.getRow(0));
+        assertEquals(0, lineMap.getColumn(0));
+        assertEquals(0, lineMap.getRow(3));
+        assertEquals(3, lineMap.getColumn(3));
+
+        assertEquals(1, lineMap.getRow(4));
+        assertEquals(0, lineMap.getColumn(4));
+        assertEquals(1, lineMap.getRow(8));
+        assertEquals(4, lineMap.getColumn(8));
+
+        assertEquals(2, lineMap.getRow(12));
+        assertEquals(3, lineMap.getRow(13));
+        assertEquals(2, lineMap.getColumn(15));
+    }
+
+    @Test
+    public void testLineBounds() {
+        final LineMap lineMap = new DefaultLineMap(new DefaultSource("a\n\nbc"));
+
+        assertEquals(0, lineMap.getLineStart(0));
+        assertEquals(1, lineMap.getLineEnd(0));
+        assertEquals(2, lineMap.getLineStart(1));
+        assertEquals(2, lineMap.getLineEnd(1));
+        assertEquals(3, lineMap.getLineStart(2));
+        assertEquals(5, lineMap.getLineEnd(2));
+    }
+
+    @Test
+    public void testEmptySource() {
+        final LineMap lineMap = new DefaultLineMap(new DefaultSource(""));
+
+        assertEquals(1, lineMap.getLineCount());
+        assertEquals(0, lineMap.getRow(0));
+        assertEquals(0, lineMap.getLineEnd(0));
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; ++i) {
+            for (int j = 0; j < i % 7; ++j) {
+                builder.append('x');
+            }
+            builder.append('\n');
+        }
+
+        final Source source = new DefaultSource(builder.toString());
+        final LineMap lineMap = new DefaultLineMap(source);
+
+        int row = 0;
+        int column = 0;
+        for (int offset = 0; offset < source.length(); ++offset) {
+            assertEquals(new SourcePosition(row, column),
+                    DiagnosticsSourceUtil.translateOffset(source, lineMap, offset));
+
+            if (source.getBuffer()[offset] == '\n') {
+                ++row;
+                column = 0;
+            } else {
+                ++column;
+            }
+        }
+
+        assertNull(DiagnosticsSourceUtil.translateOffset(source, lineMap, source.length()));
+        assertEquals("", DiagnosticsSourceUtil.getLine(source, lineMap, 0));
+        assertEquals("xxxxxx", DiagnosticsSourceUtil.getLine(source, lineMap, 6));
+        assertNull(DiagnosticsSourceUtil.getLine(source, lineMap, lineMap.getLineCount()));
+    }
+}
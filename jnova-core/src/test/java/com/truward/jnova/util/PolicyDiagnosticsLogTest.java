@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util;
+
+import com.truward.jnova.util.diagnostics.DiagnosticsLimitExceededException;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.diagnostics.support.PolicyDiagnosticsLog;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.truward.jnova.util.diagnostics.parameter.Offset.at;
+import static org.junit.Assert.*;
+
+public final class PolicyDiagnosticsLogTest {
+
+    private CollectingDiagnosticsLog target;
+
+    private PolicyDiagnosticsLog log;
+
+    @Before
+    public void initLog() {
+        target = new CollectingDiagnosticsLog();
+        log = new PolicyDiagnosticsLog(target);
+        log.setSource(new DefaultSource("class A {}"));
+    }
+
+    @Test
+    public void testDeduplication() {
+        log.error("expected", at(1));
+        log.error("expected", at(1));
+        log.error("expected", at(2));
+        log.warning("expected", at(1));
+
+        assertEquals(3, log.getTotalErrors());
+        assertEquals(1, log.getTotalWarnings());
+        assertEquals(2, target.getDiagnostics().size());
+        assertEquals(2, log.getSuppressedCount());
+
+        // new source resets the deduplication state
+        log.setSource(new DefaultSource("class B {}"));
+        log.error("expected", at(1));
+        assertEquals(3, target.getDiagnostics().size());
+    }
+
+    @Test
+    public void testRateLimit() {
+        log.setMaxReportsPerKey(2);
+        for (int i = 0; i < 10; ++i) {
+            log.error("illegal.char", at(i));
+        }
+        log.error("expected", at(0));
+
+        assertEquals(11, log.getTotalErrors());
+        assertEquals(3, target.getDiagnostics().size());
+    }
+
+    @Test
+    public void testErrorBudgetAbort() {
+        log.setMaxErrorsPerSource(3);
+        for (int i = 0; i < 3; ++i) {
+            log.error("error", at(i));
+        }
+        assertFalse(log.isLimitExceeded());
+
+        try {
+            log.error("error", at(3));
+            fail("Limit exception expected");
+        } catch (DiagnosticsLimitExceededException e) {
+            assertEquals(4, e.getTotalErrors());
+        }
+
+        assertTrue(log.isLimitExceeded());
+        assertEquals(3, target.getDiagnostics().size());
+
+        // per-source budget is reset with the new source
+        log.setSource(new DefaultSource("class B {}"));
+        assertFalse(log.isLimitExceeded());
+        log.error("error", at(0));
+        assertEquals(4, target.getDiagnostics().size());
+    }
+
+    @Test
+    public void testGlobalBudgetWithoutAbort() {
+        log.setMaxErrors(2);
+        log.setAbortOnLimit(false);
+        log.error("error", at(0));
+        log.error("error", at(1));
+        log.error("error", at(2));
+        log.warning("warning", at(2));
+
+        assertTrue(log.isLimitExceeded());
+        assertEquals(3, log.getTotalErrors());
+        assertEquals(2, target.getDiagnostics().size());
+
+        // global budget is not reset with the new source
+        log.setSource(new DefaultSource("class B {}"));
+        assertTrue(log.isLimitExceeded());
+        log.error("error", at(0));
+        assertEquals(2, target.getDiagnostics().size());
+    }
+}
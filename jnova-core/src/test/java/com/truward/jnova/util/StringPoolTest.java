@@ -0,0 +1,67 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.util;
+
+import com.truward.jnova.util.naming.StringPool;
+import com.truward.jnova.util.naming.support.HashStringPool;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests string pool.
+ */
+public final class StringPoolTest {
+    private final StringPool pool = new HashStringPool(2);
+
+    @Test
+    public void testSameInstance() {
+        final char[] chars = "xabcabc".toCharArray();
+        final String s1 = pool.fromChars(chars, 1, 3);
+        final String s2 = pool.fromChars(chars, 4, 3);
+        assertEquals("abc", s1);
+        assertSame(s1, s2);
+        assertEquals("", pool.fromChars(chars, 2, 0));
+        assertSame(pool.fromChars(chars, 0, 0), pool.fromChars(chars, 5, 0));
+        assertEquals(2, pool.size());
+
+        pool.clear();
+        assertEquals(0, pool.size());
+        assertNotSame(s1, pool.fromChars(chars, 1, 3));
+    }
+
+    @Test
+    public void testManyStrings() {
+        final Random random = new Random(5L);
+        final Map<String, String> pooled = new HashMap<String, String>();
+        for (int i = 0; i < 10000; ++i) {
+            final char[] chars = Integer.toString(random.nextInt(3000), 36).toCharArray();
+            final String s = pool.fromChars(chars, 0, chars.length);
+            assertEquals(new String(chars), s);
+
+            final String previous = pooled.get(s);
+            if (previous != null) {
+                assertSame(previous, s);
+            } else {
+                pooled.put(s, s);
+            }
+        }
+        assertEquals(pooled.size(), pool.size());
+    }
+}
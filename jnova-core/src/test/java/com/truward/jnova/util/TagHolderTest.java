@@ -15,12 +15,15 @@
 package com.truward.jnova.util;
 
 import com.truward.jnova.util.tag.DefaultTagHolder;
+import com.truward.jnova.util.tag.IndexedTagHolder;
 import com.truward.jnova.util.tag.Key;
 import com.truward.jnova.util.tag.TagHolder;
 import com.truward.jnova.util.tag.UnsupportedTagHolder;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests tag holder.
@@ -57,4 +60,30 @@ public final class TagHolderTest {
         assertEquals(Integer.valueOf(1000), tagHolder.getTag(KEY1));
         assertEquals(Integer.valueOf(2222), tagHolder.getTag(KEY2));
     }
+
+    @Test
+    public void testIndexedTagHolder() {
+        final TagHolder tagHolder = new IndexedTagHolder();
+        final Key<String> key3 = new Key<String>();
+        assertTrue(KEY1.getSlot() < KEY2.getSlot() && KEY2.getSlot() < key3.getSlot());
+
+        // default value
+        assertEquals(null, tagHolder.getTag(KEY1));
+        assertEquals(KEY2.getDefaultValue(), tagHolder.getTag(KEY2));
+        assertNull(tagHolder.putTag(key3, null));
+
+        assertNull(tagHolder.putTag(KEY2, 2222));
+        assertNull(tagHolder.putTag(key3, "value"));
+        assertEquals(null, tagHolder.getTag(KEY1));
+        assertEquals(Integer.valueOf(2222), tagHolder.putTag(KEY2, 3333));
+
+        tagHolder.putTag(KEY1, 1000);
+        assertEquals(Integer.valueOf(1000), tagHolder.getTag(KEY1));
+        assertEquals(Integer.valueOf(3333), tagHolder.getTag(KEY2));
+        assertEquals("value", tagHolder.getTag(key3));
+
+        // null value resets the tag to the default one
+        assertEquals(Integer.valueOf(3333), tagHolder.putTag(KEY2, null));
+        assertEquals(KEY2.getDefaultValue(), tagHolder.getTag(KEY2));
+    }
 }
@@ -18,9 +18,12 @@ import com.truward.jnova.java.code.BoundKind;
 import com.truward.jnova.java.code.PredefinedNames;
 import com.truward.jnova.java.code.TypeTags;
 import com.truward.jnova.util.ImmList;
+import com.truward.jnova.util.diagnostics.Diagnostic;
 import com.truward.jnova.util.naming.Symbol;
 
 import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Encapsulates all the AST nodes.
@@ -31,6 +34,8 @@ import java.io.StringWriter;
 public final class Ast {
     private Ast() {} // Noninstantiable.
 
+    private static final int[] NO_IDS = new int[0];
+
     /**
      * Base class for all the AST nodes.
      */
@@ -40,6 +45,11 @@ public final class Ast {
          */
         private int pos;
 
+        /**
+         * Sequential number of the node within its compilation unit, assigned by the factory.
+         */
+        private int id;
+
         public final int getPos() {
             return pos;
         }
@@ -48,6 +58,14 @@ public final class Ast {
             this.pos = pos;
         }
 
+        /**
+         * @return Id of the node, the ids of the compilation unit are dense, see {@link CompilationUnit#getNodeCount()},
+         *         except for the ones freed by the incremental parsing, see {@link CompilationUnit#getFreeIds()}.
+         */
+        public final int getId() {
+            return id;
+        }
+
 
         /**
          * {@inheritDoc}
@@ -81,6 +99,11 @@ public final class Ast {
         private final ImmList<Annotation> packageAnnotations;
         private final Expression packageId;
         private final ImmList<? extends Node> definitions;
+        private DocCommentTable docComments;
+        private EndPosTable endPositions;
+        private List<Diagnostic> bodyDiagnostics = Collections.emptyList();
+        private int nodeCount;
+        private int[] freeIds = NO_IDS;
 
         public ImmList<Annotation> getPackageAnnotations() {
             return packageAnnotations;
@@ -94,6 +117,71 @@ public final class Ast {
             return definitions;
         }
 
+        /**
+         * @return Doc comments of this unit, null if the unit has no doc comments.
+         */
+        public DocCommentTable getDocComments() {
+            return docComments;
+        }
+
+        public void setDocComments(DocCommentTable docComments) {
+            this.docComments = docComments;
+        }
+
+        /**
+         * @return End positions of the nodes of this unit, null if the unit is parsed without the end positions.
+         */
+        public EndPosTable getEndPositions() {
+            return endPositions;
+        }
+
+        public void setEndPositions(EndPosTable endPositions) {
+            this.endPositions = endPositions;
+        }
+
+        /**
+         * @return Diagnostics of the lazy bodies of this unit parsed so far, see {@link Block#isParsed()}.
+         *         Lazy bodies do not report to the log of the parser, that might have moved on to the other sources.
+         */
+        public List<Diagnostic> getBodyDiagnostics() {
+            return bodyDiagnostics;
+        }
+
+        public void setBodyDiagnostics(List<Diagnostic> bodyDiagnostics) {
+            assert bodyDiagnostics != null;
+            this.bodyDiagnostics = bodyDiagnostics;
+        }
+
+        /**
+         * @return Count of the node ids of this unit, the ids of all the nodes of the unit are less than it.
+         */
+        public int getNodeCount() {
+            return nodeCount;
+        }
+
+        /**
+         * Sets the count of the node ids, lazy bodies and incremental parsing add nodes with the ids following it.
+         *
+         * @param nodeCount Count of the node ids.
+         */
+        public void setNodeCount(int nodeCount) {
+            assert nodeCount >= this.nodeCount;
+            this.nodeCount = nodeCount;
+        }
+
+        /**
+         * @return Ids less than the node count that are not used by the nodes of this unit, incremental parsing
+         *         frees the ids of the replaced nodes and gives them to the new nodes first.
+         */
+        public int[] getFreeIds() {
+            return freeIds;
+        }
+
+        public void setFreeIds(int[] freeIds) {
+            assert freeIds != null;
+            this.freeIds = freeIds;
+        }
+
         protected CompilationUnit(ImmList<Annotation> packageAnnotations,
                                   Expression packageId,
                                   ImmList<? extends Node> definitions) {
@@ -451,6 +539,17 @@ public final class Ast {
         public void accept(AstVisitor visitor) { visitor.visitVariable(this); }
     }
 
+    /**
+     * Parses statements of the lazy block on demand.
+     */
+    public interface BlockParser {
+        /**
+         * @param block Lazy block.
+         * @return Statements of the given block.
+         */
+        ImmList<? extends Statement> parseStatements(Block block);
+    }
+
     /**
      * A tree node for a statement block.
      * Flags might represents annotation that defines scope of this block, e.g. static initializer block:
@@ -463,19 +562,75 @@ public final class Ast {
      */
     public static final class Block extends Statement {
         private final long flags;
-        private final ImmList<? extends Statement> statements;
+        /** Null until the statements of the lazy block are parsed. */
+        private volatile ImmList<? extends Statement> statements;
+        private BlockParser blockParser;
+        private int endPos;
 
         public long getFlags() {
             return flags;
         }
 
+        /**
+         * Gets block statements, statements of the lazy block are parsed on the first call.
+         * Lazy block is parsed once even if the first calls come from the different threads.
+         *
+         * @return Block statements.
+         */
         public ImmList<? extends Statement> getStatements() {
-            return statements;
+            ImmList<? extends Statement> result = statements;
+            if (result == null) {
+                synchronized (this) {
+                    result = statements;
+                    if (result == null) {
+                        result = blockParser.parseStatements(this);
+                        statements = result;
+                        blockParser = null;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * @return True, if statements of this block are known without parsing.
+         */
+        public boolean isParsed() {
+            return statements != null;
+        }
+
+        /**
+         * @return Position of the closing brace, -1 if it is unknown.
+         */
+        public int getEndPos() {
+            return endPos;
+        }
+
+        public void setEndPos(int endPos) {
+            this.endPos = endPos;
+        }
+
+        /**
+         * Replaces statements of the parsed block, used by the incremental parsing.
+         *
+         * @param statements New block statements.
+         */
+        public void setStatements(ImmList<? extends Statement> statements) {
+            assert this.statements != null && statements != null;
+            this.statements = statements;
         }
 
-        protected Block(long flags, ImmList<? extends Statement> statements) {
+        protected Block(long flags, int endPos, ImmList<? extends Statement> statements) {
             this.flags = flags;
             this.statements = statements;
+            this.endPos = endPos;
+        }
+
+        protected Block(long flags, int endPos, BlockParser blockParser) {
+            assert blockParser != null;
+            this.flags = flags;
+            this.blockParser = blockParser;
+            this.endPos = endPos;
         }
 
         @Override
@@ -1023,7 +1178,7 @@ public final class Ast {
         protected MethodInvocation(ImmList<Expression> typeArguments,
                                    Expression methodSelect,
                                    ImmList<Expression> arguments) {
-            this.typeArguments = typeArguments;
+            this.typeArguments = typeArguments != null ? typeArguments : ImmList.<Expression>nil();
             this.methodSelect = methodSelect;
             this.arguments = arguments;
         }
@@ -1072,7 +1227,7 @@ public final class Ast {
                            ImmList<Expression> arguments,
                            ClassDecl classBody) {
             this.enclosingExpression = enclosingExpression;
-            this.typeArguments = typeArguments;
+            this.typeArguments = typeArguments != null ? typeArguments : ImmList.<Expression>nil();
             this.classIdentifier = classIdentifier;
             this.arguments = arguments;
             this.classBody = classBody;
@@ -1400,33 +1555,104 @@ public final class Ast {
      */
     public static final class Literal extends Expression {
         private final int typeTag;
+
+        /**
+         * Value of the primitive literal: the integral value for the int, long, char and boolean literals,
+         * the raw bits for the float and double ones.
+         */
+        private final long bits;
+
+        /** Value of the string literal, null for the other ones. */
         private final Object value;
 
         public int getTypeTag() {
             return typeTag;
         }
 
+        /**
+         * @return Boxed value of the literal, the typed getters do not allocate it.
+         */
         public Object getValue() {
-            // TODO: try to rewrite without relying on type tag
             switch (getTypeTag()) {
+                case TypeTags.INT:
+                    return getIntValue();
+                case TypeTags.LONG:
+                    return getLongValue();
+                case TypeTags.FLOAT:
+                    return getFloatValue();
+                case TypeTags.DOUBLE:
+                    return getDoubleValue();
                 case TypeTags.BOOLEAN:
-                    final int booleanValue = (Integer) value;
-                    return (booleanValue != 0);
+                    return getBooleanValue();
                 case TypeTags.CHAR:
-                    final int charValue = (Integer) value;
-                    final char ch = (char) charValue;
-                    if (ch != charValue) {
-                        throw new AssertionError("Bad value for char literal");
-                    }
-                    return ch;
+                    return getCharValue();
                 default:
                     return value;
             }
         }
 
+        public int getIntValue() {
+            return (int) bits;
+        }
+
+        public long getLongValue() {
+            return bits;
+        }
+
+        public float getFloatValue() {
+            return Float.intBitsToFloat((int) bits);
+        }
+
+        public double getDoubleValue() {
+            return Double.longBitsToDouble(bits);
+        }
+
+        public boolean getBooleanValue() {
+            return bits != 0;
+        }
+
+        public char getCharValue() {
+            return (char) bits;
+        }
+
+        protected Literal(int typeTag, long bits) {
+            this.typeTag = typeTag;
+            this.bits = bits;
+            this.value = null;
+        }
+
         protected Literal(int typeTag, Object value) {
             this.typeTag = typeTag;
-            this.value = value;
+            switch (typeTag) {
+                case TypeTags.FLOAT:
+                    this.bits = Float.floatToRawIntBits(((Number) value).floatValue());
+                    this.value = null;
+                    break;
+                case TypeTags.DOUBLE:
+                    this.bits = Double.doubleToRawLongBits(((Number) value).doubleValue());
+                    this.value = null;
+                    break;
+                case TypeTags.CHAR:
+                    final long charValue = value instanceof Character ? (Character) value : ((Number) value).longValue();
+                    if ((char) charValue != charValue) {
+                        throw new AssertionError("Bad value for char literal");
+                    }
+                    this.bits = charValue;
+                    this.value = null;
+                    break;
+                case TypeTags.BOOLEAN:
+                    this.bits = value instanceof Boolean ? ((Boolean) value ? 1 : 0) : ((Number) value).longValue();
+                    this.value = null;
+                    break;
+                case TypeTags.INT:
+                case TypeTags.LONG:
+                    this.bits = ((Number) value).longValue();
+                    this.value = null;
+                    break;
+                default:
+                    this.bits = 0;
+                    this.value = value;
+            }
         }
 
         @Override
@@ -1555,13 +1781,68 @@ public final class Ast {
      * AST nodes factory.
      */
     public static abstract class Factory {
+        /** Id of the next node to be created. */
+        private int nodeCount;
+
+        /** Ids to be assigned before the new ones, taken from the end, see {@link #setFreeIds(int[], int)}. */
+        private int[] freeIds = NO_IDS;
+
+        private int freeIdCount;
+
         protected abstract void onPostConstruct(Node node);
 
+        /**
+         * @return Count of the node ids assigned by this factory, the ids of the created nodes are less than it.
+         */
+        public final int getNodeCount() {
+            return nodeCount;
+        }
+
+        /**
+         * Sets the id of the next node to be created, so that the ids of the new compilation unit start from zero
+         * and the nodes added to the existing unit continue its ids.
+         *
+         * @param nodeCount Id of the next node.
+         */
+        public final void setNodeCount(int nodeCount) {
+            assert nodeCount >= 0;
+            this.nodeCount = nodeCount;
+            this.freeIdCount = 0;
+        }
+
+        /**
+         * Sets the unused ids of the unit, so that the next nodes take them before the ids following the node count.
+         * Should be called after {@link #setNodeCount(int)}.
+         *
+         * @param freeIds   Unused ids, less than the node count. Array is used as is.
+         * @param count     Count of the ids at the beginning of the array.
+         */
+        public final void setFreeIds(int[] freeIds, int count) {
+            assert freeIds != null && count >= 0 && count <= freeIds.length;
+            this.freeIds = freeIds;
+            this.freeIdCount = count;
+        }
+
+        /**
+         * @return Count of the free ids not taken yet, they are at the beginning of the array passed to
+         *         {@link #setFreeIds(int[], int)}.
+         */
+        public final int getFreeIdCount() {
+            return freeIdCount;
+        }
+
+        private void postConstruct(Node node) {
+            node.id = freeIdCount > 0 ? freeIds[--freeIdCount] : nodeCount++;
+            onPostConstruct(node);
+        }
+
         public final CompilationUnit astCompilationUnit(ImmList<Annotation> packageAnnotations,
                                                         Expression packageId,
                                                         ImmList<? extends Node> definitions) {
             final CompilationUnit node = new CompilationUnit(packageAnnotations, packageId, definitions);
-            onPostConstruct(node);
+            postConstruct(node);
+            // the unit is created after all of its nodes
+            node.nodeCount = nodeCount;
             return node;
 
         }
@@ -1569,7 +1850,7 @@ public final class Ast {
 
         public final Import astImport(Node qualifier, boolean staticImport) {
             final Import node = new Import(qualifier, staticImport);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
@@ -1582,7 +1863,7 @@ public final class Ast {
                                             ImmList<? extends Node> definitions) {
             final ClassDecl node = new ClassDecl(modifiers, name, typeParameters, extending,
                     implementing, definitions);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
@@ -1593,7 +1874,7 @@ public final class Ast {
                     null,
                     ImmList.<Expression>nil(),
                     definitions);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
@@ -1608,7 +1889,7 @@ public final class Ast {
                                               Expression defaultValue) {
             final MethodDecl node = new MethodDecl(modifiers, name, returnType, typeParameters, parameters,
                     thrown, body, defaultValue);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
@@ -1618,39 +1899,57 @@ public final class Ast {
                                                   Expression variableType,
                                                   Expression initializer) {
             final VariableDecl node = new VariableDecl(modifiers, name, variableType, initializer);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final EmptyStatement astEmptyStatement() {
             final EmptyStatement node = new EmptyStatement();
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
-        public final Block astBlock(long flags, ImmList<? extends Statement> statements) {
-            final Block node = new Block(flags, statements);
-            onPostConstruct(node);
+        public final Block astBlock(long flags, int endPos, ImmList<? extends Statement> statements) {
+            final Block node = new Block(flags, endPos, statements);
+            postConstruct(node);
             return node;
         }
 
+        public final Block astBlock(long flags, ImmList<? extends Statement> statements) {
+            return astBlock(flags, -1, statements);
+        }
+
         public final Block astBlock(ImmList<? extends Statement> statements) {
             return astBlock(0, statements);
         }
 
+        /**
+         * Creates block which statements are parsed on first access.
+         *
+         * @param flags Block flags.
+         * @param endPos Position of the closing brace.
+         * @param blockParser Parser of the block statements.
+         * @return Lazy block.
+         */
+        public final Block astLazyBlock(long flags, int endPos, BlockParser blockParser) {
+            final Block node = new Block(flags, endPos, blockParser);
+            postConstruct(node);
+            return node;
+        }
+
 
         public final Annotation astAnnotation(Expression annotationType, ImmList<? extends Expression> arguments) {
             final Annotation node = new Annotation(annotationType, arguments);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Modifiers astModifiers(long flags, ImmList<Annotation> annotations) {
             final Modifiers node = new Modifiers(flags, annotations);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
@@ -1662,21 +1961,21 @@ public final class Ast {
 
         public final If astIf(Expression condition, Statement thenPart, Statement elsePart) {
             final If node = new If(condition, thenPart, elsePart);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final FieldAccess astFieldAccess(Expression expression, Symbol identifier) {
             final FieldAccess node = new FieldAccess(expression, identifier);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final PrimitiveType astPrimitiveType(int typeTag) {
             final PrimitiveType node = new PrimitiveType(typeTag);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
@@ -1684,21 +1983,21 @@ public final class Ast {
         public final ParameterizedType astParameterizedType(Expression parameterizedClass,
                                                             ImmList<Expression> arguments) {
             final ParameterizedType node = new ParameterizedType(parameterizedClass, arguments);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final ArrayType astArrayType(Expression elementType) {
             final ArrayType node = new ArrayType(elementType);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final ArrayAccess astArrayAccess(Expression expression, Expression index) {
             final ArrayAccess node = new ArrayAccess(expression, index);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
@@ -1707,7 +2006,7 @@ public final class Ast {
                                           ImmList<Expression> dimensions,
                                           ImmList<Expression> initializers) {
             final NewArray node = new NewArray(elementType, dimensions, initializers);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
@@ -1719,56 +2018,72 @@ public final class Ast {
                                           ClassDecl classBody) {
             final NewClass node = new NewClass(enclosingExpression, typeArguments,
                     classIdentifier, arguments, classBody);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Ident astIdent(Symbol name) {
             final Ident node = new Ident(name);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Literal astLiteral(int typeTag, Object value) {
             final Literal node = new Literal(typeTag, value);
-            onPostConstruct(node);
+            postConstruct(node);
+            return node;
+        }
+
+
+        /**
+         * Creates the primitive literal without boxing its value.
+         *
+         * @param typeTag   Type tag of the literal.
+         * @param bits      Integral value of the int, long, char and boolean literals,
+         *                  {@link Float#floatToRawIntBits(float)} or {@link Double#doubleToRawLongBits(double)}
+         *                  of the float and double ones.
+         * @return Literal.
+         */
+        public final Literal astPrimitiveLiteral(int typeTag, long bits) {
+            final Literal node = new Literal(typeTag, bits);
+            postConstruct(node);
             return node;
         }
 
 
         public final TypeParameter astTypeParameter(Symbol name, ImmList<Expression> bounds) {
             final TypeParameter node = new TypeParameter(name, bounds);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final TypeBoundKind astTypeBoundKind(BoundKind boundKind) {
             final TypeBoundKind node = new TypeBoundKind(boundKind);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Wildcard astWildcard(TypeBoundKind typeBoundKind, Node bound) {
             final Wildcard node = new Wildcard(typeBoundKind, bound);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Assignment astAssignment(Expression variable, Expression expression) {
             final Assignment node = new Assignment(variable, expression);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final ExpressionStatement astExpressionStatement(Expression expression) {
             final ExpressionStatement node = new ExpressionStatement(expression);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
@@ -1777,35 +2092,35 @@ public final class Ast {
                                                               Expression variable,
                                                               Expression expression) {
             final CompoundAssignment node = new CompoundAssignment(opcode, variable, expression);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final TypeCast astTypeCast(Node type, Expression expression) {
             final TypeCast node = new TypeCast(type, expression);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final InstanceOf astInstanceOf(Expression expression, Node testedClass) {
             final InstanceOf node = new InstanceOf(expression, testedClass);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Unary astUnary(int opcode, Expression expression) {
             final Unary node = new Unary(opcode, expression);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Binary astBinary(int opcode, Expression leftOperand, Expression rightOperand) {
             final Binary node = new Binary(opcode, leftOperand, rightOperand);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
@@ -1814,7 +2129,7 @@ public final class Ast {
                                                           Expression methodSelect,
                                                           ImmList<Expression> arguments) {
             final MethodInvocation node = new MethodInvocation(typeArguments, methodSelect, arguments);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
@@ -1825,14 +2140,14 @@ public final class Ast {
 
         public final Conditional astConditional(Expression condition, Expression truePart, Expression falsePart) {
             final Conditional node = new Conditional(condition, truePart, falsePart);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final LabeledStatement astLabeledStatement(Symbol label, Statement body) {
             final LabeledStatement node = new LabeledStatement(label, body);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
@@ -1842,111 +2157,111 @@ public final class Ast {
                                         ImmList<ExpressionStatement> step,
                                         Statement body) {
             final ForLoop node = new ForLoop(initializer, condition, step, body);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final ForEachLoop astForEachLoop(VariableDecl variable, Expression expression, Statement body) {
             final ForEachLoop node = new ForEachLoop(variable, expression, body);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final WhileLoop astWhileLoop(Expression condition, Statement body) {
             final WhileLoop node = new WhileLoop(condition, body);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
         public final DoWhileLoop astDoWhileLoop(Statement body, Expression condition) {
             final DoWhileLoop node = new DoWhileLoop(body, condition);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Switch astSwitch(Expression selector, ImmList<Case> cases) {
             final Switch node = new Switch(selector, cases);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Case astCase(Expression expression, ImmList<? extends Statement> statements) {
             final Case node = new Case(expression, statements);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Break astBreak(Symbol label) {
             final Break node = new Break(label);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Continue astContinue(Symbol label) {
             final Continue node = new Continue(label);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Return astReturn(Expression expression) {
             final Return node = new Return(expression);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Throw astThrow(Expression expression) {
             final Throw node = new Throw(expression);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Try astTry(Block body, ImmList<Catch> catchers, Block finalizer) {
             final Try node = new Try(body, catchers, finalizer);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Catch astCatch(VariableDecl parameter, Block body) {
             final Catch node = new Catch(parameter, body);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Synchronized astSynchronized(Expression lock, Block body) {
             final Synchronized node = new Synchronized(lock, body);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Parens astParens(Expression expression) {
             final Parens node = new Parens(expression);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Assert astAssert(Expression condition, Expression detail) {
             final Assert node = new Assert(condition, detail);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
 
         public final Erroneous astErroneous(ImmList<? extends Node> errorNodes) {
             final Erroneous node = new Erroneous(errorNodes);
-            onPostConstruct(node);
+            postConstruct(node);
             return node;
         }
 
@@ -18,6 +18,7 @@ import com.truward.jnova.java.code.Flags;
 import com.truward.jnova.util.naming.Symbol;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -119,15 +120,24 @@ public final class AstInfo {
     }
 
     /**
-     * Gets javadoc comments associated with the given compilation unit.
+     * Gets javadoc comments associated with the given compilation unit, text of all the comments is extracted.
+     * @see Ast.CompilationUnit#getDocComments()
      *
      * @param node Node from which comments should be extracted.
      * @return Comments mapping.
      */
     public static Map<Ast.Node, String> getDocComments(Ast.CompilationUnit node) {
-        // TODO: gather real doc comments
         assert node != null;
-        return Collections.emptyMap();
+        final DocCommentTable docComments = node.getDocComments();
+        if (docComments == null || docComments.size() == 0) {
+            return Collections.emptyMap();
+        }
+
+        final Map<Ast.Node, String> result = new HashMap<Ast.Node, String>(2 * docComments.size());
+        for (int i = 0; i < docComments.size(); ++i) {
+            result.put(docComments.getNode(i), docComments.getText(i));
+        }
+        return result;
     }
 
     public static Symbol getEnclosingClassName(Ast.NewClass node) {
@@ -1101,24 +1101,22 @@ public final class AstPrettyPrinter extends AstVisitor {
     public void visitLiteral(Ast.Literal node) {
         switch (node.getTypeTag()) {
             case TypeTags.INT:
-                print(node.getValue().toString());
+                print(Integer.toString(node.getIntValue()));
                 break;
             case TypeTags.LONG:
-                print(node.getValue() + "L");
+                print(node.getLongValue() + "L");
                 break;
             case TypeTags.FLOAT:
-                print(node.getValue() + "F");
+                print(node.getFloatValue() + "F");
                 break;
             case TypeTags.DOUBLE:
-                print(node.getValue().toString());
+                print(Double.toString(node.getDoubleValue()));
                 break;
             case TypeTags.CHAR:
-                print("\'" +
-                        Convert.quote(String.valueOf((char)((Number)node.getValue()).intValue())) +
-                        "\'");
+                print("\'" + Convert.quote(node.getCharValue()) + "\'");
                 break;
             case TypeTags.BOOLEAN:
-                print(((Number) node.getValue()).intValue() == 1 ? "true" : "false");
+                print(node.getBooleanValue() ? "true" : "false");
                 break;
             case TypeTags.BOT:
                 print("null");
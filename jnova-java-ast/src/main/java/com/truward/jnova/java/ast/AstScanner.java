@@ -224,7 +224,10 @@ public class AstScanner extends AstVisitor {
     public void visitNewArray(Ast.NewArray node) {
         scan(node.getElementType());
         scan(node.getDimensions());
-        scan(node.getInitializers());
+        // initializers are null if the dimensions are given
+        if (node.getInitializers() != null) {
+            scan(node.getInitializers());
+        }
     }
 
     @Override
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.ast;
+
+import com.truward.jnova.util.source.Source;
+
+import java.util.Arrays;
+
+/**
+ * Doc comments of the compilation unit kept as the source ranges of the nodes they are attached to,
+ * the comment text is extracted from the source buffer only when it is requested, so that the source
+ * is not read if the tree is built from the token buffer and the comments are not needed.
+ * Table is not thread-safe, lazy bodies add their doc comments when they are parsed.
+ */
+public final class DocCommentTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Source source;
+
+    private Ast.Node[] nodes;
+
+    /** Start and end positions of the comments, two elements per comment. */
+    private int[] ranges;
+
+    /**
+     * Node ids in the high halves and the comment indexes in the low ones sorted by the ids, built by the first
+     * lookup after the table is changed. Comments are sparse, so the lookup array is as long as the table.
+     */
+    private long[] sortedIds;
+
+    private int size;
+
+    /**
+     * @param source Source the comment positions refer to.
+     */
+    public DocCommentTable(Source source) {
+        assert source != null;
+        this.source = source;
+    }
+
+    /**
+     * Attaches doc comment to the node.
+     *
+     * @param node  Node to attach the comment to.
+     * @param start Position of the opening slash.
+     * @param end   Position following the closing slash.
+     */
+    public void add(Ast.Node node, int start, int end) {
+        assert node != null && start >= 0 && start <= end;
+        if (nodes == null) {
+            nodes = new Ast.Node[INITIAL_CAPACITY];
+            ranges = new int[2 * INITIAL_CAPACITY];
+        } else if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, 2 * size);
+            ranges = Arrays.copyOf(ranges, 4 * size);
+        }
+        nodes[size] = node;
+        ranges[2 * size] = start;
+        ranges[2 * size + 1] = end;
+        ++size;
+        sortedIds = null;
+    }
+
+    /**
+     * Adds all the comments of the other table, the positions of both tables should refer to the same source.
+     *
+     * @param other Table to add the comments of.
+     */
+    public void addAll(DocCommentTable other) {
+        for (int i = 0; i < other.size; ++i) {
+            add(other.nodes[i], other.ranges[2 * i], other.ranges[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Updates the table after the part of the source has been parsed again, used by the incremental parsing.
+     * Comments within the reparsed part are removed, the following ones are shifted.
+     *
+     * @param source    New source.
+     * @param start     Start of the reparsed part in the old source.
+     * @param end       End of the reparsed part in the old source.
+     * @param shift     Value to add to the positions that follow the reparsed part.
+     */
+    public void edit(Source source, int start, int end, int shift) {
+        assert source != null && start <= end;
+        int kept = 0;
+        for (int i = 0; i < size; ++i) {
+            final int commentStart = ranges[2 * i];
+            if (commentStart >= start && commentStart < end) {
+                continue;
+            }
+            final int delta = commentStart >= end ? shift : 0;
+            nodes[kept] = nodes[i];
+            ranges[2 * kept] = commentStart + delta;
+            ranges[2 * kept + 1] = ranges[2 * i + 1] + delta;
+            ++kept;
+        }
+        for (int i = kept; i < size; ++i) {
+            nodes[i] = null;
+        }
+        size = kept;
+        sortedIds = null;
+        this.source = source;
+    }
+
+    /**
+     * @return Count of the doc comments.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index Comment index.
+     * @return Node the comment is attached to.
+     */
+    public Ast.Node getNode(int index) {
+        assert index >= 0 && index < size;
+        return nodes[index];
+    }
+
+    /**
+     * @param index Comment index.
+     * @return Position of the opening slash.
+     */
+    public int getStartPos(int index) {
+        assert index >= 0 && index < size;
+        return ranges[2 * index];
+    }
+
+    /**
+     * @param index Comment index.
+     * @return Position following the closing slash.
+     */
+    public int getEndPos(int index) {
+        assert index >= 0 && index < size;
+        return ranges[2 * index + 1];
+    }
+
+    /**
+     * Finds the comment of the node by the node id with a binary search.
+     *
+     * @param node Node to find the comment of.
+     * @return Comment index or -1 if the node has no doc comment.
+     */
+    public int indexOf(Ast.Node node) {
+        if (size == 0) {
+            return -1;
+        }
+        if (sortedIds == null) {
+            sortedIds = new long[size];
+            for (int i = 0; i < size; ++i) {
+                sortedIds[i] = ((long) nodes[i].getId() << 32) | i;
+            }
+            Arrays.sort(sortedIds);
+        }
+
+        final int id = node.getId();
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int midId = (int) (sortedIds[mid] >>> 32);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                final int index = (int) sortedIds[mid];
+                // nodes of the other units may have the same id
+                return nodes[index] == node ? index : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index Comment index.
+     * @return Comment text, see {@link #getText(char[], int, int)}.
+     */
+    public String getText(int index) {
+        return getText(source.getBuffer(), getStartPos(index), getEndPos(index));
+    }
+
+    /**
+     * Extracts the text of the doc comment: leading whitespace and stars of each line are removed along with
+     * the comment delimiters, the leading blank lines and the blank last line are dropped.
+     * Unicode escapes are kept as is.
+     *
+     * @param buffer    Source buffer.
+     * @param start     Position of the opening slash.
+     * @param end       Position following the closing slash.
+     * @return Comment text, lines are separated by the line feeds.
+     */
+    public static String getText(char[] buffer, int start, int end) {
+        assert start >= 0 && end <= buffer.length && end - start >= 4;
+        // second star of the opening delimiter starts the first line
+        final int limit = Math.max(start + 2, end - 2);
+        final StringBuilder result = new StringBuilder(limit - start);
+        int pos = start + 2;
+        while (pos < limit) {
+            // skip whitespace and stars at the line start
+            while (pos < limit && (buffer[pos] == ' ' || buffer[pos] == '\t' || buffer[pos] == '\f')) {
+                ++pos;
+            }
+            while (pos < limit && buffer[pos] == '*') {
+                ++pos;
+            }
+
+            int lineEnd = pos;
+            while (lineEnd < limit && buffer[lineEnd] != '\n' && buffer[lineEnd] != '\r') {
+                ++lineEnd;
+            }
+            if (lineEnd == limit) {
+                // last line, its trailing whitespace precedes the closing delimiter
+                while (lineEnd > pos && buffer[lineEnd - 1] <= ' ') {
+                    --lineEnd;
+                }
+                result.append(buffer, pos, lineEnd - pos);
+                break;
+            }
+
+            // leading blank lines are dropped
+            if (lineEnd > pos || result.length() > 0) {
+                result.append(buffer, pos, lineEnd - pos).append('\n');
+            }
+            pos = lineEnd + 1;
+            if (buffer[lineEnd] == '\r' && pos < limit && buffer[pos] == '\n') {
+                ++pos;
+            }
+        }
+        if (result.length() > 0 && result.charAt(result.length() - 1) == '\n') {
+            result.setLength(result.length() - 1);
+        }
+        return result.toString();
+    }
+}
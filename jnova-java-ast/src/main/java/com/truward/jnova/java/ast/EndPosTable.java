@@ -0,0 +1,108 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.ast;
+
+/**
+ * End positions of the nodes of the compilation unit, kept aside from the nodes, so that the trees
+ * parsed without the end positions do not pay for them.
+ * Positions are kept in a primitive array indexed by the node id, see {@link NodeIntTable}.
+ * Table is not thread-safe, lazy bodies add the end positions of their nodes when they are parsed.
+ */
+public final class EndPosTable {
+    private final NodeIntTable ends;
+
+    /**
+     * Default public constructor.
+     */
+    public EndPosTable() {
+        this(0);
+    }
+
+    /**
+     * Public constructor.
+     *
+     * @param capacity  Expected count of the node ids.
+     */
+    public EndPosTable(int capacity) {
+        ends = new NodeIntTable(-1, capacity);
+    }
+
+    /**
+     * Stores the end position of the node replacing the one stored before.
+     *
+     * @param node      Node to store the end position of.
+     * @param endPos    Position following the last character of the node.
+     */
+    public void storeEnd(Ast.Node node, int endPos) {
+        assert node != null && endPos >= 0;
+        ends.put(node, endPos);
+    }
+
+    /**
+     * @param node  Node to get the end position of.
+     * @return Position following the last character of the node or -1 if the table has no end position of the node.
+     */
+    public int getEndPos(Ast.Node node) {
+        return ends.get(node);
+    }
+
+    /**
+     * Removes the end position of the node.
+     *
+     * @param node  Node to remove the end position of.
+     * @return True, if the table had the end position of the node.
+     */
+    public boolean remove(Ast.Node node) {
+        return ends.remove(node);
+    }
+
+    /**
+     * Adds all the end positions of the other table, the positions of both tables should refer to the same source
+     * and the nodes of both tables should belong to the same unit.
+     *
+     * @param other Table to add the end positions of.
+     */
+    public void putAll(EndPosTable other) {
+        for (int id = 0; id < other.ends.getIdLimit(); ++id) {
+            final int endPos = other.ends.get(id);
+            if (endPos >= 0) {
+                ends.put(id, endPos);
+            }
+        }
+    }
+
+    /**
+     * Adds the value to the end positions that are not less than the given one, used by the incremental parsing.
+     *
+     * @param end       Minimal end position to be shifted.
+     * @param shift     Value to add.
+     */
+    public void shift(int end, int shift) {
+        assert end >= 0;
+        for (int id = 0; id < ends.getIdLimit(); ++id) {
+            final int endPos = ends.get(id);
+            if (endPos >= end) {
+                ends.put(id, endPos + shift);
+            }
+        }
+    }
+
+    /**
+     * @return Count of the nodes with the end positions.
+     */
+    public int size() {
+        return ends.size();
+    }
+}
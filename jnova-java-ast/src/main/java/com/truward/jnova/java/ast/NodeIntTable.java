@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.ast;
+
+import java.util.Arrays;
+
+/**
+ * Integer attribute of the nodes of one compilation unit kept in a primitive array indexed by the node id,
+ * see {@link Ast.Node#getId()}. Array grows to the greatest id stored.
+ * Table is not thread-safe.
+ */
+public final class NodeIntTable {
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Value of the nodes without the attribute. */
+    private final int missingValue;
+
+    private int[] values;
+
+    private int size;
+
+    /**
+     * @param missingValue  Value of the nodes without the attribute, it can not be stored.
+     */
+    public NodeIntTable(int missingValue) {
+        this(missingValue, INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param missingValue  Value of the nodes without the attribute, it can not be stored.
+     * @param capacity      Expected count of the node ids, see {@link Ast.CompilationUnit#getNodeCount()}.
+     */
+    public NodeIntTable(int missingValue, int capacity) {
+        assert capacity >= 0;
+        this.missingValue = missingValue;
+        values = new int[Math.max(capacity, INITIAL_CAPACITY)];
+        if (missingValue != 0) {
+            Arrays.fill(values, missingValue);
+        }
+    }
+
+    /**
+     * @return Value of the nodes without the attribute.
+     */
+    public int getMissingValue() {
+        return missingValue;
+    }
+
+    /**
+     * @return Limit of the node ids, all the nodes with the attribute have lesser ids.
+     */
+    public int getIdLimit() {
+        return values.length;
+    }
+
+    /**
+     * @return Count of the nodes with the attribute.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int get(Ast.Node node) {
+        return get(node.getId());
+    }
+
+    /**
+     * @param id    Node id.
+     * @return Attribute of the node or the missing value if the node has no attribute.
+     */
+    public int get(int id) {
+        assert id >= 0;
+        return id < values.length ? values[id] : missingValue;
+    }
+
+    public void put(Ast.Node node, int value) {
+        put(node.getId(), value);
+    }
+
+    /**
+     * Sets the attribute of the node replacing the one set before.
+     *
+     * @param id    Node id.
+     * @param value Attribute, should not be the missing value.
+     */
+    public void put(int id, int value) {
+        assert id >= 0 && value != missingValue;
+        if (id >= values.length) {
+            final int length = values.length;
+            values = Arrays.copyOf(values, Math.max(2 * length, id + 1));
+            if (missingValue != 0) {
+                Arrays.fill(values, length, values.length, missingValue);
+            }
+        }
+        if (values[id] == missingValue) {
+            ++size;
+        }
+        values[id] = value;
+    }
+
+    public boolean remove(Ast.Node node) {
+        return remove(node.getId());
+    }
+
+    /**
+     * @param id    Node id.
+     * @return True, if the node had the attribute.
+     */
+    public boolean remove(int id) {
+        assert id >= 0;
+        if (id >= values.length || values[id] == missingValue) {
+            return false;
+        }
+        values[id] = missingValue;
+        --size;
+        return true;
+    }
+}
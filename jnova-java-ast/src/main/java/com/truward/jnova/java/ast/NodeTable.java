@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.ast;
+
+import java.util.Arrays;
+
+/**
+ * Attribute of the nodes of one compilation unit kept in an array indexed by the node id,
+ * see {@link Ast.Node#getId()}. Array grows to the greatest id stored.
+ * Table is not thread-safe.
+ *
+ * @param <V> Attribute type.
+ */
+public final class NodeTable<V> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Object[] values;
+
+    private int size;
+
+    /**
+     * Default public constructor.
+     */
+    public NodeTable() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param capacity  Expected count of the node ids, see {@link Ast.CompilationUnit#getNodeCount()}.
+     */
+    public NodeTable(int capacity) {
+        assert capacity >= 0;
+        values = new Object[Math.max(capacity, INITIAL_CAPACITY)];
+    }
+
+    /**
+     * @return Limit of the node ids, all the nodes with the attribute have lesser ids.
+     */
+    public int getIdLimit() {
+        return values.length;
+    }
+
+    /**
+     * @return Count of the nodes with the attribute.
+     */
+    public int size() {
+        return size;
+    }
+
+    public V get(Ast.Node node) {
+        return get(node.getId());
+    }
+
+    /**
+     * @param id    Node id.
+     * @return Attribute of the node or null if the node has no attribute.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int id) {
+        assert id >= 0;
+        return id < values.length ? (V) values[id] : null;
+    }
+
+    public void put(Ast.Node node, V value) {
+        put(node.getId(), value);
+    }
+
+    /**
+     * Sets the attribute of the node replacing the one set before.
+     *
+     * @param id    Node id.
+     * @param value Attribute, not null.
+     */
+    public void put(int id, V value) {
+        assert id >= 0 && value != null;
+        if (id >= values.length) {
+            values = Arrays.copyOf(values, Math.max(2 * values.length, id + 1));
+        }
+        if (values[id] == null) {
+            ++size;
+        }
+        values[id] = value;
+    }
+
+    public boolean remove(Ast.Node node) {
+        return remove(node.getId());
+    }
+
+    /**
+     * @param id    Node id.
+     * @return True, if the node had the attribute.
+     */
+    public boolean remove(int id) {
+        assert id >= 0;
+        if (id >= values.length || values[id] == null) {
+            return false;
+        }
+        values[id] = null;
+        --size;
+        return true;
+    }
+}
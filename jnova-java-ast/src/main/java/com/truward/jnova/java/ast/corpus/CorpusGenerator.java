@@ -0,0 +1,428 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.ast.corpus;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstNodeKind;
+import com.truward.jnova.java.ast.AstPrettyPrinter;
+import com.truward.jnova.java.ast.DefaultAstFactory;
+import com.truward.jnova.java.code.Flags;
+import com.truward.jnova.java.code.TypeTags;
+import com.truward.jnova.util.ImmList;
+import com.truward.jnova.util.naming.Symbol;
+import com.truward.jnova.util.naming.SymbolTable;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic Java 6 sources for benchmarks and stress tests.
+ * Trees are built with {@link Ast.Factory} and printed with {@link AstPrettyPrinter}, so the output is
+ * syntactically valid by construction. Comments and unicode escapes are added to the printed text at the
+ * places where they can not change the meaning of the source: comments between the lines and
+ * unicode escapes in place of the latin letters.
+ * The same seed and shape always produce the same output.
+ */
+public final class CorpusGenerator {
+    private static final int[] ARITHMETIC_OPERATORS = {
+            AstNodeKind.PLUS, AstNodeKind.MINUS, AstNodeKind.MUL, AstNodeKind.BITAND,
+            AstNodeKind.BITOR, AstNodeKind.BITXOR, AstNodeKind.SL, AstNodeKind.SR
+    };
+
+    private static final int[] COMPARISON_OPERATORS = {
+            AstNodeKind.LT, AstNodeKind.GT, AstNodeKind.LE, AstNodeKind.GE, AstNodeKind.EQ, AstNodeKind.NE
+    };
+
+    private static final String[] WORDS = {
+            "value", "result", "count", "index", "offset", "token", "name", "node", "total", "limit"
+    };
+
+    private final Ast.Factory f = new DefaultAstFactory();
+
+    private final SymbolTable symbolTable;
+
+    private final CorpusShape shape;
+
+    private final Random random;
+
+    private int classIndex;
+
+    private int memberIndex;
+
+    private int localIndex;
+
+    /** Integer variables visible at the current point of the generated method. */
+    private final List<Symbol> intLocals = new ArrayList<Symbol>();
+
+    private Symbol stringParameter;
+
+    public CorpusGenerator(SymbolTable symbolTable, CorpusShape shape, long seed) {
+        assert symbolTable != null && shape != null;
+
+        this.symbolTable = symbolTable;
+        this.shape = shape;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates compilation unit with the count of classes defined by the shape.
+     *
+     * @return Compilation unit tree.
+     */
+    public Ast.CompilationUnit generateUnit() {
+        ImmList<Ast.Node> definitions = header();
+        for (int i = 0; i < shape.getClassCount(); ++i) {
+            definitions = definitions.append(classDecl());
+        }
+
+        return f.astCompilationUnit(ImmList.<Ast.Annotation>nil(), qualifiedName("com", "example", "corpus"),
+                definitions);
+    }
+
+    /**
+     * Generates source of the compilation unit with the count of classes defined by the shape.
+     *
+     * @return Java source.
+     */
+    public String generateSource() {
+        return decorate(print(generateUnit()));
+    }
+
+    /**
+     * Generates source of the given length, classes are added until the source length is reached,
+     * class count of the shape is ignored.
+     *
+     * @param minLength Minimal length of the source.
+     * @return Java source.
+     */
+    public String generateSource(int minLength) {
+        final StringBuilder builder = new StringBuilder(minLength + 1024);
+        builder.append(print(f.astCompilationUnit(ImmList.<Ast.Annotation>nil(),
+                qualifiedName("com", "example", "corpus"), header())));
+
+        while (builder.length() < minLength) {
+            builder.append('\n').append(print(classDecl()));
+        }
+
+        return decorate(builder.toString());
+    }
+
+
+    //
+    // Trees
+    //
+
+    private ImmList<Ast.Node> header() {
+        return ImmList.<Ast.Node>of(
+                f.astImport(qualifiedName("java", "util", "List"), false),
+                f.astImport(qualifiedName("java", "util", "Map"), false));
+    }
+
+    private Ast.ClassDecl classDecl() {
+        final Symbol className = nm("Generated" + (classIndex++));
+
+        ImmList<Ast.TypeParameter> typeParameters = ImmList.nil();
+        if (chance(shape.getGenericsRatio())) {
+            typeParameters = ImmList.of(f.astTypeParameter(nm("T"), ImmList.<Ast.Expression>nil()));
+        }
+
+        ImmList<Ast.Node> members = ImmList.nil();
+        for (int i = 0; i < shape.getMembersPerClass(); ++i) {
+            members = members.prepend(random.nextInt(3) == 0 ? fieldDecl() : methodDecl());
+        }
+
+        return f.astClassDecl(f.astModifiers(Flags.FINAL), className, typeParameters, null,
+                ImmList.<Ast.Expression>nil(), members.reverse());
+    }
+
+    private Ast.VariableDecl fieldDecl() {
+        final Symbol name = nm("field" + (memberIndex++));
+        if (random.nextBoolean()) {
+            return f.astVariableDecl(f.astModifiers(Flags.PRIVATE | Flags.STATIC | Flags.FINAL), name,
+                    f.astPrimitiveType(TypeTags.INT), intLiteral());
+        }
+
+        return f.astVariableDecl(f.astModifiers(Flags.PRIVATE), name, type(), null);
+    }
+
+    private Ast.MethodDecl methodDecl() {
+        final Symbol name = nm(WORDS[random.nextInt(WORDS.length)] + (memberIndex++));
+
+        intLocals.clear();
+        localIndex = 0;
+        final Symbol a = nm("a");
+        final Symbol b = nm("b");
+        stringParameter = nm("s");
+        intLocals.add(a);
+        intLocals.add(b);
+
+        final ImmList<Ast.VariableDecl> parameters = ImmList.of(
+                parameter(a, f.astPrimitiveType(TypeTags.INT)),
+                parameter(b, f.astPrimitiveType(TypeTags.INT)),
+                parameter(stringParameter, f.astIdent(nm("String"))));
+
+        ImmList<Ast.Statement> statements = ImmList.nil();
+        for (int i = 0; i < shape.getStatementsPerMethod(); ++i) {
+            statements = statements.prepend(statement());
+        }
+        statements = statements.prepend(f.astReturn(intExpression(shape.getExpressionDepth())));
+
+        return f.astMethodDecl(f.astModifiers(Flags.PUBLIC), name, f.astPrimitiveType(TypeTags.INT),
+                ImmList.<Ast.TypeParameter>nil(), parameters, ImmList.<Ast.Expression>nil(),
+                f.astBlock(statements.reverse()), null);
+    }
+
+    private Ast.VariableDecl parameter(Symbol name, Ast.Expression type) {
+        return f.astVariableDecl(f.astModifiers(0), name, type, null);
+    }
+
+    @SuppressWarnings("fallthrough")
+    private Ast.Statement statement() {
+        final int depth = shape.getExpressionDepth();
+        switch (random.nextInt(6)) {
+            case 0:
+                if (shape.getStringChainLength() > 0) {
+                    return f.astVariableDecl(f.astModifiers(Flags.FINAL), nm("text" + (localIndex++)),
+                            f.astIdent(nm("String")), stringChain());
+                }
+                // fall through
+
+            case 1: {
+                final Symbol name = nm("v" + (localIndex++));
+                final Ast.Statement result = f.astVariableDecl(f.astModifiers(0), name,
+                        f.astPrimitiveType(TypeTags.INT), intExpression(depth));
+                intLocals.add(name);
+                return result;
+            }
+
+            case 2:
+                return f.astIf(f.astParens(condition(depth)),
+                        f.astBlock(ImmList.of(assignment(depth))),
+                        random.nextBoolean() ? f.astBlock(ImmList.of(assignment(depth))) : null);
+
+            case 3: {
+                final Symbol index = nm("i" + (localIndex++));
+                final Ast.VariableDecl init = f.astVariableDecl(f.astModifiers(0), index,
+                        f.astPrimitiveType(TypeTags.INT), f.astLiteral(TypeTags.INT, 0));
+                final Ast.Expression condition = f.astBinary(AstNodeKind.LT, f.astIdent(index), intLocal());
+                final Ast.ExpressionStatement step = f.astExpressionStatement(
+                        f.astUnary(AstNodeKind.PREINC, f.astIdent(index)));
+
+                intLocals.add(index);
+                final Ast.Statement body = f.astBlock(ImmList.of(assignment(depth)));
+                intLocals.remove(intLocals.size() - 1);
+
+                return f.astForLoop(ImmList.of(init), condition, ImmList.of(step), body);
+            }
+
+            default:
+                return assignment(depth);
+        }
+    }
+
+    private Ast.Statement assignment(int depth) {
+        final Ast.Expression target = intLocal();
+        if (random.nextBoolean()) {
+            return f.astExpressionStatement(f.astAssignment(target, intExpression(depth)));
+        }
+
+        return f.astExpressionStatement(f.astCompoundAssignment(AstNodeKind.PLUS_ASG, target, intExpression(depth)));
+    }
+
+    private Ast.Expression intExpression(int depth) {
+        if (depth <= 0 || random.nextInt(4) == 0) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    return intLiteral();
+                case 1:
+                    return f.astMethodInvocation(f.astFieldAccess(f.astIdent(stringParameter), nm("length")),
+                            ImmList.<Ast.Expression>nil());
+                default:
+                    return intLocal();
+            }
+        }
+
+        switch (random.nextInt(5)) {
+            case 0:
+                return f.astConditional(condition(depth - 1), intExpression(depth - 1), intExpression(depth - 1));
+            case 1:
+                return f.astParens(intExpression(depth - 1));
+            default:
+                return f.astBinary(ARITHMETIC_OPERATORS[random.nextInt(ARITHMETIC_OPERATORS.length)],
+                        intExpression(depth - 1), intExpression(depth - 1));
+        }
+    }
+
+    private Ast.Expression condition(int depth) {
+        final Ast.Expression comparison = f.astBinary(
+                COMPARISON_OPERATORS[random.nextInt(COMPARISON_OPERATORS.length)],
+                intExpression(depth - 1), intExpression(depth - 1));
+
+        if (depth > 1 && random.nextBoolean()) {
+            return f.astBinary(random.nextBoolean() ? AstNodeKind.AND : AstNodeKind.OR,
+                    comparison, condition(depth - 1));
+        }
+
+        return comparison;
+    }
+
+    /**
+     * @return Left-nested concatenation, mostly of the adjacent string literals.
+     */
+    private Ast.Expression stringChain() {
+        Ast.Expression result = stringLiteral();
+        for (int i = 1; i < shape.getStringChainLength(); ++i) {
+            final Ast.Expression operand = random.nextInt(4) == 0 ? intLocal() : stringLiteral();
+            result = f.astBinary(AstNodeKind.PLUS, result, operand);
+        }
+        return result;
+    }
+
+    private Ast.Expression type() {
+        if (!chance(shape.getGenericsRatio())) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    return f.astPrimitiveType(TypeTags.INT);
+                case 1:
+                    return f.astPrimitiveType(TypeTags.LONG);
+                default:
+                    return f.astIdent(nm("String"));
+            }
+        }
+
+        return genericType(2);
+    }
+
+    private Ast.Expression genericType(int depth) {
+        final Ast.Expression argument = (depth > 1 && random.nextBoolean()) ?
+                genericType(depth - 1) : f.astIdent(nm(random.nextBoolean() ? "String" : "Integer"));
+
+        if (random.nextBoolean()) {
+            return f.astParameterizedType(f.astIdent(nm("List")), ImmList.of(argument));
+        }
+
+        return f.astParameterizedType(f.astIdent(nm("Map")), ImmList.<Ast.Expression>of(
+                f.astIdent(nm("String")), argument));
+    }
+
+    private Ast.Expression intLocal() {
+        return f.astIdent(intLocals.get(random.nextInt(intLocals.size())));
+    }
+
+    private Ast.Expression intLiteral() {
+        return f.astLiteral(TypeTags.INT, random.nextInt(10000));
+    }
+
+    private Ast.Expression stringLiteral() {
+        return f.astLiteral(TypeTags.CLASS, WORDS[random.nextInt(WORDS.length)] + ": ");
+    }
+
+    private Ast.Expression qualifiedName(String... parts) {
+        Ast.Expression result = f.astIdent(nm(parts[0]));
+        for (int i = 1; i < parts.length; ++i) {
+            result = f.astFieldAccess(result, nm(parts[i]));
+        }
+        return result;
+    }
+
+    private Symbol nm(String name) {
+        return symbolTable.fromSequence(name);
+    }
+
+    private boolean chance(double ratio) {
+        return ratio > 0 && random.nextDouble() < ratio;
+    }
+
+
+    //
+    // Text
+    //
+
+    private static String print(Ast.Node node) {
+        final StringWriter writer = new StringWriter();
+        new AstPrettyPrinter(writer, true).printExpr(node);
+        return writer.toString();
+    }
+
+    private String decorate(String source) {
+        String result = source;
+        if (shape.getCommentRatio() > 0) {
+            result = addComments(result);
+        }
+        if (shape.getUnicodeEscapeRatio() > 0) {
+            result = addUnicodeEscapes(result);
+        }
+        return result;
+    }
+
+    /**
+     * Inserts comments before the source lines, line boundaries are always between tokens.
+     */
+    private String addComments(String source) {
+        final StringBuilder builder = new StringBuilder(source.length() + source.length() / 4);
+        int lineStart = 0;
+        while (lineStart < source.length()) {
+            int lineEnd = source.indexOf('\n', lineStart);
+            lineEnd = (lineEnd < 0) ? source.length() : lineEnd + 1;
+
+            int indent = lineStart;
+            while (indent < lineEnd && source.charAt(indent) == ' ') {
+                ++indent;
+            }
+
+            if (indent < lineEnd && source.charAt(indent) != '\n' && chance(shape.getCommentRatio())) {
+                final String indentation = source.substring(lineStart, indent);
+                final String word = WORDS[random.nextInt(WORDS.length)];
+                if (indent - lineStart <= AstPrettyPrinter.DEFAULT_INDENTATION_WIDTH) {
+                    builder.append(indentation).append("/**\n");
+                    builder.append(indentation).append(" * Generated documentation for the ").append(word)
+                            .append(".\n");
+                    builder.append(indentation).append(" * @see ").append(word).append('\n');
+                    builder.append(indentation).append(" */\n");
+                } else {
+                    builder.append(indentation).append("// ").append(word).append(" comment\n");
+                }
+            }
+
+            builder.append(source, lineStart, lineEnd);
+            lineStart = lineEnd;
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Replaces latin letters with unicode escapes, letters that follow backslash are left as is, so that
+     * escape sequences in literals stay intact.
+     */
+    private String addUnicodeEscapes(String source) {
+        final StringBuilder builder = new StringBuilder(source.length() * 2);
+        char prev = 0;
+        for (int i = 0; i < source.length(); ++i) {
+            final char ch = source.charAt(i);
+            if (prev != '\\' && ((ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z')) &&
+                    chance(shape.getUnicodeEscapeRatio())) {
+                builder.append("\\u00").append(Character.forDigit(ch >> 4, 16)).append(Character.forDigit(ch & 0xF, 16));
+            } else {
+                builder.append(ch);
+            }
+            prev = ch;
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.ast.corpus;
+
+/**
+ * Controls size and shape of the sources produced by {@link CorpusGenerator}.
+ * Ratios are probabilities in [0, 1] range.
+ */
+public final class CorpusShape {
+    private int classCount = 1;
+
+    private int membersPerClass = 12;
+
+    private int statementsPerMethod = 6;
+
+    private int expressionDepth = 3;
+
+    private int stringChainLength = 4;
+
+    private double genericsRatio = 0.2;
+
+    private double commentRatio = 0.1;
+
+    private double unicodeEscapeRatio = 0.0;
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * @param classCount Count of top level classes in the generated compilation unit.
+     */
+    public void setClassCount(int classCount) {
+        assert classCount >= 0;
+        this.classCount = classCount;
+    }
+
+    public int getMembersPerClass() {
+        return membersPerClass;
+    }
+
+    /**
+     * @param membersPerClass Count of fields and methods in each class, roughly one third are fields.
+     */
+    public void setMembersPerClass(int membersPerClass) {
+        assert membersPerClass >= 0;
+        this.membersPerClass = membersPerClass;
+    }
+
+    public int getStatementsPerMethod() {
+        return statementsPerMethod;
+    }
+
+    public void setStatementsPerMethod(int statementsPerMethod) {
+        assert statementsPerMethod >= 0;
+        this.statementsPerMethod = statementsPerMethod;
+    }
+
+    public int getExpressionDepth() {
+        return expressionDepth;
+    }
+
+    /**
+     * @param expressionDepth Maximum nesting depth of the generated expressions.
+     */
+    public void setExpressionDepth(int expressionDepth) {
+        assert expressionDepth >= 0;
+        this.expressionDepth = expressionDepth;
+    }
+
+    public int getStringChainLength() {
+        return stringChainLength;
+    }
+
+    /**
+     * @param stringChainLength Count of operands in the string concatenation chains, zero disables the chains.
+     */
+    public void setStringChainLength(int stringChainLength) {
+        assert stringChainLength >= 0;
+        this.stringChainLength = stringChainLength;
+    }
+
+    public double getGenericsRatio() {
+        return genericsRatio;
+    }
+
+    /**
+     * @param genericsRatio Probability of the generated type to be parameterized.
+     */
+    public void setGenericsRatio(double genericsRatio) {
+        assert genericsRatio >= 0 && genericsRatio <= 1;
+        this.genericsRatio = genericsRatio;
+    }
+
+    public double getCommentRatio() {
+        return commentRatio;
+    }
+
+    /**
+     * @param commentRatio Probability of the source line to be preceded by the comment,
+     *                     members get javadoc comments, statements get line comments.
+     */
+    public void setCommentRatio(double commentRatio) {
+        assert commentRatio >= 0 && commentRatio <= 1;
+        this.commentRatio = commentRatio;
+    }
+
+    public double getUnicodeEscapeRatio() {
+        return unicodeEscapeRatio;
+    }
+
+    /**
+     * @param unicodeEscapeRatio Probability of the latin letter to be written as unicode escape.
+     */
+    public void setUnicodeEscapeRatio(double unicodeEscapeRatio) {
+        assert unicodeEscapeRatio >= 0 && unicodeEscapeRatio <= 1;
+        this.unicodeEscapeRatio = unicodeEscapeRatio;
+    }
+}
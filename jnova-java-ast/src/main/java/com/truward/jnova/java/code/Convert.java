@@ -102,6 +102,75 @@ public final class Convert {
     }
 
 
+    /**
+     * Converts digits of the integer literal to int without creating a string, see {@link #string2int(String, int)}.
+     *
+     * @param cs        Buffer with the digits.
+     * @param offset    Offset of the first digit.
+     * @param length    Count of the digits.
+     * @param radix     Radix of the literal.
+     * @param negative  Whether the decimal literal is negated, so that {@link Integer#MIN_VALUE} fits.
+     * @return Value of the literal, negated if requested.
+     * @throws NumberFormatException If the value does not fit.
+     */
+    public static int chars2int(char[] cs, int offset, int length, int radix, boolean negative)
+        throws NumberFormatException {
+        return (int) chars2long(cs, offset, length, radix, negative, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Converts digits of the long literal without creating a string, see {@link #string2long(String, int)}.
+     *
+     * @param cs        Buffer with the digits.
+     * @param offset    Offset of the first digit.
+     * @param length    Count of the digits.
+     * @param radix     Radix of the literal.
+     * @param negative  Whether the decimal literal is negated, so that {@link Long#MIN_VALUE} fits.
+     * @return Value of the literal, negated if requested.
+     * @throws NumberFormatException If the value does not fit.
+     */
+    public static long chars2long(char[] cs, int offset, int length, int radix, boolean negative)
+        throws NumberFormatException {
+        return chars2long(cs, offset, length, radix, negative, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    // Converts digits of the literal of the type with the given bounds. Decimal digits are accumulated negatively
+    // as Long.parseLong does, the negative range is larger. Digits of the other radixes are the bits of the value,
+    // so that all the bits of the type may be set, e.g. 0xffffffff is -1.
+    private static long chars2long(char[] cs, int offset, int length, int radix, boolean negative, long min, long max)
+        throws NumberFormatException {
+        if (radix == 10) {
+            if (length == 0) {
+                throw new NumberFormatException();
+            }
+            final long limit = negative ? min : -max;
+            final long multmin = limit / 10;
+            long n = 0;
+            for (int i = offset; i < offset + length; i++) {
+                int d = Character.digit(cs[i], 10);
+                if (d < 0 || n < multmin || n * 10 < limit + d) {
+                    throw new NumberFormatException();
+                }
+                n = n * 10 - d;
+            }
+            return negative ? n : -n;
+        } else {
+            assert radix > 0 && (radix & (radix - 1)) == 0;
+            final int shift = Integer.numberOfTrailingZeros(radix);
+            // bits of the value that are shifted out by the next digit
+            final long overflow = ~((max << 1 | 1) >>> shift);
+            long n = 0;
+            for (int i = offset; i < offset + length; i++) {
+                int d = Character.digit(cs[i], radix);
+                if (d < 0 || (n & overflow) != 0) {
+                    throw new NumberFormatException();
+                }
+                n = n << shift | d;
+            }
+            return n;
+        }
+    }
+
     /**
      * Escapes each character in a string that has an escape sequence or
      * is non-printable ASCII.  Leaves non-ASCII characters alone.
@@ -170,6 +170,14 @@ public class AstPrettyPrinterTest {
                 )));
     }
 
+    @Test
+    public void testCharAndBooleanLiterals() {
+        assertTokenMatch("'a'", f.astLiteral(TypeTags.CHAR, (int) 'a'));
+        assertTokenMatch("'\\n'", f.astLiteral(TypeTags.CHAR, (int) '\n'));
+        assertTokenMatch("true", f.astLiteral(TypeTags.BOOLEAN, 1));
+        assertTokenMatch("false", f.astLiteral(TypeTags.BOOLEAN, 0));
+    }
+
     @Test
     public void testSimpleCompilationUnit() {
         assertTokenMatch("package com.mycompany.myapp;\n" +
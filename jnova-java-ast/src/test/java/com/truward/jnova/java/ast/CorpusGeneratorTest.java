@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.ast;
+
+import com.truward.jnova.java.ast.corpus.CorpusGenerator;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests synthetic corpus generator.
+ */
+public final class CorpusGeneratorTest {
+
+    private static String generate(CorpusShape shape, long seed) {
+        return new CorpusGenerator(new HashSymbolTable(), shape, seed).generateSource();
+    }
+
+    @Test
+    public void testDeterminism() {
+        final CorpusShape shape = new CorpusShape();
+        shape.setClassCount(3);
+        shape.setCommentRatio(0.3);
+        shape.setUnicodeEscapeRatio(0.05);
+
+        assertEquals(generate(shape, 1L), generate(shape, 1L));
+        assertFalse(generate(shape, 1L).equals(generate(shape, 2L)));
+    }
+
+    @Test
+    public void testShape() {
+        final CorpusShape shape = new CorpusShape();
+        shape.setClassCount(4);
+        shape.setCommentRatio(0.0);
+        shape.setGenericsRatio(0.0);
+
+        final String source = generate(shape, 1L);
+        assertTrue(source.startsWith("package com.example.corpus;"));
+        assertTrue(source.contains("class Generated3"));
+        assertFalse(source.contains("class Generated4"));
+        assertFalse(source.contains("//"));
+        assertFalse(source.contains("\\u"));
+    }
+
+    @Test
+    public void testMinLength() {
+        final String source = new CorpusGenerator(new HashSymbolTable(), new CorpusShape(), 1L).generateSource(16384);
+        assertTrue(source.length() >= 16384);
+    }
+}
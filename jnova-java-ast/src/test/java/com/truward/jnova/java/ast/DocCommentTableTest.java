@@ -0,0 +1,56 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.ast;
+
+import com.truward.jnova.java.code.TypeTags;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests lookup of the doc comments by the nodes.
+ */
+public final class DocCommentTableTest {
+    private final Ast.Factory f = new DefaultAstFactory();
+
+    @Test
+    public void testIndexOf() {
+        final DocCommentTable table = new DocCommentTable(new DefaultSource("/** a */ /** b */ /** c */"));
+        final Ast.Literal first = f.astLiteral(TypeTags.INT, 1);
+        final Ast.Literal second = f.astLiteral(TypeTags.INT, 2);
+        final Ast.Literal uncommented = f.astLiteral(TypeTags.INT, 3);
+        assertEquals(-1, table.indexOf(first));
+
+        // enclosing nodes are created after their members, so that the ids are not in the order of the comments
+        table.add(second, 0, 8);
+        table.add(first, 9, 17);
+        assertEquals(1, table.indexOf(first));
+        assertEquals(0, table.indexOf(second));
+        assertEquals(-1, table.indexOf(uncommented));
+
+        // node of the other unit with the same id
+        f.setNodeCount(first.getId());
+        assertEquals(-1, table.indexOf(f.astLiteral(TypeTags.INT, 1)));
+
+        table.add(uncommented, 18, 26);
+        assertEquals(2, table.indexOf(uncommented));
+
+        table.edit(new DefaultSource("/** a */ /** c */"), 0, 9, -9);
+        assertEquals(-1, table.indexOf(second));
+        assertEquals(0, table.indexOf(first));
+        assertEquals(1, table.indexOf(uncommented));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.ast;
+
+import com.truward.jnova.java.code.TypeTags;
+import com.truward.jnova.util.ImmList;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests node ids and the tables indexed by them.
+ */
+public final class NodeTableTest {
+    private final Ast.Factory f = new DefaultAstFactory();
+
+    @Test
+    public void testSequentialIds() {
+        final Ast.Literal literal = f.astLiteral(TypeTags.INT, 1);
+        final Ast.ExpressionStatement statement = f.astExpressionStatement(literal);
+        final Ast.CompilationUnit unit = f.astCompilationUnit(ImmList.<Ast.Annotation>nil(), null,
+                ImmList.of(statement));
+
+        assertEquals(0, literal.getId());
+        assertEquals(1, statement.getId());
+        assertEquals(2, unit.getId());
+        assertEquals(3, unit.getNodeCount());
+        assertEquals(3, f.getNodeCount());
+
+        // ids of the next unit start from zero
+        f.setNodeCount(0);
+        assertEquals(0, f.astLiteral(TypeTags.INT, 2).getId());
+    }
+
+    @Test
+    public void testNodeTable() {
+        final NodeTable<String> table = new NodeTable<String>(1);
+        final Ast.Literal first = f.astLiteral(TypeTags.INT, 1);
+        f.setNodeCount(1000);
+        final Ast.Literal second = f.astLiteral(TypeTags.INT, 2);
+
+        table.put(first, "first");
+        table.put(second, "second");
+        table.put(second, "last");
+        assertEquals(2, table.size());
+        assertEquals("first", table.get(first));
+        assertEquals("last", table.get(1000));
+        assertTrue(table.getIdLimit() > 1000);
+        assertNull(table.get(999));
+        assertNull(table.get(5000));
+
+        assertTrue(table.remove(first));
+        assertFalse(table.remove(first));
+        assertNull(table.get(first));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void testNodeIntTable() {
+        final NodeIntTable table = new NodeIntTable(-1, 0);
+        final Ast.Literal literal = f.astLiteral(TypeTags.INT, 1);
+        assertEquals(-1, table.get(literal));
+
+        table.put(literal, 0);
+        table.put(70, 5);
+        assertEquals(0, table.get(literal));
+        assertEquals(5, table.get(70));
+        assertEquals(-1, table.get(69));
+        assertEquals(2, table.size());
+
+        assertTrue(table.remove(70));
+        assertEquals(-1, table.get(70));
+        assertEquals(1, table.size());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+/**
+ * Keeps the text of the edited source and its tokens, on each edit only the tokens affected by the edit are scanned
+ * again, see {@link TokenBuffer#edit(Lexer, char[], int, int, int, int)}.
+ * Lexical errors of the scanned tokens are reported to the log of the lexer.
+ */
+public final class IncrementalLexer {
+    private final Lexer lexer;
+
+    /** Text with at least one spare char for the lexer's end of input marker. */
+    private char[] text;
+
+    private int length;
+
+    private TokenBuffer tokens;
+
+    /**
+     * Scans the initial text.
+     *
+     * @param lexer     Lexer to scan with, it is used by this object exclusively.
+     * @param content   Initial text.
+     */
+    public IncrementalLexer(Lexer lexer, CharSequence content) {
+        assert lexer != null && content != null;
+        this.lexer = lexer;
+        text = new char[content.length() + 1];
+        length = content.length();
+        for (int i = 0; i < length; ++i) {
+            text[i] = content.charAt(i);
+        }
+        tokens = TokenBuffer.scan(lexer, text, length);
+    }
+
+    /**
+     * Replaces the part of the text and updates the tokens.
+     *
+     * @param offset        Offset of the replaced text.
+     * @param deletedLength Length of the replaced text.
+     * @param insertedText  Text to insert.
+     * @return Updated tokens.
+     */
+    public TokenBuffer edit(int offset, int deletedLength, CharSequence insertedText) {
+        assert offset >= 0 && deletedLength >= 0 && offset + deletedLength <= length && insertedText != null;
+        final int insertedLength = insertedText.length();
+        final int newLength = length - deletedLength + insertedLength;
+        final int tail = length - offset - deletedLength;
+
+        if (newLength + 1 > text.length) {
+            final char[] newText = new char[Math.max(newLength + 1, text.length + text.length / 2)];
+            System.arraycopy(text, 0, newText, 0, offset);
+            System.arraycopy(text, offset + deletedLength, newText, offset + insertedLength, tail);
+            text = newText;
+        } else {
+            System.arraycopy(text, offset + deletedLength, text, offset + insertedLength, tail);
+        }
+        for (int i = 0; i < insertedLength; ++i) {
+            text[offset + i] = insertedText.charAt(i);
+        }
+        length = newLength;
+
+        tokens = tokens.edit(lexer, text, length, offset, deletedLength, insertedLength);
+        return tokens;
+    }
+
+    /**
+     * @return Tokens of the current text.
+     */
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @return Buffer of the current text, valid until the next edit. Length of the text is {@link #length()}.
+     */
+    public char[] getBuffer() {
+        return text;
+    }
+
+    /**
+     * @return Length of the current text.
+     */
+    public int length() {
+        return length;
+    }
+}
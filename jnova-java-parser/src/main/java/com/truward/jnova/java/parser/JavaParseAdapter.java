@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.util.naming.Symbol;
+
+/**
+ * Listener that ignores all the events, subclasses override the ones they need.
+ */
+public class JavaParseAdapter implements JavaParseListener {
+
+    @Override
+    public void enterCompilationUnit() {
+    }
+
+    @Override
+    public void exitCompilationUnit() {
+    }
+
+    @Override
+    public void onPackage(Symbol name, int pos, int start, int end) {
+    }
+
+    @Override
+    public void onImport(Symbol name, boolean staticImport, int pos, int start, int end) {
+    }
+
+    @Override
+    public void enterClass(int kind, int flags, Symbol name, int pos, int signatureStart, int signatureEnd) {
+    }
+
+    @Override
+    public void exitClass(int endPos) {
+    }
+
+    @Override
+    public void onEnumConstant(int flags, Symbol name, int pos) {
+    }
+
+    @Override
+    public void onField(int flags, Symbol name, int pos, int typeStart, int typeEnd) {
+    }
+
+    @Override
+    public void enterMethod(int kind, int flags, Symbol name, int pos, int typeStart, int typeEnd,
+                            int signatureStart, int signatureEnd) {
+    }
+
+    @Override
+    public void exitMethod(int endPos) {
+    }
+
+    @Override
+    public void enterInitializer(int flags, int pos) {
+    }
+
+    @Override
+    public void exitInitializer(int endPos) {
+    }
+
+    @Override
+    public void onIdentifier(Symbol name, int pos) {
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.util.naming.Symbol;
+
+/**
+ * Receives declarations of the compilation unit in the source order, see {@link Parser#parse(JavaParseListener)}.
+ * Declaration kinds are the {@link Outline} ones, flags are {@link com.truward.jnova.java.code.Flags},
+ * ranges are 0-based offsets with exclusive end, ranges that are not known are given as {@link Outline#NOPOS}.
+ * Declaration position is the start of the declaration including its modifiers, except for the fields and
+ * enum constants which are reported at their names. Declarations within method bodies, initializers and anonymous
+ * classes are not reported.
+ */
+public interface JavaParseListener {
+
+    void enterCompilationUnit();
+
+    void exitCompilationUnit();
+
+    /**
+     * @param name  Last identifier of the package name.
+     * @param pos   Position of the declaration.
+     * @param start Start of the qualified name.
+     * @param end   End of the qualified name.
+     */
+    void onPackage(Symbol name, int pos, int start, int end);
+
+    /**
+     * @param name          Last identifier of the imported name or asterisk.
+     * @param staticImport  Whether it is a static import.
+     * @param pos           Position of the declaration.
+     * @param start         Start of the qualified name.
+     * @param end           End of the qualified name.
+     */
+    void onImport(Symbol name, boolean staticImport, int pos, int start, int end);
+
+    /**
+     * @param kind              One of {@link Outline#CLASS}, {@link Outline#INTERFACE}, {@link Outline#ENUM},
+     *                          {@link Outline#ANNOTATION_TYPE}.
+     * @param flags             Modifier flags.
+     * @param name              Type name.
+     * @param pos               Position of the declaration.
+     * @param signatureStart    Start of the type parameters and supertypes.
+     * @param signatureEnd      End of the type parameters and supertypes.
+     */
+    void enterClass(int kind, int flags, Symbol name, int pos, int signatureStart, int signatureEnd);
+
+    /**
+     * @param endPos End of the type body.
+     */
+    void exitClass(int endPos);
+
+    void onEnumConstant(int flags, Symbol name, int pos);
+
+    /**
+     * Reported for each of the variable declarators of the field declaration.
+     *
+     * @param flags     Modifier flags.
+     * @param name      Field name.
+     * @param pos       Position of the field name.
+     * @param typeStart Start of the field type.
+     * @param typeEnd   End of the field type.
+     */
+    void onField(int flags, Symbol name, int pos, int typeStart, int typeEnd);
+
+    /**
+     * @param kind              Either {@link Outline#METHOD} or {@link Outline#CONSTRUCTOR}.
+     * @param flags             Modifier flags.
+     * @param name              Method name, class name for the constructors.
+     * @param pos               Position of the declaration.
+     * @param typeStart         Start of the return type.
+     * @param typeEnd           End of the return type.
+     * @param signatureStart    Start of the parameters and thrown exceptions.
+     * @param signatureEnd      End of the parameters and thrown exceptions.
+     */
+    void enterMethod(int kind, int flags, Symbol name, int pos, int typeStart, int typeEnd,
+                     int signatureStart, int signatureEnd);
+
+    /**
+     * @param endPos End of the method body or declaration.
+     */
+    void exitMethod(int endPos);
+
+    void enterInitializer(int flags, int pos);
+
+    void exitInitializer(int endPos);
+
+    /**
+     * Reported for every identifier of the compilation unit, including the declaration names and the identifiers
+     * of the skipped bodies, before the declaration event the identifier belongs to.
+     *
+     * @param name  Identifier.
+     * @param pos   Position of the identifier.
+     */
+    void onIdentifier(Symbol name, int pos);
+}
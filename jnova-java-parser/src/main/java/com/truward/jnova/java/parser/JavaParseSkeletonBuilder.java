@@ -0,0 +1,228 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.code.PredefinedNames;
+import com.truward.jnova.util.ImmList;
+import com.truward.jnova.util.naming.Symbol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the skeleton of the compilation unit from the parse events, see {@link Parser#parse(JavaParseListener)}.
+ * The skeleton is not the syntax tree of the source: it has the classes, fields, enum constants, methods and
+ * initializers with their names, flags and positions only. Types, signatures and bodies are not a part of the events,
+ * so that the fields and methods have neither types nor parameters, the classes have neither type parameters nor
+ * supertypes, the methods have no bodies and the initializers are empty blocks. Package and import names are
+ * built from the identifiers reported within their ranges. Node positions are the ones of the events.
+ * Use {@link Parser#parseCompilationUnit()} when the full declarations are needed.
+ */
+public final class JavaParseSkeletonBuilder implements JavaParseListener {
+    private final Ast.Factory factory;
+
+    private final PredefinedNames names;
+
+    /** Identifiers reported since the last declaration. */
+    private final List<Symbol> identifiers = new ArrayList<Symbol>();
+
+    private final List<Integer> identifierPositions = new ArrayList<Integer>();
+
+    /** Enclosing types, the outermost one first. */
+    private final List<TypeFrame> types = new ArrayList<TypeFrame>();
+
+    private Ast.Expression packageName;
+
+    private ImmList<Ast.Node> definitions = ImmList.nil();
+
+    /** Method or initializer declaration that is being reported. */
+    private Ast.Node member;
+
+    private Ast.CompilationUnit unit;
+
+    /**
+     * Members of the type that is being reported.
+     */
+    private static final class TypeFrame {
+        final int flags;
+        final Symbol name;
+        final int pos;
+        ImmList<Ast.Node> members = ImmList.nil();
+
+        TypeFrame(int flags, Symbol name, int pos) {
+            this.flags = flags;
+            this.name = name;
+            this.pos = pos;
+        }
+    }
+
+    public JavaParseSkeletonBuilder(Ast.Factory factory, PredefinedNames names) {
+        assert factory != null && names != null;
+        this.factory = factory;
+        this.names = names;
+    }
+
+    /**
+     * @return Compilation unit built by the last reported events, null if the events are not complete.
+     */
+    public Ast.CompilationUnit getCompilationUnit() {
+        return unit;
+    }
+
+    @Override
+    public void enterCompilationUnit() {
+        factory.setNodeCount(0);
+        identifiers.clear();
+        identifierPositions.clear();
+        types.clear();
+        packageName = null;
+        definitions = ImmList.nil();
+        member = null;
+        unit = null;
+    }
+
+    @Override
+    public void exitCompilationUnit() {
+        unit = factory.astCompilationUnit(ImmList.<Ast.Annotation>nil(), packageName, definitions);
+        unit.setPos(0);
+    }
+
+    @Override
+    public void onPackage(Symbol name, int pos, int start, int end) {
+        packageName = qualifiedName(start, end);
+    }
+
+    @Override
+    public void onImport(Symbol name, boolean staticImport, int pos, int start, int end) {
+        Ast.Expression qualifier = qualifiedName(start, end);
+        if (name == names.asterisk) {
+            qualifier = factory.astFieldAccess(qualifier, names.asterisk);
+            qualifier.setPos(end);
+        }
+        final Ast.Import node = factory.astImport(qualifier, staticImport);
+        node.setPos(pos);
+        definitions = definitions.append(node);
+    }
+
+    @Override
+    public void enterClass(int kind, int flags, Symbol name, int pos, int signatureStart, int signatureEnd) {
+        clearIdentifiers();
+        types.add(new TypeFrame(flags, name, pos));
+    }
+
+    @Override
+    public void exitClass(int endPos) {
+        final TypeFrame type = types.remove(types.size() - 1);
+        final Ast.ClassDecl node = factory.astClassDecl(modifiers(type.flags, type.pos), type.name,
+                ImmList.<Ast.TypeParameter>nil(), null, ImmList.<Ast.Expression>nil(), type.members);
+        node.setPos(type.pos);
+        addMember(node);
+    }
+
+    @Override
+    public void onEnumConstant(int flags, Symbol name, int pos) {
+        clearIdentifiers();
+        final Ast.VariableDecl node = factory.astVariableDecl(modifiers(flags, Outline.NOPOS), name,
+                factory.astIdent(types.get(types.size() - 1).name), null);
+        node.setPos(pos);
+        addMember(node);
+    }
+
+    @Override
+    public void onField(int flags, Symbol name, int pos, int typeStart, int typeEnd) {
+        clearIdentifiers();
+        final Ast.VariableDecl node = factory.astVariableDecl(modifiers(flags, Outline.NOPOS), name, null, null);
+        node.setPos(pos);
+        addMember(node);
+    }
+
+    @Override
+    public void enterMethod(int kind, int flags, Symbol name, int pos, int typeStart, int typeEnd,
+                            int signatureStart, int signatureEnd) {
+        clearIdentifiers();
+        member = factory.astMethodDecl(modifiers(flags, pos), kind == Outline.CONSTRUCTOR ? names.init : name, null,
+                ImmList.<Ast.TypeParameter>nil(), ImmList.<Ast.VariableDecl>nil(), ImmList.<Ast.Expression>nil(),
+                null, null);
+        member.setPos(pos);
+    }
+
+    @Override
+    public void exitMethod(int endPos) {
+        clearIdentifiers();
+        addMember(member);
+        member = null;
+    }
+
+    @Override
+    public void enterInitializer(int flags, int pos) {
+        clearIdentifiers();
+        member = factory.astBlock(flags, ImmList.<Ast.Statement>nil());
+        member.setPos(pos);
+    }
+
+    @Override
+    public void exitInitializer(int endPos) {
+        clearIdentifiers();
+        addMember(member);
+        member = null;
+    }
+
+    @Override
+    public void onIdentifier(Symbol name, int pos) {
+        identifiers.add(name);
+        identifierPositions.add(pos);
+    }
+
+    private void addMember(Ast.Node node) {
+        if (types.isEmpty()) {
+            definitions = definitions.append(node);
+        } else {
+            final TypeFrame type = types.get(types.size() - 1);
+            type.members = type.members.append(node);
+        }
+    }
+
+    private Ast.Modifiers modifiers(int flags, int pos) {
+        final Ast.Modifiers node = factory.astModifiers(flags);
+        node.setPos(pos);
+        return node;
+    }
+
+    // Builds the qualified name of the identifiers within the range and forgets the identifiers.
+    private Ast.Expression qualifiedName(int start, int end) {
+        Ast.Expression result = null;
+        for (int i = 0; i < identifiers.size(); ++i) {
+            final int pos = identifierPositions.get(i);
+            if (pos < start || pos >= end) {
+                continue;
+            }
+            result = result == null ? factory.astIdent(identifiers.get(i)) :
+                    factory.astFieldAccess(result, identifiers.get(i));
+            result.setPos(pos);
+        }
+        clearIdentifiers();
+        if (result == null) {
+            result = factory.astIdent(names.error);
+            result.setPos(start);
+        }
+        return result;
+    }
+
+    private void clearIdentifiers() {
+        identifiers.clear();
+        identifierPositions.clear();
+    }
+}
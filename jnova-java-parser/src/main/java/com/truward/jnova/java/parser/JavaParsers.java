@@ -0,0 +1,190 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.code.PredefinedNames;
+import com.truward.jnova.java.parser.impl.LexerImpl;
+import com.truward.jnova.java.parser.impl.ParserBundle;
+import com.truward.jnova.java.parser.impl.ParserImpl;
+import com.truward.jnova.java.source.Keywords;
+import com.truward.jnova.java.source.Source;
+import com.truward.jnova.util.diagnostics.DiagnosticsLog;
+import com.truward.jnova.util.diagnostics.support.DefaultDiagnosticsLog;
+import com.truward.jnova.util.naming.StringPool;
+import com.truward.jnova.util.naming.SymbolTable;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+
+/**
+ * Creates lexers and parsers without injection context, e.g.
+ * <pre>
+ * final Parser parser = JavaParsers.builder().sourceVersion(Source.JDK1_6).diagnostics(log).build();
+ * parser.reset(source);
+ * final Ast.CompilationUnit unit = parser.parseCompilationUnit();
+ * </pre>
+ */
+public final class JavaParsers {
+    private JavaParsers() {} // Hidden ctor
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Parser builder, the dependencies that are not set explicitly are created with their defaults.
+     */
+    public static final class Builder {
+        private SymbolTable symbolTable;
+
+        private Source sourceVersion = Source.DEFAULT;
+
+        private DiagnosticsLog diagnostics;
+
+        private ParserBundle bundle;
+
+        private boolean lazyBodies;
+
+        private StringPool stringPool;
+
+        private boolean docComments = true;
+
+        private boolean endPositions;
+
+        private boolean updateInPlace;
+
+        private Builder() {}
+
+        public Builder symbolTable(SymbolTable symbolTable) {
+            assert symbolTable != null;
+            this.symbolTable = symbolTable;
+            return this;
+        }
+
+        public Builder sourceVersion(Source sourceVersion) {
+            assert sourceVersion != null;
+            this.sourceVersion = sourceVersion;
+            return this;
+        }
+
+        public Builder diagnostics(DiagnosticsLog diagnostics) {
+            assert diagnostics != null;
+            this.diagnostics = diagnostics;
+            return this;
+        }
+
+        /**
+         * @param bundle Parser messages, bundle is safe to be shared between the parsers used in different threads.
+         * @return This builder.
+         */
+        public Builder bundle(ParserBundle bundle) {
+            assert bundle != null;
+            this.bundle = bundle;
+            return this;
+        }
+
+        /**
+         * @param lazyBodies True, if method and initializer bodies should be parsed on first access.
+         * @return This builder.
+         * @see Parser#setLazyBodies(boolean)
+         */
+        public Builder lazyBodies(boolean lazyBodies) {
+            this.lazyBodies = lazyBodies;
+            return this;
+        }
+
+        /**
+         * @param stringPool Pool of the string literal values, so that the repeated literals share one string.
+         *                   Pool is not thread-safe, it should be shared only between the parsers used by one thread.
+         * @return This builder.
+         */
+        public Builder stringPool(StringPool stringPool) {
+            assert stringPool != null;
+            this.stringPool = stringPool;
+            return this;
+        }
+
+        /**
+         * @param docComments False, if the doc comments are not needed, so that the lexer skips them as the regular
+         *                    block comments and the deprecated tags are not recognized. True by default.
+         * @return This builder.
+         * @see com.truward.jnova.java.ast.Ast.CompilationUnit#getDocComments()
+         */
+        public Builder docComments(boolean docComments) {
+            this.docComments = docComments;
+            return this;
+        }
+
+        /**
+         * @param endPositions True, if the end positions of the nodes should be stored. False by default.
+         * @return This builder.
+         * @see Parser#setEndPositions(boolean)
+         */
+        public Builder endPositions(boolean endPositions) {
+            this.endPositions = endPositions;
+            return this;
+        }
+
+        /**
+         * @param updateInPlace True, if the incremental parsing can update the previous compilation unit in place.
+         *                      False by default.
+         * @return This builder.
+         * @see Parser#setUpdateInPlace(boolean)
+         */
+        public Builder updateInPlace(boolean updateInPlace) {
+            this.updateInPlace = updateInPlace;
+            return this;
+        }
+
+        /**
+         * @return New lexer.
+         */
+        public Lexer buildLexer() {
+            fillDefaults();
+            return newLexer(new PredefinedNames(symbolTable));
+        }
+
+        /**
+         * @return New parser with its own lexer.
+         */
+        public Parser build() {
+            fillDefaults();
+            final PredefinedNames names = new PredefinedNames(symbolTable);
+            final Parser parser = new ParserImpl(newLexer(names), diagnostics, bundle, names, sourceVersion);
+            parser.setLazyBodies(lazyBodies);
+            parser.setEndPositions(endPositions);
+            parser.setUpdateInPlace(updateInPlace);
+            return parser;
+        }
+
+        private Lexer newLexer(PredefinedNames names) {
+            final LexerImpl lexer = new LexerImpl(diagnostics, bundle, sourceVersion, names,
+                    new Keywords(symbolTable), symbolTable);
+            lexer.setStringPool(stringPool);
+            lexer.setDocComments(docComments);
+            return lexer;
+        }
+
+        private void fillDefaults() {
+            if (symbolTable == null) {
+                symbolTable = new HashSymbolTable();
+            }
+            if (diagnostics == null) {
+                diagnostics = new DefaultDiagnosticsLog();
+            }
+            if (bundle == null) {
+                bundle = new ParserBundle();
+            }
+        }
+    }
+}
@@ -14,6 +14,7 @@
 
 package com.truward.jnova.java.parser;
 
+import com.truward.jnova.util.diagnostics.DiagnosticsLog;
 import com.truward.jnova.util.naming.Symbol;
 
 /**
@@ -21,13 +22,42 @@ import com.truward.jnova.util.naming.Symbol;
  */
 public interface Lexer {
     /**
-     * Sets source to parse.
+     * Sets source to parse, state left from the previous source (current token, positions and the last
+     * error position) is reset, so that the lexer instance can be reused for any count of sources.
+     * Input array is used as is if it has a spare element after the given length, otherwise it is copied.
      *
      * @param input Input char array.
      * @param inputLength Length of input.
      */
     void setSource(char[] input, int inputLength);
 
+    /**
+     * Creates new lexer with the same configuration and input as this one. The new lexer is positioned at the given
+     * offset of the input and scans it independently from this lexer, the first token is read by {@link #nextToken()}.
+     *
+     * @param pos Offset to start scanning from, should be a token boundary.
+     * @return New lexer.
+     */
+    Lexer copyAt(int pos);
+
+    /**
+     * Same as {@link #copyAt(int)}, but the new lexer reports lexical errors to the given log.
+     * Lexers that replay tokens scanned before report nothing, so that the log is not used.
+     *
+     * @param pos Offset to start scanning from, should be a token boundary.
+     * @param log Log for the lexical errors of the new lexer.
+     * @return New lexer.
+     */
+    Lexer copyAt(int pos, DiagnosticsLog log);
+
+    /**
+     * Disables reporting of the lexical errors, the erroneous tokens are still returned as {@link Token#ERROR}.
+     * Used to skip the source that is scanned again later, e.g. a lazy body.
+     *
+     * @param quiet True, if the lexical errors should not be reported.
+     */
+    void setQuiet(boolean quiet);
+
     /**
      * The value of a literal token, recorded as a string.
      * For integers, leading 0x and 'l' suffixes are suppressed.
@@ -36,6 +66,24 @@ public interface Lexer {
      */
     String stringVal();
 
+    /**
+     * The value of a literal token as a view of the lexer's buffer, unlike {@link #stringVal()} it does not create
+     * the string. The view is valid until the next token is read.
+     *
+     * @return Value of a literal token.
+     */
+    CharSequence literalVal();
+
+    /**
+     * The value of an integer or long literal token, converted from the digits of {@link #stringVal()}
+     * in the radix of the token without creating the string.
+     *
+     * @param negative Whether the literal follows unary minus, so that the most negative value fits.
+     * @return Value of the literal, negated if requested.
+     * @throws NumberFormatException If the value does not fit into the type of the literal.
+     */
+    long integralVal(boolean negative);
+
     /**
      * Reads token.
      */
@@ -51,10 +99,17 @@ public interface Lexer {
     /**
      * Gets previous end position.
      *
-     * @return The last character position of the previous token.
+     * @return The position following the last character of the previous token.
      */
     int prevEndPos();
 
+    /**
+     * Gets end position of the current token.
+     *
+     * @return The position following the last character of the current token.
+     */
+    int endPos();
+
     /**
      * Gets current token postion.
      *
@@ -97,11 +152,24 @@ public interface Lexer {
     int radix();
 
     /**
-     * Returns the documentation string of the current token.
+     * Returns the documentation string of the current token, the text is extracted on each call.
      * @return Documentation string or null.
      */
     String docComment();
 
+    /**
+     * Gets start of the last doc comment that precedes the current token.
+     *
+     * @return Position of the opening slash or {@link com.truward.jnova.java.source.Position#NOPOS} if the current
+     *         token has no doc comment or the doc comments are not recorded.
+     */
+    int docCommentPos();
+
+    /**
+     * @return Position following the closing slash of the doc comment, see {@link #docCommentPos()}.
+     */
+    int docCommentEndPos();
+
     /**
      * Tests whether the lexer has been encountered deprecated in last doc comment.
      * This needs to be reset by client with resetDeprecatedFlag.
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.util.naming.Symbol;
+
+/**
+ * Flat outline of the compilation unit: package, imports, types and their members in the source order.
+ * Entries are kept in the parallel arrays and addressed by index, nested entries refer to the index of
+ * the enclosing type. Types and signatures are not parsed, they are kept as source ranges, positions
+ * are 0-based offsets, end positions are exclusive.
+ */
+public final class Outline {
+    public static final int PACKAGE = 0;
+    public static final int IMPORT = 1;
+    public static final int CLASS = 2;
+    public static final int INTERFACE = 3;
+    public static final int ENUM = 4;
+    public static final int ANNOTATION_TYPE = 5;
+    public static final int ENUM_CONSTANT = 6;
+    public static final int FIELD = 7;
+    public static final int METHOD = 8;
+    public static final int CONSTRUCTOR = 9;
+    public static final int INITIALIZER = 10;
+
+    /** Position that is not known or not applicable. */
+    public static final int NOPOS = -1;
+
+    // entry layout in the data array
+    private static final int KIND = 0;
+    private static final int FLAGS = 1;
+    private static final int PARENT = 2;
+    private static final int POS = 3;
+    private static final int TYPE_START = 4;
+    private static final int TYPE_END = 5;
+    private static final int SIGNATURE_START = 6;
+    private static final int SIGNATURE_END = 7;
+    private static final int ENTRY_SIZE = 8;
+
+    private final char[] buffer;
+
+    private final int size;
+
+    private final int[] data;
+
+    private final Symbol[] names;
+
+    private Outline(char[] buffer, int size, int[] data, Symbol[] names) {
+        this.buffer = buffer;
+        this.size = size;
+        this.data = data;
+        this.names = names;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index Entry index.
+     * @return Entry kind, one of the constants of this class.
+     */
+    public int getKind(int index) {
+        return get(index, KIND);
+    }
+
+    /**
+     * @param index Entry index.
+     * @return Modifier flags, see {@link com.truward.jnova.java.code.Flags}; static imports have STATIC flag.
+     */
+    public int getFlags(int index) {
+        return get(index, FLAGS);
+    }
+
+    /**
+     * @param index Entry index.
+     * @return Index of the enclosing type or -1 for the top level entries.
+     */
+    public int getParent(int index) {
+        return get(index, PARENT);
+    }
+
+    /**
+     * @param index Entry index.
+     * @return Declaration name, for the package and imports - the last identifier of the qualified name,
+     * null for the initializers.
+     */
+    public Symbol getName(int index) {
+        assert index >= 0 && index < size;
+        return names[index];
+    }
+
+    /**
+     * @param index Entry index.
+     * @return Position of the declaration, for the fields and enum constants - position of the name,
+     * for the others - start of the declaration including its modifiers.
+     */
+    public int getPos(int index) {
+        return get(index, POS);
+    }
+
+    /**
+     * @param index Entry index.
+     * @return Start of the field type or method return type.
+     */
+    public int getTypeStart(int index) {
+        return get(index, TYPE_START);
+    }
+
+    public int getTypeEnd(int index) {
+        return get(index, TYPE_END);
+    }
+
+    /**
+     * @param index Entry index.
+     * @return Start of the signature: qualified name of the package or import, type parameters and supertypes of
+     * the type, parameters and thrown exceptions of the method.
+     */
+    public int getSignatureStart(int index) {
+        return get(index, SIGNATURE_START);
+    }
+
+    public int getSignatureEnd(int index) {
+        return get(index, SIGNATURE_END);
+    }
+
+    /**
+     * @param index Entry index.
+     * @return Source text of the type or null if the entry has no type.
+     */
+    public String getTypeText(int index) {
+        return getText(getTypeStart(index), getTypeEnd(index));
+    }
+
+    /**
+     * @param index Entry index.
+     * @return Source text of the signature or null if the entry has no signature.
+     */
+    public String getSignatureText(int index) {
+        return getText(getSignatureStart(index), getSignatureEnd(index));
+    }
+
+    private String getText(int start, int end) {
+        if (start == NOPOS) {
+            return null;
+        }
+        return new String(buffer, start, end - start);
+    }
+
+    private int get(int index, int field) {
+        assert index >= 0 && index < size;
+        return data[index * ENTRY_SIZE + field];
+    }
+
+
+    /**
+     * Accumulates outline entries.
+     */
+    public static final class Builder {
+        private final char[] buffer;
+
+        private int size = 0;
+
+        private int[] data = new int[64 * ENTRY_SIZE];
+
+        private Symbol[] names = new Symbol[64];
+
+        /**
+         * @param buffer Source buffer the positions refer to.
+         */
+        public Builder(char[] buffer) {
+            assert buffer != null;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Adds new entry, ranges that are not applicable are given as {@link #NOPOS}.
+         *
+         * @return Index of the added entry.
+         */
+        public int add(int kind, int flags, int parent, Symbol name, int pos,
+                       int typeStart, int typeEnd, int signatureStart, int signatureEnd) {
+            if (size == names.length) {
+                final int[] newData = new int[data.length * 2];
+                System.arraycopy(data, 0, newData, 0, data.length);
+                data = newData;
+
+                final Symbol[] newNames = new Symbol[names.length * 2];
+                System.arraycopy(names, 0, newNames, 0, names.length);
+                names = newNames;
+            }
+
+            final int offset = size * ENTRY_SIZE;
+            data[offset + KIND] = kind;
+            data[offset + FLAGS] = flags;
+            data[offset + PARENT] = parent;
+            data[offset + POS] = pos;
+            data[offset + TYPE_START] = typeStart;
+            data[offset + TYPE_END] = typeEnd;
+            data[offset + SIGNATURE_START] = signatureStart;
+            data[offset + SIGNATURE_END] = signatureEnd;
+            names[size] = name;
+            return size++;
+        }
+
+        public Outline build() {
+            return new Outline(buffer, size, data, names);
+        }
+    }
+}
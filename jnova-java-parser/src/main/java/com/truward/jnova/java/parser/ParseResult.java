@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.util.diagnostics.Diagnostic;
+import com.truward.jnova.util.diagnostics.formatter.DiagnosticsSeverity;
+import com.truward.jnova.util.source.Source;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of parsing a single source by {@link ParsingService}.
+ */
+public final class ParseResult {
+    private final Source source;
+
+    private final Ast.CompilationUnit compilationUnit;
+
+    private final List<Diagnostic> diagnostics;
+
+    private final RuntimeException failure;
+
+    public ParseResult(Source source, Ast.CompilationUnit compilationUnit, List<Diagnostic> diagnostics,
+                       RuntimeException failure) {
+        assert source != null && diagnostics != null;
+
+        this.source = source;
+        this.compilationUnit = compilationUnit;
+        this.diagnostics = Collections.unmodifiableList(diagnostics);
+        this.failure = failure;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * @return Parsed compilation unit or null if parsing has been aborted.
+     */
+    public Ast.CompilationUnit getCompilationUnit() {
+        return compilationUnit;
+    }
+
+    /**
+     * @return Diagnostics reported while parsing this source.
+     */
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * @return Exception that aborted parsing, e.g.
+     * {@link com.truward.jnova.util.diagnostics.DiagnosticsLimitExceededException}, or null.
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    public boolean hasErrors() {
+        if (failure != null) {
+            return true;
+        }
+
+        for (final Diagnostic diagnostic : diagnostics) {
+            if (diagnostic.getSeverity() == DiagnosticsSeverity.ERROR) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "ParseResult{" + source.getSourceName() + ", diagnostics=" + diagnostics.size() +
+                (failure != null ? ", failure=" + failure : "") + '}';
+    }
+}
@@ -15,14 +15,116 @@
 package com.truward.jnova.java.parser;
 
 import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.util.source.Source;
 
 /**
  * Represents interface to the parser class.
  */
 public interface Parser {
 
+    /**
+     * Prepares parser for parsing the new source: associates the source with the lexer and the diagnostics log
+     * and discards the state left from the previously parsed source, including error recovery positions.
+     * Warm parser can be reset any count of times, no per-source setup objects are allocated
+     * if the source buffer has a spare character for the lexer's end of input marker,
+     * see {@link Source#setOverflowSize(int)}.
+     *
+     * @param source Source to parse.
+     */
+    void reset(Source source);
+
+    /**
+     * Prepares parser for parsing the source from the tokens scanned in advance, see {@link TokenBuffer}.
+     * Lexical errors are not reported again, they have been reported when the tokens were scanned.
+     *
+     * @param source Source the tokens were scanned from.
+     * @param tokens Tokens of the source.
+     */
+    void reset(Source source, TokenBuffer tokens);
+
+    /**
+     * Enables lazy mode: bodies of methods and initializers are skipped by brace matching and parsed
+     * on the first call to {@link Ast.Block#getStatements()}. Lazy bodies keep the source buffer and add
+     * their diagnostics, lexical ones included, to {@link Ast.CompilationUnit#getBodyDiagnostics()} instead
+     * of the log of this parser. Bodies of one unit might be parsed from the different threads, but
+     * the tables of the unit should not be read while a body is being parsed.
+     * Lazy mode requires source to be set with {@link #reset(Source)}.
+     *
+     * @param lazyBodies True, if method and initializer bodies should be parsed lazily.
+     */
+    void setLazyBodies(boolean lazyBodies);
+
+    /**
+     * Enables storing of the end positions of the nodes to the table of the compilation unit,
+     * see {@link Ast.CompilationUnit#getEndPositions()}. End positions are not stored by default.
+     * End positions require source to be set with {@link #reset(Source)} or {@link #reset(Source, TokenBuffer)}.
+     *
+     * @param endPositions True, if the end positions should be stored.
+     */
+    void setEndPositions(boolean endPositions);
+
+    /**
+     * Allows {@link #parseCompilationUnit(Ast.CompilationUnit, int, int, int)} to reuse the previous compilation
+     * unit by updating it in place: statements of the edited block are replaced, positions of the following nodes
+     * are shifted and the ids of the replaced nodes are given to the new ones, so that the tables of the unit
+     * do not grow with the edits. The attributes of the replaced nodes should be dropped from the tables of
+     * the caller, see {@link Ast.CompilationUnit#getFreeIds()}. Disabled by default, so that the previous unit
+     * is never changed and the whole source is parsed.
+     *
+     * @param updateInPlace True, if the previous compilation unit can be updated in place.
+     */
+    void setUpdateInPlace(boolean updateInPlace);
+
+    /**
+     * Parses declaration outline from the current source, only the declaration headers are parsed,
+     * see {@link #parse(JavaParseListener)}.
+     * Outline requires source to be set with {@link #reset(Source)}.
+     *
+     * @return Outline of the compilation unit.
+     */
+    Outline parseOutline();
+
+    /**
+     * Reports declarations and identifiers of the current source to the listener, see {@link JavaParseListener}.
+     * Events are reported by the same grammar that builds the tree. Method bodies, initializer blocks, field
+     * initializers and the arguments of the annotations and enum constants are skipped token by token, so that
+     * no nodes are built for them. Nodes of the declaration headers are still built and dropped: modifiers,
+     * annotation names, types, type parameters, formal parameters and the declarations themselves.
+     * Use {@link JavaParseSkeletonBuilder} to build the declaration skeletons from the events.
+     *
+     * @param listener Listener to be notified.
+     */
+    void parse(JavaParseListener listener);
+
     // TODO: remove, introduced for temporary test purposes.
     Ast.Node parseTest();
 
+    /**
+     * Parses compilation unit from the current lexer source.
+     * Parsing is aborted with {@link com.truward.jnova.util.diagnostics.DiagnosticsLimitExceededException}
+     * if the diagnostics log in use limits the count of errors.
+     *
+     * @return Parsed compilation unit.
+     */
     Ast.CompilationUnit parseCompilationUnit();
+
+    /**
+     * Parses compilation unit from the current source which is the previously parsed one edited by replacing
+     * <code>deletedLength</code> chars at the <code>offset</code> with <code>insertedLength</code> chars.
+     * If updating in place is enabled, see {@link #setUpdateInPlace(boolean)}, only the innermost block that
+     * encloses the edit is parsed again, the other nodes of the previous tree are reused and their positions are
+     * shifted, so that the result is the same as the whole source parsed again.
+     * Diagnostics are reported for the parsed block only.
+     * Whole source is parsed if updating in place is disabled, if the edit is not enclosed by a block, if the braces
+     * of the enclosing blocks do not match anymore, if the edited block has errors or if lazy bodies are enabled.
+     *
+     * @param previous          Compilation unit parsed from the source before the edit with the lazy bodies
+     *                          disabled, it is updated in place when it is reused.
+     * @param offset            Offset of the edit.
+     * @param deletedLength     Count of chars removed from the previous source at the offset.
+     * @param insertedLength    Count of chars inserted to the current source at the offset.
+     * @return Updated previous compilation unit or the new one.
+     */
+    Ast.CompilationUnit parseCompilationUnit(Ast.CompilationUnit previous, int offset, int deletedLength,
+                                             int insertedLength);
 }
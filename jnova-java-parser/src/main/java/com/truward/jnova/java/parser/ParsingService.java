@@ -0,0 +1,34 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.util.source.Source;
+
+import java.util.List;
+
+/**
+ * Parses many sources at once.
+ */
+public interface ParsingService {
+
+    /**
+     * Parses the given sources, each source is parsed independently from the others.
+     * Source buffers are modified by the lexer, so the same source should not be parsed concurrently.
+     *
+     * @param sources Sources to parse.
+     * @return Parse results in the order of the given sources.
+     */
+    List<ParseResult> parse(List<? extends Source> sources);
+}
@@ -0,0 +1,743 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.source.Position;
+import com.truward.jnova.util.naming.Symbol;
+import com.truward.jnova.util.naming.SymbolTable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Tokens of the source scanned once and kept in the parallel primitive arrays, the last token is always
+ * {@link Token#EOF}. Buffer is immutable and may be shared between threads, cached by the content hash of the
+ * source or serialized with {@link #writeTo(DataOutput)}.
+ * Lexical errors are reported once, to the log of the lexer that scans the buffer.
+ */
+public final class TokenBuffer {
+    private static final int FORMAT_VERSION = 2;
+
+    private static final Token[] TOKENS = Token.values();
+
+    /** Identifier and keyword tokens, lexer sets the name for these ones. */
+    private static final boolean[] NAMED = new boolean[TOKENS.length];
+
+    static {
+        for (final Token token : TOKENS) {
+            NAMED[token.ordinal()] = token == Token.IDENTIFIER ||
+                    (token.getName() != null && Character.isJavaIdentifierStart(token.getName().charAt(0)));
+        }
+    }
+
+    // flags layout
+    private static final int RADIX_MASK = 3;
+    private static final int DEPRECATED = 4;
+    private static final int ERROR = 8;
+    private static final int DOC_COMMENT = 16;
+
+    private static final int[] RADIXES = { 0, 8, 10, 16 };
+
+    private final long contentHash;
+
+    private final int size;
+
+    private final byte[] tokens;
+
+    private final int[] starts;
+
+    private final int[] ends;
+
+    /** Index of the token name in {@link #symbols}, -1 if token has no name. */
+    private final int[] names;
+
+    private final Symbol[] symbols;
+
+    /** Values of the literal tokens, null for the other ones. */
+    private final String[] literals;
+
+    private final byte[] flags;
+
+    /** Token indexes and positions of the lexical errors, ordered by the token index. */
+    private final int[] errorTokens;
+
+    private final int[] errorPositions;
+
+    /** Token indexes and ranges of the doc comments preceding the tokens, ordered by the token index. */
+    private final int[] docTokens;
+
+    private final int[] docStarts;
+
+    private final int[] docEnds;
+
+    private TokenBuffer(long contentHash, int size, byte[] tokens, int[] starts, int[] ends, int[] names,
+                        Symbol[] symbols, String[] literals, byte[] flags, int[] errorTokens, int[] errorPositions,
+                        int[] docTokens, int[] docStarts, int[] docEnds) {
+        this.contentHash = contentHash;
+        this.size = size;
+        this.tokens = tokens;
+        this.starts = starts;
+        this.ends = ends;
+        this.names = names;
+        this.symbols = symbols;
+        this.literals = literals;
+        this.flags = flags;
+        this.errorTokens = errorTokens;
+        this.errorPositions = errorPositions;
+        this.docTokens = docTokens;
+        this.docStarts = docStarts;
+        this.docEnds = docEnds;
+    }
+
+    /**
+     * Scans all the tokens of the input.
+     *
+     * @param lexer         Lexer to scan with, its source is replaced by the given input.
+     * @param input         Input char array.
+     * @param inputLength   Length of input.
+     * @return New token buffer.
+     */
+    public static TokenBuffer scan(Lexer lexer, char[] input, int inputLength) {
+        final long contentHash = contentHash(input, inputLength);
+        lexer.setSource(input, inputLength);
+
+        // roughly one token per 5 chars of the regular source
+        final Appender appender = new Appender(Math.max(16, inputLength / 5), new Symbol[64], 0);
+        Token token;
+        do {
+            token = appender.scan(lexer);
+        } while (token != Token.EOF);
+        return appender.build(contentHash);
+    }
+
+    /**
+     * Scans tokens of the edited source again from the first token affected by the edit until the token stream
+     * resynchronizes with the tokens of this buffer, the following tokens are copied with the shifted positions.
+     * Scanning restarts from the end of the token preceding the edit, so that edits within comments and literals
+     * or the ones that open a comment or a literal are handled as by the full scan.
+     *
+     * @param lexer             Lexer to scan with, its source is replaced by the given input.
+     * @param input             Edited input char array.
+     * @param inputLength       Length of the edited input.
+     * @param offset            Offset of the edit.
+     * @param deletedLength     Count of chars removed from the source of this buffer at the offset.
+     * @param insertedLength    Count of chars inserted to the input at the offset.
+     * @return New token buffer, the same as {@link #scan(Lexer, char[], int)} returns for the edited input.
+     */
+    public TokenBuffer edit(Lexer lexer, char[] input, int inputLength, int offset, int deletedLength,
+                            int insertedLength) {
+        assert offset >= 0 && deletedLength >= 0 && insertedLength >= 0 && offset + insertedLength <= inputLength;
+        final int shift = insertedLength - deletedLength;
+        final int editEnd = offset + insertedLength;
+
+        // first token that ends at or after the edit, it is preceded by the gap the scanning restarts from
+        int first = 0;
+        int high = size - 1;
+        while (first < high) {
+            final int mid = (first + high) >>> 1;
+            if (ends[mid] < offset) {
+                first = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        // positions of the tokens next to the unicode escapes point to the last char of the escape
+        while (first > 0 && escapeStart(input, inputLength, ends[first - 1]) != ends[first - 1]) {
+            --first;
+        }
+
+        final Appender appender = new Appender(size + 16, symbols, symbols.length);
+        appender.copy(this, 0, first, 0);
+
+        lexer.setSource(input, inputLength);
+        final Lexer scanner = lexer.copyAt(first > 0 ? ends[first - 1] : 0);
+        for (;;) {
+            final Token token = appender.scan(scanner);
+            if (token == Token.EOF) {
+                break;
+            }
+
+            final int pos = appender.starts[appender.size - 1];
+            if (pos >= editEnd && escapeStart(input, inputLength, pos) >= editEnd) {
+                // text past the edit is not changed, so the tokens that start at the same place are the same
+                final int index = indexAt(pos - shift);
+                if (starts[index] == pos - shift && tokens[index] == token.ordinal()) {
+                    appender.ends[appender.size - 1] = ends[index] + shift;
+                    appender.copy(this, index + 1, size - index - 1, shift);
+                    break;
+                }
+            }
+        }
+
+        return appender.build(contentHash(input, inputLength));
+    }
+
+    /**
+     * Computes 64-bit hash of the input: four interleaved FNV-1a lanes, so that the lanes are computed
+     * in parallel by the CPU, combined with the length.
+     *
+     * @param input         Input char array.
+     * @param inputLength   Length of input.
+     * @return Content hash.
+     */
+    public static long contentHash(char[] input, int inputLength) {
+        final long prime = 0x100000001b3L;
+        long h0 = 0xcbf29ce484222325L;
+        long h1 = h0 + 1;
+        long h2 = h0 + 2;
+        long h3 = h0 + 3;
+        int i = 0;
+        for (final int last = inputLength - 3; i < last; i += 4) {
+            h0 = (h0 ^ input[i]) * prime;
+            h1 = (h1 ^ input[i + 1]) * prime;
+            h2 = (h2 ^ input[i + 2]) * prime;
+            h3 = (h3 ^ input[i + 3]) * prime;
+        }
+        for (; i < inputLength; ++i) {
+            h0 = (h0 ^ input[i]) * prime;
+        }
+        return ((((h0 * prime) ^ h1) * prime ^ h2) * prime ^ h3) * prime ^ inputLength;
+    }
+
+    /**
+     * @return Hash of the scanned source, see {@link #contentHash(char[], int)}.
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * @return Count of tokens, including the trailing {@link Token#EOF}.
+     */
+    public int size() {
+        return size;
+    }
+
+    public Token getToken(int index) {
+        assert index >= 0 && index < size;
+        return TOKENS[tokens[index]];
+    }
+
+    /**
+     * @param index Token index.
+     * @return Start position of the token.
+     */
+    public int getPos(int index) {
+        assert index >= 0 && index < size;
+        return starts[index];
+    }
+
+    /**
+     * @param index Token index.
+     * @return Position just after the last character of the token.
+     */
+    public int getEndPos(int index) {
+        assert index >= 0 && index < size;
+        return ends[index];
+    }
+
+    /**
+     * @param index Token index.
+     * @return Name of the identifier or keyword, null for the other tokens.
+     */
+    public Symbol getName(int index) {
+        assert index >= 0 && index < size;
+        final int name = names[index];
+        return name < 0 ? null : symbols[name];
+    }
+
+    /**
+     * @param index Token index.
+     * @return Value of the literal token as returned by {@link Lexer#stringVal()}, null for the other tokens.
+     */
+    public String getLiteral(int index) {
+        assert index >= 0 && index < size;
+        return literals[index];
+    }
+
+    /**
+     * @param index Token index.
+     * @return Radix of the numeric literal token, 0 for the other tokens.
+     */
+    public int getRadix(int index) {
+        assert index >= 0 && index < size;
+        return RADIXES[flags[index] & RADIX_MASK];
+    }
+
+    /**
+     * @param index Token index.
+     * @return True, if the doc comment preceding the token has a deprecated tag.
+     */
+    public boolean isDeprecated(int index) {
+        assert index >= 0 && index < size;
+        return (flags[index] & DEPRECATED) != 0;
+    }
+
+    /**
+     * @param index Token index.
+     * @return Position of the lexical error reported while scanning the token or {@link Position#NOPOS}.
+     */
+    public int getErrPos(int index) {
+        assert index >= 0 && index < size;
+        if ((flags[index] & ERROR) == 0) {
+            return Position.NOPOS;
+        }
+
+        int low = 0;
+        int high = errorTokens.length - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (errorTokens[mid] < index) {
+                low = mid + 1;
+            } else if (errorTokens[mid] > index) {
+                high = mid - 1;
+            } else {
+                return errorPositions[mid];
+            }
+        }
+        return Position.NOPOS;
+    }
+
+    /**
+     * @param index Token index.
+     * @return Start of the doc comment preceding the token as returned by {@link Lexer#docCommentPos()}.
+     */
+    public int getDocCommentPos(int index) {
+        final int doc = docIndex(index);
+        return doc < 0 ? Position.NOPOS : docStarts[doc];
+    }
+
+    /**
+     * @param index Token index.
+     * @return End of the doc comment preceding the token as returned by {@link Lexer#docCommentEndPos()}.
+     */
+    public int getDocCommentEndPos(int index) {
+        final int doc = docIndex(index);
+        return doc < 0 ? Position.NOPOS : docEnds[doc];
+    }
+
+    private int docIndex(int index) {
+        assert index >= 0 && index < size;
+        if ((flags[index] & DOC_COMMENT) == 0) {
+            return -1;
+        }
+        return Arrays.binarySearch(docTokens, index);
+    }
+
+    /**
+     * @param pos Source position.
+     * @return Index of the first token that starts at or after the given position.
+     */
+    public int indexAt(int pos) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (starts[mid] < pos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Writes the buffer in the binary form, symbols are written as text.
+     *
+     * @param out Output.
+     * @throws IOException On I/O error.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(contentHash);
+
+        out.writeInt(symbols.length);
+        char[] chars = new char[64];
+        for (final Symbol symbol : symbols) {
+            if (chars.length < symbol.getUtfLength()) {
+                chars = new char[symbol.getUtfLength()];
+            }
+            final int length = symbol.writeChars(chars, 0);
+            out.writeInt(length);
+            for (int i = 0; i < length; ++i) {
+                out.writeChar(chars[i]);
+            }
+        }
+
+        out.writeInt(size);
+        for (int i = 0; i < size; ++i) {
+            out.writeByte(tokens[i]);
+            out.writeInt(starts[i]);
+            out.writeInt(ends[i]);
+            out.writeInt(names[i]);
+            out.writeByte(flags[i]);
+            if (literals[i] != null) {
+                out.writeInt(literals[i].length());
+                out.writeChars(literals[i]);
+            }
+        }
+
+        out.writeInt(errorTokens.length);
+        for (int i = 0; i < errorTokens.length; ++i) {
+            out.writeInt(errorTokens[i]);
+            out.writeInt(errorPositions[i]);
+        }
+
+        out.writeInt(docTokens.length);
+        for (int i = 0; i < docTokens.length; ++i) {
+            out.writeInt(docTokens[i]);
+            out.writeInt(docStarts[i]);
+            out.writeInt(docEnds[i]);
+        }
+    }
+
+    /**
+     * Reads the buffer written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in            Input.
+     * @param symbolTable   Symbol table the token names are registered in.
+     * @return New token buffer.
+     * @throws IOException On I/O error or if the input is not a token buffer of the supported format.
+     */
+    public static TokenBuffer readFrom(DataInput in, SymbolTable symbolTable) throws IOException {
+        final int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported token buffer format version: " + version);
+        }
+        final long contentHash = in.readLong();
+
+        final Symbol[] symbols = new Symbol[in.readInt()];
+        char[] chars = new char[64];
+        for (int i = 0; i < symbols.length; ++i) {
+            final int length = in.readInt();
+            if (chars.length < length) {
+                chars = new char[length];
+            }
+            for (int j = 0; j < length; ++j) {
+                chars[j] = in.readChar();
+            }
+            symbols[i] = symbolTable.fromChars(chars, 0, length);
+        }
+
+        final int size = in.readInt();
+        final byte[] tokens = new byte[size];
+        final int[] starts = new int[size];
+        final int[] ends = new int[size];
+        final int[] names = new int[size];
+        final String[] literals = new String[size];
+        final byte[] flags = new byte[size];
+        for (int i = 0; i < size; ++i) {
+            tokens[i] = in.readByte();
+            starts[i] = in.readInt();
+            ends[i] = in.readInt();
+            names[i] = in.readInt();
+            flags[i] = in.readByte();
+            if (isLiteral(TOKENS[tokens[i]])) {
+                final char[] literal = new char[in.readInt()];
+                for (int j = 0; j < literal.length; ++j) {
+                    literal[j] = in.readChar();
+                }
+                literals[i] = new String(literal);
+            }
+        }
+
+        final int[] errorTokens = new int[in.readInt()];
+        final int[] errorPositions = new int[errorTokens.length];
+        for (int i = 0; i < errorTokens.length; ++i) {
+            errorTokens[i] = in.readInt();
+            errorPositions[i] = in.readInt();
+        }
+
+        final int[] docTokens = new int[in.readInt()];
+        final int[] docStarts = new int[docTokens.length];
+        final int[] docEnds = new int[docTokens.length];
+        for (int i = 0; i < docTokens.length; ++i) {
+            docTokens[i] = in.readInt();
+            docStarts[i] = in.readInt();
+            docEnds[i] = in.readInt();
+        }
+
+        return new TokenBuffer(contentHash, size, tokens, starts, ends, names, symbols, literals, flags,
+                errorTokens, errorPositions, docTokens, docStarts, docEnds);
+    }
+
+    /**
+     * Conservatively finds the unicode escape the given position belongs to.
+     *
+     * @param input       Input char array, the chars past the input length are not a part of the input.
+     * @param inputLength Length of input.
+     * @param pos         Position in the input.
+     * @return Position of the backslash of the unicode escape or the given position if it is not within one.
+     */
+    private static int escapeStart(char[] input, int inputLength, int pos) {
+        if (pos >= inputLength) {
+            return pos;
+        }
+        int i = pos;
+        while (i >= 0 && i > pos - 4 && Character.digit(input[i], 16) >= 0) {
+            --i;
+        }
+        if (i == pos || i < 0 || input[i] != 'u') {
+            return pos;
+        }
+        while (i >= 0 && input[i] == 'u') {
+            --i;
+        }
+        return i >= 0 && input[i] == '\\' ? i : pos;
+    }
+
+    private static boolean isLiteral(Token token) {
+        switch (token) {
+            case INTLITERAL:
+            case LONGLITERAL:
+            case FLOATLITERAL:
+            case DOUBLELITERAL:
+            case CHARLITERAL:
+            case STRINGLITERAL:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    private static int radixCode(int radix) {
+        switch (radix) {
+            case 8: return 1;
+            case 10: return 2;
+            case 16: return 3;
+            default: return 0;
+        }
+    }
+
+    /**
+     * Growing token arrays of the buffer being built.
+     */
+    private static final class Appender {
+        int size;
+
+        byte[] tokens;
+
+        int[] starts;
+
+        int[] ends;
+
+        int[] names;
+
+        String[] literals;
+
+        byte[] flags;
+
+        int errorCount;
+
+        int[] errorTokens = new int[0];
+
+        int[] errorPositions = new int[0];
+
+        int docCount;
+
+        int[] docTokens = new int[0];
+
+        int[] docStarts = new int[0];
+
+        int[] docEnds = new int[0];
+
+        Symbol[] symbols;
+
+        int symbolCount;
+
+        /** Indexes of the symbols, filled on the first lookup. */
+        Map<Symbol, Integer> symbolIndexes;
+
+        /** Count of tokens that do not need the end position from the lexer. */
+        private int endedCount;
+
+        Appender(int capacity, Symbol[] symbols, int symbolCount) {
+            tokens = new byte[capacity];
+            starts = new int[capacity];
+            ends = new int[capacity];
+            names = new int[capacity];
+            literals = new String[capacity];
+            flags = new byte[capacity];
+            this.symbols = symbols;
+            this.symbolCount = symbolCount;
+        }
+
+        /**
+         * Scans the next token.
+         *
+         * @param lexer Lexer to scan with.
+         * @return Scanned token.
+         */
+        Token scan(Lexer lexer) {
+            lexer.resetDeprecatedFlag();
+            lexer.setErrPos(Position.NOPOS);
+            lexer.nextToken();
+            final Token token = lexer.token();
+
+            ensureCapacity(size + 1);
+            tokens[size] = (byte) token.ordinal();
+            starts[size] = lexer.pos();
+            // end of the token is the previous end position of the next one
+            if (size > endedCount) {
+                ends[size - 1] = lexer.prevEndPos();
+            }
+            if (token == Token.EOF) {
+                ends[size] = starts[size];
+            }
+
+            // lexer keeps the name and radix of the previous tokens, these are not recorded
+            int tokenFlags = 0;
+            if (isLiteral(token)) {
+                names[size] = -1;
+                literals[size] = lexer.stringVal();
+                if (token != Token.CHARLITERAL && token != Token.STRINGLITERAL) {
+                    tokenFlags = radixCode(lexer.radix());
+                }
+            } else if (NAMED[token.ordinal()] && lexer.name() != null) {
+                names[size] = indexOf(lexer.name());
+            } else {
+                names[size] = -1;
+            }
+            if (lexer.deprecatedFlag()) {
+                tokenFlags |= DEPRECATED;
+            }
+            if (lexer.errPos() != Position.NOPOS) {
+                tokenFlags |= ERROR;
+                addError(size, lexer.errPos());
+            }
+            if (lexer.docCommentPos() != Position.NOPOS) {
+                tokenFlags |= DOC_COMMENT;
+                addDocComment(size, lexer.docCommentPos(), lexer.docCommentEndPos());
+            }
+            flags[size] = (byte) tokenFlags;
+
+            ++size;
+            return token;
+        }
+
+        /**
+         * Copies tokens of the other buffer.
+         *
+         * @param from  Buffer to copy from.
+         * @param index Index of the first token to copy.
+         * @param count Count of tokens to copy.
+         * @param shift Value to add to the positions.
+         */
+        void copy(TokenBuffer from, int index, int count, int shift) {
+            ensureCapacity(size + count);
+            System.arraycopy(from.tokens, index, tokens, size, count);
+            System.arraycopy(from.names, index, names, size, count);
+            System.arraycopy(from.literals, index, literals, size, count);
+            System.arraycopy(from.flags, index, flags, size, count);
+            if (shift == 0) {
+                System.arraycopy(from.starts, index, starts, size, count);
+                System.arraycopy(from.ends, index, ends, size, count);
+            } else {
+                for (int i = 0; i < count; ++i) {
+                    starts[size + i] = from.starts[index + i] + shift;
+                    ends[size + i] = from.ends[index + i] + shift;
+                }
+            }
+
+            for (int i = 0; i < from.errorTokens.length; ++i) {
+                final int errorToken = from.errorTokens[i];
+                if (errorToken >= index && errorToken < index + count) {
+                    addError(size + errorToken - index, from.errorPositions[i] + shift);
+                }
+            }
+
+            for (int i = 0; i < from.docTokens.length; ++i) {
+                final int docToken = from.docTokens[i];
+                if (docToken >= index && docToken < index + count) {
+                    addDocComment(size + docToken - index, from.docStarts[i] + shift, from.docEnds[i] + shift);
+                }
+            }
+
+            size += count;
+            endedCount = size;
+        }
+
+        TokenBuffer build(long contentHash) {
+            return new TokenBuffer(contentHash, size, tokens, starts, ends, names,
+                    symbolCount == symbols.length ? symbols : Arrays.copyOf(symbols, symbolCount),
+                    literals, flags, Arrays.copyOf(errorTokens, errorCount),
+                    Arrays.copyOf(errorPositions, errorCount), Arrays.copyOf(docTokens, docCount),
+                    Arrays.copyOf(docStarts, docCount), Arrays.copyOf(docEnds, docCount));
+        }
+
+        private int indexOf(Symbol name) {
+            if (symbolIndexes == null) {
+                symbolIndexes = new IdentityHashMap<Symbol, Integer>(Math.max(64, symbolCount * 2));
+                for (int i = 0; i < symbolCount; ++i) {
+                    symbolIndexes.put(symbols[i], i);
+                }
+            }
+
+            Integer index = symbolIndexes.get(name);
+            if (index == null) {
+                index = symbolCount;
+                symbolIndexes.put(name, index);
+                if (symbolCount == symbols.length) {
+                    symbols = Arrays.copyOf(symbols, Math.max(64, symbolCount * 2));
+                }
+                symbols[symbolCount++] = name;
+            }
+            return index;
+        }
+
+        private void addError(int index, int pos) {
+            if (errorCount == errorTokens.length) {
+                final int newCapacity = Math.max(16, errorCount * 2);
+                errorTokens = Arrays.copyOf(errorTokens, newCapacity);
+                errorPositions = Arrays.copyOf(errorPositions, newCapacity);
+            }
+            errorTokens[errorCount] = index;
+            errorPositions[errorCount] = pos;
+            ++errorCount;
+        }
+
+        private void addDocComment(int index, int start, int end) {
+            if (docCount == docTokens.length) {
+                final int newCapacity = Math.max(16, docCount * 2);
+                docTokens = Arrays.copyOf(docTokens, newCapacity);
+                docStarts = Arrays.copyOf(docStarts, newCapacity);
+                docEnds = Arrays.copyOf(docEnds, newCapacity);
+            }
+            docTokens[docCount] = index;
+            docStarts[docCount] = start;
+            docEnds[docCount] = end;
+            ++docCount;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > tokens.length) {
+                final int newCapacity = Math.max(capacity, tokens.length * 2);
+                tokens = Arrays.copyOf(tokens, newCapacity);
+                starts = Arrays.copyOf(starts, newCapacity);
+                ends = Arrays.copyOf(ends, newCapacity);
+                names = Arrays.copyOf(names, newCapacity);
+                literals = Arrays.copyOf(literals, newCapacity);
+                flags = Arrays.copyOf(flags, newCapacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser.impl;
+
+import com.truward.jnova.java.code.Convert;
+import com.truward.jnova.java.parser.Lexer;
+import com.truward.jnova.java.parser.Token;
+import com.truward.jnova.java.parser.TokenBuffer;
+import com.truward.jnova.java.source.Position;
+import com.truward.jnova.util.diagnostics.DiagnosticsLog;
+import com.truward.jnova.util.naming.Symbol;
+
+/**
+ * Lexer that replays tokens of the {@link TokenBuffer}.
+ * New sources are scanned into the buffer by the delegate lexer, so that lexical errors are reported once,
+ * the copies share the buffer and lazy bodies are not scanned again.
+ */
+public final class BufferedLexer implements Lexer {
+    private final Lexer delegate;
+
+    private TokenBuffer tokens;
+
+    /** Index of the current token, -1 before the first call to {@link #nextToken()}. */
+    private int index;
+
+    /** Token set by {@link #setToken(Token)}, null if the buffered one is current. */
+    private Token token;
+
+    private int errPos;
+
+    private boolean deprecatedFlag;
+
+    /** Digits of the integral literal being converted, see {@link #integralVal(boolean)}. */
+    private char[] digits;
+
+    public BufferedLexer(Lexer delegate) {
+        assert delegate != null;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void setSource(char[] input, int inputLength) {
+        setTokens(TokenBuffer.scan(delegate, input, inputLength));
+    }
+
+    /**
+     * Sets tokens to replay, state left from the previous source is reset as by {@link #setSource(char[], int)}.
+     *
+     * @param tokens Scanned tokens.
+     */
+    public void setTokens(TokenBuffer tokens) {
+        assert tokens != null;
+        this.tokens = tokens;
+        index = -1;
+        token = null;
+        errPos = Position.NOPOS;
+        deprecatedFlag = false;
+    }
+
+    /**
+     * @return Tokens being replayed.
+     */
+    public TokenBuffer getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @return Mark of the current token, see {@link #reset(int)}.
+     */
+    public int mark() {
+        return index;
+    }
+
+    /**
+     * Moves back or forth to the marked token.
+     *
+     * @param mark Value returned by {@link #mark()}.
+     */
+    public void reset(int mark) {
+        assert mark >= -1 && mark < tokens.size();
+        index = mark;
+        token = null;
+    }
+
+    @Override
+    public Lexer copyAt(int pos) {
+        assert tokens != null;
+
+        final BufferedLexer copy = new BufferedLexer(delegate);
+        copy.setTokens(tokens);
+        copy.index = tokens.indexAt(pos) - 1;
+        return copy;
+    }
+
+    @Override
+    public Lexer copyAt(int pos, DiagnosticsLog log) {
+        // lexical errors have been reported when the tokens were scanned
+        return copyAt(pos);
+    }
+
+    @Override
+    public void setQuiet(boolean quiet) {
+        // replayed tokens report nothing
+    }
+
+    @Override
+    public String stringVal() {
+        final String literal = tokens.getLiteral(index);
+        return literal != null ? literal : "";
+    }
+
+    @Override
+    public CharSequence literalVal() {
+        return stringVal();
+    }
+
+    @Override
+    public long integralVal(boolean negative) {
+        final String literal = stringVal();
+        final int length = literal.length();
+        if (digits == null || length > digits.length) {
+            digits = new char[Math.max(length, 32)];
+        }
+        literal.getChars(0, length, digits, 0);
+        if (token() == Token.LONGLITERAL) {
+            return Convert.chars2long(digits, 0, length, radix(), negative);
+        }
+        return Convert.chars2int(digits, 0, length, radix(), negative);
+    }
+
+    @Override
+    public void nextToken() {
+        // EOF is repeated as the delegate lexer does
+        if (index < tokens.size() - 1) {
+            ++index;
+        }
+        token = null;
+
+        final int tokenErrPos = tokens.getErrPos(index);
+        if (tokenErrPos != Position.NOPOS) {
+            errPos = tokenErrPos;
+        }
+        if (tokens.isDeprecated(index)) {
+            deprecatedFlag = true;
+        }
+    }
+
+    @Override
+    public Symbol name() {
+        return tokens.getName(index);
+    }
+
+    @Override
+    public int prevEndPos() {
+        return index > 0 ? tokens.getEndPos(index - 1) : 0;
+    }
+
+    @Override
+    public int endPos() {
+        return index >= 0 ? tokens.getEndPos(index) : 0;
+    }
+
+    @Override
+    public int pos() {
+        return index >= 0 ? tokens.getPos(index) : 0;
+    }
+
+    @Override
+    public int errPos() {
+        return errPos;
+    }
+
+    @Override
+    public void setErrPos(int pos) {
+        errPos = pos;
+    }
+
+    @Override
+    public Token token() {
+        if (token != null) {
+            return token;
+        }
+        return index >= 0 ? tokens.getToken(index) : null;
+    }
+
+    @Override
+    public void setToken(Token token) {
+        this.token = token;
+    }
+
+    @Override
+    public int radix() {
+        return tokens.getRadix(index);
+    }
+
+    /**
+     * Token buffer has no source text, see {@link #docCommentPos()}.
+     */
+    @Override
+    public String docComment() {
+        return null;
+    }
+
+    @Override
+    public int docCommentPos() {
+        return index >= 0 ? tokens.getDocCommentPos(index) : Position.NOPOS;
+    }
+
+    @Override
+    public int docCommentEndPos() {
+        return index >= 0 ? tokens.getDocCommentEndPos(index) : Position.NOPOS;
+    }
+
+    @Override
+    public boolean deprecatedFlag() {
+        return deprecatedFlag;
+    }
+
+    @Override
+    public void resetDeprecatedFlag() {
+        deprecatedFlag = false;
+    }
+}
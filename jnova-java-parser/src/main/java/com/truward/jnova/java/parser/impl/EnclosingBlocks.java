@@ -0,0 +1,67 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser.impl;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstScanner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the blocks that enclose the edited range, outer blocks go first.
+ */
+final class EnclosingBlocks extends AstScanner {
+    private final int start;
+
+    private final int end;
+
+    private final List<Ast.Block> blocks = new ArrayList<Ast.Block>();
+
+    private boolean unparsedBlocks;
+
+    /**
+     * @param start Start of the edited range.
+     * @param end   End of the edited range, exclusive.
+     */
+    EnclosingBlocks(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    List<Ast.Block> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * @return True, if the scanned tree has lazy blocks which statements have not been parsed yet.
+     */
+    boolean hasUnparsedBlocks() {
+        return unparsedBlocks;
+    }
+
+    @Override
+    public void visitBlock(Ast.Block node) {
+        if (!node.isParsed()) {
+            unparsedBlocks = true;
+            return;
+        }
+        // nested blocks are within the range of the enclosing one
+        if (node.getPos() < start && end <= node.getEndPos()) {
+            blocks.add(node);
+            super.visitBlock(node);
+        }
+    }
+}
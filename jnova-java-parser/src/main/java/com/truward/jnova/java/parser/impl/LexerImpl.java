@@ -14,18 +14,19 @@
 
 package com.truward.jnova.java.parser.impl;
 
+import com.truward.jnova.java.ast.DocCommentTable;
+import com.truward.jnova.java.code.Convert;
 import com.truward.jnova.java.code.PredefinedNames;
 import com.truward.jnova.java.parser.Lexer;
 import com.truward.jnova.java.parser.Token;
 import com.truward.jnova.java.source.*;
+import com.truward.jnova.util.diagnostics.Diagnostic;
 import com.truward.jnova.util.diagnostics.DiagnosticsLog;
 import com.truward.jnova.util.diagnostics.parameter.Offset;
+import com.truward.jnova.util.naming.StringPool;
 import com.truward.jnova.util.naming.Symbol;
 import com.truward.jnova.util.naming.SymbolTable;
 
-import javax.annotation.PostConstruct;
-import javax.annotation.Resource;
-
 import static com.truward.jnova.java.parser.Token.*;
 
 /**
@@ -88,12 +89,33 @@ public final class LexerImpl implements Lexer {
      */
     protected boolean deprecatedFlag;
 
+    /**
+     * Whether doc comments are recorded and scanned for the deprecated tag, see {@link #setDocComments(boolean)}.
+     */
+    private boolean docComments = true;
+
+    /**
+     * Range of the last doc comment preceding the token, only the start is reset if there is no such comment.
+     */
+    private int docCommentPos = Position.NOPOS;
+    private int docCommentEndPos = Position.NOPOS;
+
     /**
      * A character buffer for literals.
      */
     private char[] sbuf = new char[128];
     private int sp;
 
+    /**
+     * View of the literal in sbuf, see {@link #literalVal()}.
+     */
+    private final CharSequence literalView = new LiteralView();
+
+    /**
+     * Pool of the string literal values, null if they are not pooled.
+     */
+    private StringPool stringPool;
+
     /**
      * The input buffer, index of next chacter to be read, index of one past last character in buffer.
      */
@@ -112,26 +134,49 @@ public final class LexerImpl implements Lexer {
      */
     private int unicodeConversionBp = -1;
 
+    /**
+     * Flags of the ASCII chars that stop {@link #skipCommentChars(boolean[])} in the line comment.
+     */
+    private static final boolean[] LINE_COMMENT_STOPS = commentStops(LayoutCharacters.CR, LayoutCharacters.LF);
+
+    /**
+     * Flags of the ASCII chars that stop {@link #skipCommentChars(boolean[])} in the block comment.
+     */
+    private static final boolean[] BLOCK_COMMENT_STOPS = commentStops('*');
+
+    /**
+     * Flags of the ASCII chars that stop {@link #skipCommentChars(boolean[])} in the rest of the doc comment line.
+     */
+    private static final boolean[] DOC_COMMENT_STOPS = commentStops('*', LayoutCharacters.CR, LayoutCharacters.LF);
+
+    private static boolean[] commentStops(int... chars) {
+        final boolean[] result = new boolean[0x80];
+        for (final int c : chars) {
+            result[c] = true;
+        }
+        result['\\'] = true;
+        return result;
+    }
+
     /**
      * The log to be used for error reporting.
      */
-    @Resource
-    private DiagnosticsLog log;
+    private final DiagnosticsLog log;
+
+    /**
+     * Whether the lexical errors are not reported, see {@link #setQuiet(boolean)}.
+     */
+    private boolean quiet;
 
-    @Resource
-    private ParserBundle bundle;
+    private final ParserBundle bundle;
 
-    @Resource
-    private Source source;
+    private final Source source;
 
-    @Resource
-    private PredefinedNames names;
+    private final PredefinedNames names;
 
-    @Resource
-    private Keywords keywords;
+    private final Keywords keywords;
 
-    @Resource
-    private SymbolTable symTable;
+    private final SymbolTable symTable;
 
     private static final boolean hexFloatsWork = hexFloatsWork();
 
@@ -146,8 +191,18 @@ public final class LexerImpl implements Lexer {
 
 
 
-    @PostConstruct
-    public void postConstruct() {
+    public LexerImpl(DiagnosticsLog log, ParserBundle bundle, Source source, PredefinedNames names,
+                     Keywords keywords, SymbolTable symTable) {
+        assert log != null && bundle != null && source != null && names != null && keywords != null &&
+                symTable != null;
+
+        this.log = log;
+        this.bundle = bundle;
+        this.source = source;
+        this.names = names;
+        this.keywords = keywords;
+        this.symTable = symTable;
+
         allowHexFloats = source.allowHexFloats();
         scannerDebug = false; // TODO: get scanner debug variable from somewhere
     }
@@ -168,9 +223,47 @@ public final class LexerImpl implements Lexer {
         buflen = inputLength;
         buf[buflen] = LayoutCharacters.EOI;
         bp = -1;
+
+        token = null;
+        pos = 0;
+        endPos = 0;
+        prevEndPos = 0;
+        errPos = Position.NOPOS;
+        name = null;
+        radix = 0;
+        deprecatedFlag = false;
+        docCommentPos = Position.NOPOS;
+        sp = 0;
+        unicodeConversionBp = -1;
+
         scanChar();
     }
 
+    @Override
+    public Lexer copyAt(int pos) {
+        return copyAt(pos, log);
+    }
+
+    @Override
+    public Lexer copyAt(int pos, DiagnosticsLog log) {
+        assert buf != null && pos >= 0 && pos <= buflen && log != null;
+
+        final LexerImpl copy = new LexerImpl(log, bundle, source, names, keywords, symTable);
+        copy.stringPool = stringPool;
+        copy.docComments = docComments;
+        copy.eofPos = eofPos;
+        copy.buf = buf;
+        copy.buflen = buflen;
+        copy.bp = pos - 1;
+        copy.scanChar();
+        return copy;
+    }
+
+    @Override
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
     /**
      * Report an error at the given position using the provided arguments.
      * @param pos Position in the source stream.
@@ -178,7 +271,9 @@ public final class LexerImpl implements Lexer {
      * @param args Error arguments.
      */
     private void lexError(int pos, String key, Object... args) {
-        log.error(bundle.message(key, args), Offset.at(pos));
+        if (!quiet) {
+            log.report(Diagnostic.error(bundle, Offset.at(pos), key, args));
+        }
         token = ERROR;
         errPos = pos;
     }
@@ -297,6 +392,24 @@ public final class LexerImpl implements Lexer {
         }
     }
 
+    /**
+     * Skips the comment chars up to the first of the given stop chars or a backslash and reads that char with
+     * {@link #scanCommentChar()}, which is the same as calling scanCommentChar() for each of the skipped chars.
+     * @param stops Flags of the ASCII stop chars, see {@link #commentStops(int...)}.
+     */
+    private void skipCommentChars(boolean[] stops) {
+        int end = bp + 1;
+        while (end < buflen) {
+            final char c = buf[end];
+            if (c < 0x80 && stops[c]) {
+                break;
+            }
+            ++end;
+        }
+        bp = end - 1;
+        scanCommentChar();
+    }
+
     /**
      * Append a character to sbuf.
      * @param ch Char to be appended.
@@ -732,7 +845,7 @@ public final class LexerImpl implements Lexer {
                     scanCommentChar();
                     continue forEachLine;
                 default:
-                    scanCommentChar();
+                    skipCommentChars(DOC_COMMENT_STOPS);
                 }
             } // rest of line
         } // forEachLine
@@ -772,17 +885,68 @@ public final class LexerImpl implements Lexer {
     }
 
 
+    /**
+     * Sets the pool of the string literal values, so that {@link #stringVal()} returns the same instance for the
+     * repeated string literals. Copies of this lexer share the pool.
+     *
+     * @param stringPool Pool, null if the values should not be pooled.
+     */
+    public void setStringPool(StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
     @Override
     public String stringVal() {
+        if (stringPool != null && token == STRINGLITERAL) {
+            return stringPool.fromChars(sbuf, 0, sp);
+        }
         return new String(sbuf, 0, sp);
     }
 
+    @Override
+    public CharSequence literalVal() {
+        return literalView;
+    }
+
+    private final class LiteralView implements CharSequence {
+        @Override
+        public int length() {
+            return sp;
+        }
+
+        @Override
+        public char charAt(int index) {
+            assert index >= 0 && index < sp;
+            return sbuf[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            assert start >= 0 && start <= end && end <= sp;
+            return new String(sbuf, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(sbuf, 0, sp);
+        }
+    }
+
+    @Override
+    public long integralVal(boolean negative) {
+        if (token == LONGLITERAL) {
+            return Convert.chars2long(sbuf, 0, sp, radix, negative);
+        }
+        return Convert.chars2int(sbuf, 0, sp, radix, negative);
+    }
+
     @Override
     @SuppressWarnings({"ConstantConditions"})
     public void nextToken() {
         try {
             prevEndPos = endPos;
             sp = 0;
+            docCommentPos = Position.NOPOS;
 
             while (true) {
                 pos = bp;
@@ -790,9 +954,16 @@ public final class LexerImpl implements Lexer {
                     case ' ': // (Spec 3.6)
                     case '\t': // (Spec 3.6)
                     case LayoutCharacters.FF: // (Spec 3.6)
-                        do {
+                        // EOI at buflen stops the loop, backslash is left to scanChar()
+                        int end = bp + 1;
+                        while (buf[end] == ' ' || buf[end] == '\t' || buf[end] == LayoutCharacters.FF) {
+                            ++end;
+                        }
+                        bp = end - 1;
+                        scanChar();
+                        while (ch == ' ' || ch == '\t' || ch == LayoutCharacters.FF) {
                             scanChar();
-                        } while (ch == ' ' || ch == '\t' || ch == LayoutCharacters.FF);
+                        }
                         endPos = bp;
                         processWhiteSpace();
                         break;
@@ -883,7 +1054,7 @@ public final class LexerImpl implements Lexer {
                         scanChar();
                         if (ch == '/') {
                             do {
-                                scanCommentChar();
+                                skipCommentChars(LINE_COMMENT_STOPS);
                             } while (ch != LayoutCharacters.CR && ch != LayoutCharacters.LF && bp < buflen);
                             if (bp < buflen) {
                                 endPos = bp;
@@ -893,7 +1064,7 @@ public final class LexerImpl implements Lexer {
                         } else if (ch == '*') {
                             scanChar();
                             CommentStyle style;
-                            if (ch == '*') {
+                            if (ch == '*' && docComments) {
                                 style = CommentStyle.JAVADOC;
                                 scanDocComment();
                             } else {
@@ -903,7 +1074,7 @@ public final class LexerImpl implements Lexer {
                                         scanChar();
                                         if (ch == '/') break;
                                     } else {
-                                        scanCommentChar();
+                                        skipCommentChars(BLOCK_COMMENT_STOPS);
                                     }
                                 }
                             }
@@ -911,6 +1082,10 @@ public final class LexerImpl implements Lexer {
                                 scanChar();
                                 endPos = bp;
                                 processComment(style);
+                                if (style == CommentStyle.JAVADOC) {
+                                    docCommentPos = pos;
+                                    docCommentEndPos = endPos;
+                                }
                                 break;
                             } else {
                                 lexError("unclosed.comment");
@@ -1008,6 +1183,11 @@ public final class LexerImpl implements Lexer {
         return prevEndPos;
     }
 
+    @Override
+    public int endPos() {
+        return endPos;
+    }
+
     @Override
     public int pos() {
         return pos;
@@ -1038,9 +1218,30 @@ public final class LexerImpl implements Lexer {
         return radix;
     }
 
+    /**
+     * Sets whether the doc comments are recorded and scanned for the deprecated tag, otherwise they are skipped
+     * as the regular block comments, so that {@link #docCommentPos()} is always NOPOS and the deprecated flag
+     * is never set. Doc comments are recorded by default. Copies of this lexer inherit the setting.
+     *
+     * @param docComments False, if the doc comments are not needed.
+     */
+    public void setDocComments(boolean docComments) {
+        this.docComments = docComments;
+    }
+
     @Override
     public String docComment() {
-        return null;
+        return docCommentPos == Position.NOPOS ? null : DocCommentTable.getText(buf, docCommentPos, docCommentEndPos);
+    }
+
+    @Override
+    public int docCommentPos() {
+        return docCommentPos;
+    }
+
+    @Override
+    public int docCommentEndPos() {
+        return docCommentPos == Position.NOPOS ? Position.NOPOS : docCommentEndPos;
     }
 
     @Override
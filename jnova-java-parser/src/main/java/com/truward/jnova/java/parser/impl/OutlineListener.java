@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser.impl;
+
+import com.truward.jnova.java.code.Flags;
+import com.truward.jnova.java.parser.JavaParseAdapter;
+import com.truward.jnova.java.parser.Outline;
+import com.truward.jnova.util.naming.Symbol;
+
+import static com.truward.jnova.java.parser.Outline.NOPOS;
+
+/**
+ * Collects declarations into the outline.
+ */
+final class OutlineListener extends JavaParseAdapter {
+    private final Outline.Builder builder;
+
+    /** Indexes of the enclosing types. */
+    private int[] parents = new int[8];
+
+    private int depth = 0;
+
+    OutlineListener(char[] buffer) {
+        this.builder = new Outline.Builder(buffer);
+    }
+
+    Outline getOutline() {
+        return builder.build();
+    }
+
+    @Override
+    public void onPackage(Symbol name, int pos, int start, int end) {
+        builder.add(Outline.PACKAGE, 0, -1, name, pos, NOPOS, NOPOS, start, end);
+    }
+
+    @Override
+    public void onImport(Symbol name, boolean staticImport, int pos, int start, int end) {
+        builder.add(Outline.IMPORT, staticImport ? Flags.STATIC : 0, -1, name, pos, NOPOS, NOPOS, start, end);
+    }
+
+    @Override
+    public void enterClass(int kind, int flags, Symbol name, int pos, int signatureStart, int signatureEnd) {
+        final int index = builder.add(kind, flags, parent(), name, pos, NOPOS, NOPOS, signatureStart, signatureEnd);
+        if (depth == parents.length) {
+            final int[] newParents = new int[depth * 2];
+            System.arraycopy(parents, 0, newParents, 0, depth);
+            parents = newParents;
+        }
+        parents[depth++] = index;
+    }
+
+    @Override
+    public void exitClass(int endPos) {
+        --depth;
+    }
+
+    @Override
+    public void onEnumConstant(int flags, Symbol name, int pos) {
+        builder.add(Outline.ENUM_CONSTANT, flags, parent(), name, pos, NOPOS, NOPOS, NOPOS, NOPOS);
+    }
+
+    @Override
+    public void onField(int flags, Symbol name, int pos, int typeStart, int typeEnd) {
+        builder.add(Outline.FIELD, flags, parent(), name, pos, typeStart, typeEnd, NOPOS, NOPOS);
+    }
+
+    @Override
+    public void enterMethod(int kind, int flags, Symbol name, int pos, int typeStart, int typeEnd,
+                            int signatureStart, int signatureEnd) {
+        builder.add(kind, flags, parent(), name, pos, typeStart, typeEnd, signatureStart, signatureEnd);
+    }
+
+    @Override
+    public void enterInitializer(int flags, int pos) {
+        builder.add(Outline.INITIALIZER, flags, parent(), null, pos, NOPOS, NOPOS, NOPOS, NOPOS);
+    }
+
+    private int parent() {
+        return depth == 0 ? -1 : parents[depth - 1];
+    }
+}
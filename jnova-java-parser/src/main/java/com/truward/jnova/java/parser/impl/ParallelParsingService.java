@@ -0,0 +1,203 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser.impl;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.parser.JavaParsers;
+import com.truward.jnova.java.parser.ParseResult;
+import com.truward.jnova.java.parser.Parser;
+import com.truward.jnova.java.parser.ParsingService;
+import com.truward.jnova.util.diagnostics.Diagnostic;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+import com.truward.jnova.util.source.Source;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parsing service that parses sources on a fixed pool of threads.
+ * <p>
+ * Each task owns a worker - lexer and parser wired with their own symbol table and diagnostics log, workers are
+ * kept between the calls. Tasks take the next source from the shared counter, so that the threads that got
+ * small sources proceed with the remaining ones; sources are taken in the order of decreasing length to shorten
+ * the tail. Parser bundle and language version are shared by all the workers.
+ * </p>
+ * <p>
+ * Symbols of the compilation units parsed by the different workers belong to the different symbol tables,
+ * such symbols should be compared by their names.
+ * </p>
+ */
+public final class ParallelParsingService implements ParsingService, Closeable {
+
+    private final com.truward.jnova.java.source.Source sourceVersion;
+
+    private final int threadCount;
+
+    private final ExecutorService executor;
+
+    private final ParserBundle bundle = new ParserBundle();
+
+    private final Queue<Worker> idleWorkers = new ConcurrentLinkedQueue<Worker>();
+
+    public ParallelParsingService(int threadCount) {
+        this(threadCount, com.truward.jnova.java.source.Source.DEFAULT);
+    }
+
+    public ParallelParsingService(int threadCount, com.truward.jnova.java.source.Source sourceVersion) {
+        assert threadCount > 0 && sourceVersion != null;
+
+        this.threadCount = threadCount;
+        this.sourceVersion = sourceVersion;
+        this.executor = Executors.newFixedThreadPool(threadCount, new ParserThreadFactory());
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    @Override
+    public List<ParseResult> parse(List<? extends Source> sources) {
+        final Source[] ordered = sources.toArray(new Source[sources.size()]);
+        final Integer[] order = new Integer[ordered.length];
+        for (int i = 0; i < order.length; ++i) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer left, Integer right) {
+                return ordered[right].length() - ordered[left].length();
+            }
+        });
+
+        final ParseResult[] results = new ParseResult[ordered.length];
+        final AtomicInteger next = new AtomicInteger();
+        final int taskCount = Math.min(threadCount, ordered.length);
+
+        final List<Future<?>> futures = new ArrayList<Future<?>>(taskCount);
+        for (int i = 0; i < taskCount; ++i) {
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    final Worker worker = acquireWorker();
+                    try {
+                        for (int index = next.getAndIncrement(); index < order.length; index = next.getAndIncrement()) {
+                            final int sourceIndex = order[index];
+                            results[sourceIndex] = worker.parse(ordered[sourceIndex]);
+                        }
+                    } finally {
+                        idleWorkers.add(worker);
+                    }
+                }
+            }));
+        }
+
+        for (final Future<?> future : futures) {
+            await(future);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Stops the worker threads, sources that are being parsed at the moment are parsed to the end.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+
+    private Worker acquireWorker() {
+        final Worker worker = idleWorkers.poll();
+        return worker != null ? worker : new Worker();
+    }
+
+    private static void await(Future<?> future) {
+        boolean interrupted = false;
+        try {
+            for (;;) {
+                try {
+                    future.get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Parsing task failed", cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    /**
+     * Lexer and parser owned by a single thread at a time.
+     */
+    private final class Worker {
+        final CollectingDiagnosticsLog log = new CollectingDiagnosticsLog();
+
+        final Parser parser;
+
+        Worker() {
+            parser = JavaParsers.builder().symbolTable(new HashSymbolTable()).sourceVersion(sourceVersion)
+                    .diagnostics(log).bundle(bundle).build();
+        }
+
+        ParseResult parse(Source source) {
+            log.clear();
+            parser.reset(source);
+
+            Ast.CompilationUnit unit = null;
+            RuntimeException failure = null;
+            try {
+                unit = parser.parseCompilationUnit();
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+
+            return new ParseResult(source, unit, new ArrayList<Diagnostic>(log.getDiagnostics()), failure);
+        }
+    }
+
+    private static final class ParserThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadIndex = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "jnova-parser-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
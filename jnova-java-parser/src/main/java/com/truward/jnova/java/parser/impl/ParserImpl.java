@@ -17,21 +17,30 @@ package com.truward.jnova.java.parser.impl;
 import com.truward.jnova.java.ast.AstNodeKind;
 import com.truward.jnova.java.ast.Ast;
 import com.truward.jnova.java.ast.AstInfo;
+import com.truward.jnova.java.ast.AstScanner;
+import com.truward.jnova.java.ast.DocCommentTable;
+import com.truward.jnova.java.ast.EndPosTable;
 import com.truward.jnova.java.code.*;
+import com.truward.jnova.java.parser.JavaParseListener;
 import com.truward.jnova.java.parser.Lexer;
+import com.truward.jnova.java.parser.Outline;
 import com.truward.jnova.java.parser.Parser;
 import com.truward.jnova.java.parser.Token;
-import com.truward.jnova.java.code.Convert;
+import com.truward.jnova.java.parser.TokenBuffer;
 import com.truward.jnova.java.source.Source;
 import com.truward.jnova.util.ImmList;
 
 import com.truward.jnova.util.diagnostics.parameter.Offset;
 import com.truward.jnova.util.naming.Symbol;
+import com.truward.jnova.util.diagnostics.Diagnostic;
 import com.truward.jnova.util.diagnostics.DiagnosticsLog;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
 import com.truward.jnova.java.source.Position;
 
-import javax.annotation.PostConstruct;
-import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 
 /**
  * Parser implementation.
@@ -44,28 +53,33 @@ public final class ParserImpl implements Parser {
     private static final int INFIX_PRECEDENCE_LEVELS = 10;
 
 
-    @Resource
+    /** Lexer in use, either the source lexer or the one that replays the token buffer. */
     private Lexer lexer;
 
-    @Resource
-    private DiagnosticsLog log;
+    private final Lexer sourceLexer;
+
+    /** Lexer for the token buffers, created on the first use. */
+    private BufferedLexer bufferedLexer;
+
+    private final DiagnosticsLog log;
 
-    @Resource
-    private ParserBundle bundle;
+    private final ParserBundle bundle;
 
-    @Resource
-    private PredefinedNames names;
+    private final PredefinedNames names;
 
-    @Resource
-    private Source source;
+    private final Source source;
 
 
-    private static final class LocalAstFactory extends Ast.Factory {
+    private final class LocalAstFactory extends Ast.Factory {
         private int pos = Position.NOPOS;
 
         @Override
         protected void onPostConstruct(Ast.Node node) {
             node.setPos(pos);
+            // most of the nodes are created right after their last token, the others are fixed with to and toP
+            if (endPositions != null && pos != Position.NOPOS) {
+                endPositions.storeEnd(node, lexer.prevEndPos());
+            }
         }
 
         // TODO: method of 'PositionAware' interface.
@@ -85,6 +99,29 @@ public final class ParserImpl implements Parser {
 
     private int errorPos = Position.NOPOS;
 
+    /** Operand and operator stacks of the infix expressions, shared by the nested calls of {@link #term2Rest}. */
+    private Ast.Expression[] odStack = new Ast.Expression[2 * (INFIX_PRECEDENCE_LEVELS + 1)];
+
+    private Token[] opStack = new Token[2 * (INFIX_PRECEDENCE_LEVELS + 1)];
+
+    /** Start of the free part of the infix expression stacks. */
+    private int infixTop = 0;
+
+    /**
+     * End of the closing angle bracket of the last type arguments, it differs from the end of the previous token
+     * if the bracket is split from the current token, as in <code>List&lt;List&lt;String&gt;&gt;</code>.
+     */
+    private int typeArgumentsEndPos;
+
+    /**
+     * Doc comments of the unit being parsed, null if the source is not set with reset.
+     * Lazy bodies add their comments to the table of their unit.
+     */
+    private DocCommentTable docComments;
+
+    /** End positions of the nodes of the unit being parsed, null if they are not stored. */
+    private EndPosTable endPositions;
+
 
 
     /** When terms are parsed, the mode determines which is expected:
@@ -124,11 +161,34 @@ public final class ParserImpl implements Parser {
 
     private boolean allowAnnotations;
 
-    /**
-     * Initializes parser after construction.
-     */
-    @PostConstruct
-    public void postConstruct() {
+    private boolean lazyBodies;
+
+    private boolean storeEndPositions;
+
+    private boolean updateInPlace;
+
+    /** Source set by the last reset, needed for the lazy bodies. */
+    private com.truward.jnova.util.source.Source unitSource;
+
+    /** State shared by the lazy bodies of the current source, null until the first body is skipped. */
+    private LazyUnit lazyUnit;
+
+    /** Receiver of the declarations, see {@link #parse(JavaParseListener)}, null if the tree is parsed. */
+    private JavaParseListener listener;
+
+    /** Count of the enclosing anonymous class bodies, declarations within them are not reported. */
+    private int anonymousDepth;
+
+    public ParserImpl(Lexer lexer, DiagnosticsLog log, ParserBundle bundle, PredefinedNames names, Source source) {
+        assert lexer != null && log != null && bundle != null && names != null && source != null;
+
+        this.lexer = lexer;
+        this.sourceLexer = lexer;
+        this.log = log;
+        this.bundle = bundle;
+        this.names = names;
+        this.source = source;
+
         // parsing options
         allowAsserts = source.allowAsserts();
         allowEnums = source.allowEnums();
@@ -139,6 +199,57 @@ public final class ParserImpl implements Parser {
         allowAnnotations = source.allowAnnotations();
     }
 
+    @Override
+    public void reset(com.truward.jnova.util.source.Source source) {
+        log.setSource(source);
+        lexer = sourceLexer;
+        lexer.setSource(source.getBuffer(), source.length());
+        resetState(source);
+    }
+
+    @Override
+    public void reset(com.truward.jnova.util.source.Source source, TokenBuffer tokens) {
+        assert tokens != null;
+        log.setSource(source);
+        if (bufferedLexer == null) {
+            bufferedLexer = new BufferedLexer(sourceLexer);
+        }
+        bufferedLexer.setTokens(tokens);
+        lexer = bufferedLexer;
+        resetState(source);
+    }
+
+    private void resetState(com.truward.jnova.util.source.Source source) {
+        unitSource = source;
+        docComments = new DocCommentTable(source);
+        // a node per four characters of the source is typical, lazy bodies add their nodes on demand
+        endPositions = storeEndPositions ? new EndPosTable(lazyBodies ? 0 : source.length() / 4) : null;
+        lazyUnit = null;
+
+        factory.at(Position.NOPOS);
+        factory.setNodeCount(0);
+        errorPos = Position.NOPOS;
+        errorEndPos = -1;
+        infixTop = 0;
+        mode = 0;
+        lastmode = 0;
+    }
+
+    @Override
+    public void setLazyBodies(boolean lazyBodies) {
+        this.lazyBodies = lazyBodies;
+    }
+
+    @Override
+    public void setEndPositions(boolean endPositions) {
+        this.storeEndPositions = endPositions;
+    }
+
+    @Override
+    public void setUpdateInPlace(boolean updateInPlace) {
+        this.updateInPlace = updateInPlace;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -164,27 +275,206 @@ public final class ParserImpl implements Parser {
         return compilationUnit();
     }
 
+    @Override
+    public Ast.CompilationUnit parseCompilationUnit(Ast.CompilationUnit previous, int offset, int deletedLength,
+                                                    int insertedLength) {
+        assert previous != null && offset >= 0 && deletedLength >= 0 && insertedLength >= 0;
+        final Ast.CompilationUnit unit = lazyBodies || !updateInPlace ? null :
+                reparseBlock(previous, offset, offset + deletedLength, insertedLength - deletedLength);
+        return unit != null ? unit : parseCompilationUnit();
+    }
+
+    /**
+     * Parses again the innermost block that encloses the edit.
+     *
+     * @return Updated compilation unit or null if the whole source should be parsed.
+     */
+    private Ast.CompilationUnit reparseBlock(Ast.CompilationUnit previous, int start, int end, int shift) {
+        final EnclosingBlocks enclosingBlocks = new EnclosingBlocks(start, end);
+        enclosingBlocks.scan(previous);
+        if (enclosingBlocks.hasUnparsedBlocks()) {
+            return null;
+        }
+
+        final List<Ast.Block> blocks = enclosingBlocks.getBlocks();
+        for (int i = blocks.size() - 1; i >= 0; --i) {
+            final Ast.Block block = blocks.get(i);
+
+            // block position may be the one of its modifiers
+            final Lexer blockLexer = lexer.copyAt(block.getPos(), new CollectingDiagnosticsLog());
+            blockLexer.nextToken();
+            while (blockLexer.token() != Token.LBRACE && blockLexer.token() != Token.EOF &&
+                    blockLexer.pos() < start) {
+                blockLexer.nextToken();
+            }
+            if (blockLexer.token() != Token.LBRACE || blockLexer.pos() >= start) {
+                continue;
+            }
+
+            final int bracePos = blockLexer.pos();
+            final CollectingDiagnosticsLog blockLog = new CollectingDiagnosticsLog();
+            final ParserImpl blockParser = new ParserImpl(lexer.copyAt(bracePos, blockLog), blockLog, bundle, names,
+                    source);
+            blockParser.docComments = new DocCommentTable(unitSource);
+            final EndPosTable unitEndPositions = previous.getEndPositions();
+            if (unitEndPositions != null) {
+                blockParser.endPositions = new EndPosTable();
+            }
+
+            // new statements take the ids of the replaced ones first
+            final ReplacedNodes replaced = new ReplacedNodes(previous.getFreeIds());
+            for (final Ast.Statement statement : block.getStatements()) {
+                replaced.scan(statement);
+            }
+            final int[] freeIds = replaced.getIds();
+            blockParser.factory.setNodeCount(previous.getNodeCount());
+            blockParser.factory.setFreeIds(freeIds, freeIds.length);
+
+            // statements are parsed without the block node, the block of the previous tree is kept
+            blockParser.lexer.nextToken();
+            blockParser.accept(Token.LBRACE);
+            final ImmList<? extends Ast.Statement> statements = blockParser.blockStatements();
+            if (blockParser.lexer.token() != Token.RBRACE || blockParser.lexer.pos() != block.getEndPos() + shift) {
+                // closing brace is not the same, try the enclosing block
+                continue;
+            }
+            if (blockLog.getTotalErrors() > 0 || blockParser.lexer.errPos() != Position.NOPOS) {
+                return null;
+            }
+
+            final DocCommentTable unitDocComments = previous.getDocComments();
+            if (unitDocComments != null) {
+                // comments of the block are added again by the block parser
+                unitDocComments.edit(unitSource, bracePos, block.getEndPos(), shift);
+                unitDocComments.addAll(blockParser.docComments);
+            }
+            if (unitEndPositions != null) {
+                for (final Ast.Statement statement : block.getStatements()) {
+                    removeEndPositions(unitEndPositions, statement);
+                }
+                unitEndPositions.shift(end, shift);
+                unitEndPositions.putAll(blockParser.endPositions);
+            }
+            new PositionShifter(end, shift, block).scan(previous);
+            block.setStatements(statements);
+            previous.setNodeCount(blockParser.factory.getNodeCount());
+            previous.setFreeIds(Arrays.copyOf(freeIds, blockParser.factory.getFreeIdCount()));
+            for (final Diagnostic diagnostic : blockLog.getDiagnostics()) {
+                log.report(diagnostic);
+            }
+            return previous;
+        }
+        return null;
+    }
+
+    @Override
+    public Outline parseOutline() {
+        assert unitSource != null : "Source should be set with reset";
+        final OutlineListener listener = new OutlineListener(unitSource.getBuffer());
+        parse(listener);
+        return listener.getOutline();
+    }
+
+    @Override
+    public void parse(JavaParseListener listener) {
+        assert listener != null;
+        this.listener = listener;
+        anonymousDepth = 0;
+        // declarations are reported instead of being kept, so that the tables are not filled
+        docComments = null;
+        endPositions = null;
+        try {
+            listener.enterCompilationUnit();
+            lexer.nextToken();
+            compilationUnit();
+            listener.exitCompilationUnit();
+        } finally {
+            this.listener = null;
+        }
+    }
+
+    // Whether the declarations of the current class body are reported to the listener.
+    private boolean reporting() {
+        return listener != null && anonymousDepth == 0;
+    }
+
+    // Last identifier of the qualified name.
+    private Symbol lastName(Ast.Expression name) {
+        if (name instanceof Ast.FieldAccess) {
+            return ((Ast.FieldAccess) name).getIdentifier();
+        } else if (name instanceof Ast.Ident) {
+            return ((Ast.Ident) name).getName();
+        }
+        return names.error;
+    }
+
+    // Declaration starts with its modifiers, if any.
+    private static int declarationPos(Ast.Modifiers mods, int pos) {
+        return mods.getPos() != Position.NOPOS ? mods.getPos() : pos;
+    }
+
+    // Reports the type declaration, its signature spans from the name to the current token.
+    private void enterClass(Ast.Modifiers mods, int pos, Symbol name, int signatureStart) {
+        final int flags = (int) mods.getFlags();
+        final int kind;
+        if ((flags & Flags.ANNOTATION) != 0) {
+            kind = Outline.ANNOTATION_TYPE;
+        } else if ((flags & Flags.INTERFACE) != 0) {
+            kind = Outline.INTERFACE;
+        } else if ((flags & Flags.ENUM) != 0) {
+            kind = Outline.ENUM;
+        } else {
+            kind = Outline.CLASS;
+        }
+        int signatureEnd = lexer.prevEndPos();
+        if (signatureEnd <= signatureStart) {
+            signatureStart = signatureEnd = Outline.NOPOS;
+        }
+        listener.enterClass(kind, flags, name, declarationPos(mods, pos), signatureStart, signatureEnd);
+    }
+
+    // Removes the end positions of the replaced node and its descendants.
+    private static void removeEndPositions(final EndPosTable endPositions, Ast.Node node) {
+        new AstScanner() {
+            @Override
+            public void scan(Ast.Node node) {
+                if (node != null) {
+                    endPositions.remove(node);
+                    node.accept(this);
+                }
+            }
+        }.scan(node);
+    }
+
     /* ---------- doc comments --------- */
 
-//    /** A hashtable to store all documentation comments
-//     *  indexed by the tree nodes they refer to.
-//     *  defined only if option flag keepDocComment is set.
-//     */
-//    Map<Ast.Node, String> docComments;
+    /** Value of the doc comment arguments when there is no doc comment. */
+    private static final long NO_DOC_COMMENT = -1L;
+
+    /**
+     * Gets the doc comment of the current token packed into one value, so that it is passed along
+     * without extracting the comment text.
+     *
+     * @return Start and end positions of the doc comment in the high and low halves or {@link #NO_DOC_COMMENT}.
+     */
+    private long docComment() {
+        final int start = lexer.docCommentPos();
+        if (start == Position.NOPOS) {
+            return NO_DOC_COMMENT;
+        }
+        return ((long) start << 32) | lexer.docCommentEndPos();
+    }
 
-    /** Make an entry into docComments hashtable,
-     *  provided flag keepDocComments is set and given doc comment is non-null.
-     *  @param node   The tree to be used as index in the hashtable
-     *  @param dc     The doc comment to associate with the tree, or null.
+    /** Make an entry into docComments table,
+     *  provided the source is set with reset and given doc comment is present.
+     *  @param node   The tree to be used as index in the table
+     *  @param dc     The doc comment to associate with the tree, see {@link #docComment()}.
      */
-    void attach(Ast.Node node, String dc) {
-        // TODO: implement
-        if (dc != null) {
-            assert node != null;
+    void attach(Ast.Node node, long dc) {
+        assert node != null;
+        if (docComments != null && dc != NO_DOC_COMMENT) {
+            docComments.add(node, (int) (dc >>> 32), (int) dc);
         }
-//        if (keepDocComments && dc != null) {
-//            docComments.put(tree, dc);
-//        }
     }
 
 
@@ -277,23 +567,52 @@ public final class ParserImpl implements Parser {
         }
     }
 
+    /** Remove the end position of the tree which is not a part of the result, if the end positions are stored.
+     *  @param node   The tree to be discarded.
+     */
+    private void discard(Ast.Node node) {
+        if (endPositions != null) {
+            endPositions.remove(node);
+        }
+    }
+
+    /** Store the end of the current token as the end position of the tree, if the end positions are stored.
+     *  @param node   The tree created before its last token is consumed.
+     */
+    private <T extends Ast.Node> T to(T node) {
+        if (endPositions != null) {
+            endPositions.storeEnd(node, lexer.endPos());
+        }
+        return node;
+    }
+
+    /** Store the end of the previous token as the end position of the tree, if the end positions are stored.
+     *  @param node   The tree created before its trailing tokens are consumed.
+     */
+    private <T extends Ast.Node> T toP(T node) {
+        if (endPositions != null) {
+            endPositions.storeEnd(node, lexer.prevEndPos());
+        }
+        return node;
+    }
+
 
     /* ---------- parsing -------------- */
 
     private void logError(String key, Object... args) {
-        log.error(bundle.message(key, args), Offset.at(lexer.pos()));
+        log.report(Diagnostic.error(bundle, Offset.at(lexer.pos()), key, args));
     }
 
     private void logWarning(String key, Object... args) {
-        log.warning(bundle.message(key, args), Offset.at(lexer.pos()));
+        log.report(Diagnostic.warning(bundle, Offset.at(lexer.pos()), key, args));
     }
 
     private void reportSyntaxError(int pos, String error, Object... args) {
         if (pos > lexer.errPos() || pos == Position.NOPOS) {
             if (lexer.token() == Token.EOF) {
-                log.error(bundle.message("premature.eof"));
+                log.report(Diagnostic.error(bundle, Offset.INVALID, "premature.eof"));
             } else {
-                log.error(bundle.message(error, args), Offset.at(pos));
+                log.report(Diagnostic.error(bundle, Offset.at(pos), error, args));
             }
         }
 
@@ -350,7 +669,8 @@ public final class ParserImpl implements Parser {
     private void checkNoMods(long mods) {
         if (mods != 0) {
             long lowestMod = mods & -mods;
-            log.error(bundle.message("mod.not.allowed.here", Flags.toString(lowestMod).trim()), Offset.at(lexer.pos()));
+            log.report(Diagnostic.error(bundle, Offset.at(lexer.pos()), "mod.not.allowed.here",
+                    Flags.toString(lowestMod).trim()));
         }
     }
 
@@ -379,7 +699,7 @@ public final class ParserImpl implements Parser {
     private Ast.CompilationUnit compilationUnit() {
         int pos = lexer.pos();
         Ast.Expression pid = null;
-        String dc = lexer.docComment();
+        long dc = docComment();
         Ast.Modifiers mods = null;
         ImmList<Ast.Annotation> packageAnnotations = ImmList.nil();
         if (lexer.token() == Token.MONKEYS_AT) {
@@ -392,8 +712,13 @@ public final class ParserImpl implements Parser {
                 packageAnnotations = mods.getAnnotations();
                 mods = null;
             }
+            final int packagePos = lexer.pos();
             lexer.nextToken();
+            final int nameStart = lexer.pos();
             pid = qualident();
+            if (listener != null) {
+                listener.onPackage(lastName(pid), packagePos, nameStart, lexer.prevEndPos());
+            }
             accept(Token.SEMI);
         }
         ImmList<Ast.Node> definitions = ImmList.nil();
@@ -419,11 +744,15 @@ public final class ParserImpl implements Parser {
         }
         Ast.CompilationUnit toplevel = factory.at(pos).astCompilationUnit(packageAnnotations, pid, definitions);
         attach(toplevel, dc);
-
-//        // TODO: keepDocComments
-//        if (keepDocComments) {
-//            toplevel.docComments = docComments;
-//        }
+        if (docComments != null && (docComments.size() > 0 || lazyBodies)) {
+            toplevel.setDocComments(docComments);
+        }
+        toplevel.setEndPositions(endPositions);
+        if (lazyUnit != null) {
+            lazyUnit.unit = toplevel;
+            toplevel.setBodyDiagnostics(lazyUnit.diagnostics);
+            lazyUnit = null;
+        }
         return toplevel;
     }
 
@@ -445,13 +774,14 @@ public final class ParserImpl implements Parser {
             lexer.nextToken();
         }
 
-        Ast.Expression pid = factory.at(lexer.pos()).astIdent(ident());
+        final int nameStart = lexer.pos();
+        Ast.Expression pid = factory.at(nameStart).astIdent(ident());
 
         do {
             int pos1 = lexer.pos();
             accept(Token.DOT);
             if (lexer.token() == Token.STAR) {
-                pid = factory.at(pos1).astFieldAccess(pid, names.asterisk);
+                pid = to(factory.at(pos1).astFieldAccess(pid, names.asterisk));
                 lexer.nextToken();
                 break;
             } else {
@@ -459,6 +789,9 @@ public final class ParserImpl implements Parser {
             }
         } while (lexer.token() == Token.DOT);
 
+        if (listener != null) {
+            listener.onImport(lastName(pid), importStatic, pos, nameStart, lexer.prevEndPos());
+        }
         accept(Token.SEMI);
         return factory.at(pos).astImport(pid, importStatic);
     }
@@ -477,7 +810,7 @@ public final class ParserImpl implements Parser {
             lexer.nextToken();
             return factory.at(pos).astEmptyStatement();
         } else {
-            String dc = lexer.docComment();
+            long dc = docComment();
             return classOrInterfaceOrEnumDeclaration(modifiersOpt(mods), dc);
         }
     }
@@ -490,6 +823,9 @@ public final class ParserImpl implements Parser {
     public Symbol ident() {
         if (lexer.token() == Token.IDENTIFIER) {
             Symbol name = lexer.name();
+            if (listener != null) {
+                listener.onIdentifier(name, lexer.pos());
+            }
             lexer.nextToken();
             return name;
         } else if (lexer.token() == Token.ASSERT) {
@@ -536,31 +872,31 @@ public final class ParserImpl implements Parser {
      */
     Ast.Expression literal(Symbol prefix) {
         int pos = lexer.pos();
-        Ast.Expression t = factory.astErroneous();
+        Ast.Expression t = null;
         switch (lexer.token()) {
             case INTLITERAL:
                 try {
-                    t = factory.at(pos).astLiteral(
+                    t = factory.at(pos).astPrimitiveLiteral(
                             TypeTags.INT,
-                            Convert.string2int(strval(prefix), lexer.radix()));
+                            lexer.integralVal(prefix.getUtfLength() != 0));
                 } catch (NumberFormatException ex) {
                     logError("int.number.too.large", strval(prefix));
                 }
                 break;
             case LONGLITERAL:
                 try {
-                    t = factory.at(pos).astLiteral(
+                    t = factory.at(pos).astPrimitiveLiteral(
                             TypeTags.LONG,
-                            Convert.string2long(strval(prefix), lexer.radix()));
+                            lexer.integralVal(prefix.getUtfLength() != 0));
                 } catch (NumberFormatException ex) {
                     logError("int.number.too.large", strval(prefix));
                 }
                 break;
             case FLOATLITERAL: {
-                String proper = (lexer.radix() == 16 ? ("0x"+ lexer.stringVal()) : lexer.stringVal());
-                Float n;
+                String proper = floatVal();
+                float n;
                 try {
-                    n = Float.valueOf(proper);
+                    n = Float.parseFloat(proper);
                 } catch (NumberFormatException ex) {
                     // error already repoted in lexer
                     n = Float.NaN;
@@ -570,15 +906,15 @@ public final class ParserImpl implements Parser {
                 } else if (n == Float.POSITIVE_INFINITY) {
                     logError("fp.number.too.large");
                 } else {
-                    t = factory.at(pos).astLiteral(TypeTags.FLOAT, n);
+                    t = factory.at(pos).astPrimitiveLiteral(TypeTags.FLOAT, Float.floatToRawIntBits(n));
                 }
                 break;
             }
             case DOUBLELITERAL: {
-                String proper = (lexer.radix() == 16 ? ("0x"+ lexer.stringVal()) : lexer.stringVal());
-                Double n;
+                String proper = floatVal();
+                double n;
                 try {
-                    n = Double.valueOf(proper);
+                    n = Double.parseDouble(proper);
                 } catch (NumberFormatException ex) {
                     // error already reported in lexer
                     n = Double.NaN;
@@ -588,14 +924,14 @@ public final class ParserImpl implements Parser {
                 } else if (n == Double.POSITIVE_INFINITY) {
                     logError("fp.number.too.large");
                 } else {
-                    t = factory.at(pos).astLiteral(TypeTags.DOUBLE, n);
+                    t = factory.at(pos).astPrimitiveLiteral(TypeTags.DOUBLE, Double.doubleToRawLongBits(n));
                 }
                 break;
             }
             case CHARLITERAL:
-                t = factory.at(pos).astLiteral(
+                t = factory.at(pos).astPrimitiveLiteral(
                         TypeTags.CHAR,
-                        lexer.stringVal().charAt(0) + 0);
+                        lexer.literalVal().charAt(0));
                 break;
             case STRINGLITERAL:
                 t = factory.at(pos).astLiteral(
@@ -603,7 +939,7 @@ public final class ParserImpl implements Parser {
                         lexer.stringVal());
                 break;
             case TRUE: case FALSE:
-                t = factory.at(pos).astLiteral(
+                t = factory.at(pos).astPrimitiveLiteral(
                         TypeTags.BOOLEAN,
                         (lexer.token() == Token.TRUE ? 1 : 0));
                 break;
@@ -616,10 +952,11 @@ public final class ParserImpl implements Parser {
                 assert false;
         }
 
-        if (t instanceof Ast.Erroneous) {
-            t.setPos(pos);
+        if (t == null) {
+            t = factory.at(pos).astErroneous();
         }
 
+        to(t);
         lexer.nextToken();
         return t;
     }
@@ -636,6 +973,15 @@ public final class ParserImpl implements Parser {
         return !(i < cs.length && (Character.digit(cs[i], base) > 0));
     }
 
+    // The literal of the floating point token as accepted by Float.parseFloat and Double.parseDouble.
+    private String floatVal() {
+        final CharSequence val = lexer.literalVal();
+        if (lexer.radix() == 16) {
+            return new StringBuilder(val.length() + 2).append("0x").append(val).toString();
+        }
+        return val.toString();
+    }
+
     private String strval(Symbol prefix) {
         final String s = lexer.stringVal();
         return (prefix.getUtfLength() == 0) ? s : prefix + s;
@@ -772,12 +1118,21 @@ public final class ParserImpl implements Parser {
      *                  | "*" | "/" | "%"
      */
     private Ast.Expression term2Rest(Ast.Expression t, int minprec) {
-        // TODO: optimize?
-        final Ast.Expression[] odStack = new Ast.Expression[INFIX_PRECEDENCE_LEVELS + 1];
-        final Token[] opStack = new Token[INFIX_PRECEDENCE_LEVELS + 1];
-
-        int top = 0;
-        odStack[0] = t;
+        // the frame of this call is reserved in the shared stacks, the nested calls use the ones above it
+        final int base = infixTop;
+        if (base + INFIX_PRECEDENCE_LEVELS + 1 > odStack.length) {
+            final int capacity = Math.max(odStack.length * 2, base + INFIX_PRECEDENCE_LEVELS + 1);
+            final Ast.Expression[] newOdStack = new Ast.Expression[capacity];
+            System.arraycopy(odStack, 0, newOdStack, 0, base);
+            odStack = newOdStack;
+            final Token[] newOpStack = new Token[capacity];
+            System.arraycopy(opStack, 0, newOpStack, 0, base);
+            opStack = newOpStack;
+        }
+        infixTop = base + INFIX_PRECEDENCE_LEVELS + 1;
+
+        int top = base;
+        odStack[top] = t;
 
         final int startPos = lexer.pos();
         Token topOp = Token.ERROR;
@@ -788,21 +1143,29 @@ public final class ParserImpl implements Parser {
             topOp = lexer.token();
             int pos = lexer.pos();
             lexer.nextToken();
-            odStack[top] = topOp == Token.INSTANCEOF ? type() : term3();
-            while (top > 0 && prec(topOp) >= prec(lexer.token())) {
+            // operand is parsed first, the stacks might grow in the nested calls
+            final Ast.Expression od = topOp == Token.INSTANCEOF ? type() : term3();
+            odStack[top] = od;
+            while (top > base && prec(topOp) >= prec(lexer.token())) {
                 odStack[top-1] = makeOp(pos, topOp, odStack[top-1],
                         odStack[top]);
+                odStack[top] = null;
                 top--;
                 topOp = opStack[top];
             }
         }
 
-        assert top == 0;
-        t = odStack[0];
+        assert top == base;
+        t = odStack[base];
+        odStack[base] = null;
+        infixTop = base;
 
         if (t.getKind() == AstNodeKind.PLUS) {
             final String fold = foldStrings(t);
             if (fold != null) {
+                if (endPositions != null) {
+                    removeEndPositions(endPositions, t);
+                }
                 t = factory.at(startPos).astLiteral(TypeTags.CLASS, fold);
             }
         }
@@ -972,7 +1335,7 @@ public final class ParserImpl implements Parser {
             case THIS:
                 if ((mode & EXPR) != 0) {
                     mode = EXPR;
-                    t = factory.at(pos).astIdent(names._this);
+                    t = to(factory.at(pos).astIdent(names._this));
                     lexer.nextToken();
                     if (typeArgs == null)
                         t = argumentsOpt(null, t);
@@ -984,7 +1347,7 @@ public final class ParserImpl implements Parser {
             case SUPER:
                 if ((mode & EXPR) != 0) {
                     mode = EXPR;
-                    t = superSuffix(typeArgs, factory.at(pos).astIdent(names._super));
+                    t = superSuffix(typeArgs, to(factory.at(pos).astIdent(names._super)));
                     typeArgs = null;
                 } else return illegal();
                 break;
@@ -1026,6 +1389,7 @@ public final class ParserImpl implements Parser {
                                     t = factory.at(pos).astArrayAccess(t, t1);
                                 }
                                 accept(Token.RBRACKET);
+                                toP(t);
                             }
                             break loop;
                         case LPAREN:
@@ -1043,18 +1407,18 @@ public final class ParserImpl implements Parser {
                                     case CLASS:
                                         if (typeArgs != null) return illegal();
                                         mode = EXPR;
-                                        t = factory.at(pos).astFieldAccess(t, names._class);
+                                        t = to(factory.at(pos).astFieldAccess(t, names._class));
                                         lexer.nextToken();
                                         break loop;
                                     case THIS:
                                         if (typeArgs != null) return illegal();
                                         mode = EXPR;
-                                        t = factory.at(pos).astFieldAccess(t, names._this);
+                                        t = to(factory.at(pos).astFieldAccess(t, names._this));
                                         lexer.nextToken();
                                         break loop;
                                     case SUPER:
                                         mode = EXPR;
-                                        t = factory.at(pos).astFieldAccess(t, names._super);
+                                        t = to(factory.at(pos).astFieldAccess(t, names._super));
                                         t = superSuffix(typeArgs, t);
                                         typeArgs = null;
                                         break loop;
@@ -1123,12 +1487,13 @@ public final class ParserImpl implements Parser {
                     t = factory.at(pos1).astArrayAccess(t, t1);
                 }
                 accept(Token.RBRACKET);
+                toP(t);
             } else if (lexer.token() == Token.DOT) {
                 lexer.nextToken();
                 typeArgs = typeArgumentsOpt(EXPR);
                 if (lexer.token() == Token.SUPER && (mode & EXPR) != 0) {
                     mode = EXPR;
-                    t = factory.at(pos1).astFieldAccess(t, names._super);
+                    t = to(factory.at(pos1).astFieldAccess(t, names._super));
                     lexer.nextToken();
                     t = arguments(typeArgs, t);
                     typeArgs = null;
@@ -1151,8 +1516,8 @@ public final class ParserImpl implements Parser {
         }
         while ((lexer.token() == Token.PLUSPLUS || lexer.token() == Token.SUBSUB) && (mode & EXPR) != 0) {
             mode = EXPR;
-            t = factory.at(lexer.pos()).astUnary(
-                    lexer.token() == Token.PLUSPLUS ? AstNodeKind.POSTINC : AstNodeKind.POSTDEC, t);
+            t = to(factory.at(lexer.pos()).astUnary(
+                    lexer.token() == Token.PLUSPLUS ? AstNodeKind.POSTINC : AstNodeKind.POSTDEC, t));
             lexer.nextToken();
         }
 
@@ -1178,7 +1543,7 @@ public final class ParserImpl implements Parser {
 
     // BasicType = BYTE | SHORT | CHAR | INT | LONG | FLOAT | DOUBLE | BOOLEAN
     Ast.PrimitiveType basicType() {
-        Ast.PrimitiveType t = factory.at(lexer.pos()).astPrimitiveType(typetag(lexer.token()));
+        Ast.PrimitiveType t = to(factory.at(lexer.pos()).astPrimitiveType(typetag(lexer.token())));
         lexer.nextToken();
         return t;
     }
@@ -1214,7 +1579,9 @@ public final class ParserImpl implements Parser {
     }
 
     Ast.MethodInvocation arguments(ImmList<Ast.Expression> typeArgs, Ast.Expression t) {
-        return factory.at(lexer.pos()).astMethodInvocation(typeArgs, t, arguments());
+        int pos = lexer.pos();
+        ImmList<Ast.Expression> args = arguments();
+        return factory.at(pos).astMethodInvocation(typeArgs, t, args);
     }
 
     /*   TypeArgumentsOpt = [ TypeArguments ]
@@ -1262,22 +1629,23 @@ public final class ParserImpl implements Parser {
             }
             switch (lexer.token()) {
                 case GTGTGTEQ:
-                    lexer.setToken(Token.GTGTEQ);
+                    splitClosingAngle(Token.GTGTEQ);
                     break;
                 case GTGTEQ:
-                    lexer.setToken(Token.GTEQ);
+                    splitClosingAngle(Token.GTEQ);
                     break;
                 case GTEQ:
-                    lexer.setToken(Token.EQ);
+                    splitClosingAngle(Token.EQ);
                     break;
                 case GTGTGT:
-                    lexer.setToken(Token.GTGT);
+                    splitClosingAngle(Token.GTGT);
                     break;
                 case GTGT:
-                    lexer.setToken(Token.GT);
+                    splitClosingAngle(Token.GT);
                     break;
                 default:
                     accept(Token.GT);
+                    typeArgumentsEndPos = lexer.prevEndPos();
                     break;
             }
         } else {
@@ -1296,11 +1664,11 @@ public final class ParserImpl implements Parser {
         int pos = lexer.pos();
         lexer.nextToken();
         if (lexer.token() == Token.EXTENDS) {
-            Ast.TypeBoundKind t = factory.at(lexer.pos()).astTypeBoundKind(BoundKind.EXTENDS);
+            Ast.TypeBoundKind t = to(factory.at(lexer.pos()).astTypeBoundKind(BoundKind.EXTENDS));
             lexer.nextToken();
             return factory.at(pos).astWildcard(t, type());
         } else if (lexer.token() == Token.SUPER) {
-            Ast.TypeBoundKind t = factory.at(lexer.pos()).astTypeBoundKind(BoundKind.SUPER);
+            Ast.TypeBoundKind t = to(factory.at(lexer.pos()).astTypeBoundKind(BoundKind.SUPER));
             lexer.nextToken();
             return factory.at(pos).astWildcard(t, type());
         } else if (lexer.token() == Token.IDENTIFIER) {
@@ -1317,10 +1685,20 @@ public final class ParserImpl implements Parser {
         }
     }
 
+    // Replaces the current token with its rest following the closing angle bracket of the type arguments.
+    private void splitClosingAngle(Token rest) {
+        typeArgumentsEndPos = lexer.endPos() - rest.getName().length();
+        lexer.setToken(rest);
+    }
+
     Ast.ParameterizedType typeArguments(Ast.Expression t) {
         int pos = lexer.pos();
         ImmList<Ast.Expression> args = typeArguments();
-        return factory.at(pos).astParameterizedType(t, args);
+        Ast.ParameterizedType node = factory.at(pos).astParameterizedType(t, args);
+        if (endPositions != null) {
+            endPositions.storeEnd(node, typeArgumentsEndPos);
+        }
+        return node;
     }
 
     // BracketsOpt = {"[" "]"}
@@ -1451,7 +1829,7 @@ public final class ParserImpl implements Parser {
             }
         } else {
             ImmList<Ast.Expression> dims = ImmList.nil();
-            dims.append(expression());
+            dims = dims.append(expression());
             accept(Token.RBRACKET);
             while (lexer.token() == Token.LBRACKET) {
                 int pos = lexer.pos();
@@ -1495,12 +1873,14 @@ public final class ParserImpl implements Parser {
         if (lexer.token() == Token.COMMA) {
             lexer.nextToken();
         } else if (lexer.token() != Token.RBRACE) {
-            elems = elems.append(variableInitializer());
+            // elements are prepended and reversed at the end, appending copies the list
+            elems = elems.prepend(variableInitializer());
             while (lexer.token() == Token.COMMA) {
                 lexer.nextToken();
                 if (lexer.token() == Token.RBRACE) break;
-                elems = elems.append(variableInitializer());
+                elems = elems.prepend(variableInitializer());
             }
+            elems = elems.reverse();
         }
         accept(Token.RBRACE);
         return factory.at(newpos).astNewArray(t, ImmList.<Ast.Expression>nil(), elems);
@@ -1531,24 +1911,220 @@ public final class ParserImpl implements Parser {
     Ast.Block block(int pos, long flags) {
         accept(Token.LBRACE);
         ImmList<? extends Ast.Statement> stats = blockStatements();
-        Ast.Block t = factory.at(pos).astBlock(flags, stats);
         while (lexer.token() == Token.CASE || lexer.token() == Token.DEFAULT) {
             syntaxError("orphaned", tokenToString(lexer.token()));
             switchBlockStatementGroups();
         }
         // the Block node has a field "endpos" for first char of last token, which is
         // usually but not necessarily the last char of the last token.
-        // TODO: associate endpos
-        //t.endpos = lexer.pos();
+        Ast.Block t = factory.at(pos).astBlock(flags, lexer.pos(), stats);
 
         accept(Token.RBRACE);
-        return t;
+        return toP(t);
     }
 
     private Ast.Block block() {
         return block(lexer.pos(), 0);
     }
 
+    /*
+     *  MethodBody = Block, the block is skipped in lazy mode and when the declarations are reported
+     */
+    private Ast.Block bodyBlock(int pos, long flags) {
+        final boolean lazy = lazyBodies && unitSource != null && listener == null;
+        if (!lazy && listener == null) {
+            return block(pos, flags);
+        }
+
+        final int bodyPos = lexer.pos();
+        int depth = 0;
+        // lexical errors of the lazy body are reported when it is parsed
+        lexer.setQuiet(lazy);
+        for (;;) {
+            final Token token = lexer.token();
+            if (token == Token.LBRACE) {
+                ++depth;
+            } else if (token == Token.RBRACE && --depth == 0) {
+                break;
+            } else if (token == Token.EOF) {
+                lexer.setQuiet(false);
+                accept(Token.RBRACE);
+                return factory.at(pos).astBlock(flags, ImmList.<Ast.Statement>nil());
+            } else if (token == Token.IDENTIFIER && listener != null) {
+                listener.onIdentifier(lexer.name(), lexer.pos());
+            }
+            lexer.nextToken();
+        }
+        lexer.setQuiet(false);
+
+        final int endPos = lexer.pos();
+        lexer.nextToken();
+
+        if (!lazy) {
+            // declarations of the body are not reported
+            return factory.at(pos).astBlock(flags, ImmList.<Ast.Statement>nil());
+        }
+
+        if (lazyUnit == null) {
+            lazyUnit = new LazyUnit(unitSource, lexer.copyAt(0), docComments, endPositions);
+        }
+        return factory.at(pos).astLazyBlock(flags, endPos, new LazyBody(lazyUnit, bodyPos));
+    }
+
+    /*
+     *  Skips the field initializer or the annotation default value when the declarations are reported,
+     *  so that the expression tree is not built. Stops at the "," or ";" outside of the brackets, the type
+     *  arguments that follow "new" or "." are the brackets too, e.g. new HashMap<String, String>().
+     */
+    private void skipInitializer() {
+        int depth = 0;
+        int typeArgumentsDepth = 0;
+        boolean typeArgumentsAllowed = false;
+        for (;;) {
+            final Token token = lexer.token();
+            switch (token) {
+                case EOF:
+                    return;
+                case COMMA:
+                    if (depth == 0 && typeArgumentsDepth == 0) {
+                        return;
+                    }
+                    break;
+                case SEMI:
+                    if (depth == 0) {
+                        return;
+                    }
+                    break;
+                case LPAREN:
+                case LBRACKET:
+                case LBRACE:
+                    ++depth;
+                    break;
+                case RPAREN:
+                case RBRACKET:
+                case RBRACE:
+                    if (depth == 0) {
+                        return;
+                    }
+                    --depth;
+                    break;
+                case LT:
+                    if (depth == 0 && (typeArgumentsAllowed || typeArgumentsDepth > 0)) {
+                        ++typeArgumentsDepth;
+                    }
+                    break;
+                case GT:
+                    typeArgumentsDepth = Math.max(0, typeArgumentsDepth - 1);
+                    break;
+                case GTGT:
+                    typeArgumentsDepth = Math.max(0, typeArgumentsDepth - 2);
+                    break;
+                case GTGTGT:
+                    typeArgumentsDepth = Math.max(0, typeArgumentsDepth - 3);
+                    break;
+                case IDENTIFIER:
+                    listener.onIdentifier(lexer.name(), lexer.pos());
+                    break;
+                default:
+                    break;
+            }
+            typeArgumentsAllowed = token == Token.NEW || token == Token.DOT ||
+                    (typeArgumentsAllowed && token == Token.IDENTIFIER);
+            lexer.nextToken();
+        }
+    }
+
+    /*
+     *  Skips the parenthesized arguments of the annotation or the enum constant when the declarations are reported,
+     *  so that the expression trees are not built.
+     */
+    private void skipArguments() {
+        int depth = 0;
+        for (;;) {
+            final Token token = lexer.token();
+            if (token == Token.LPAREN) {
+                ++depth;
+            } else if (token == Token.RPAREN && --depth == 0) {
+                break;
+            } else if (token == Token.EOF) {
+                accept(Token.RPAREN);
+                return;
+            } else if (token == Token.IDENTIFIER) {
+                listener.onIdentifier(lexer.name(), lexer.pos());
+            }
+            lexer.nextToken();
+        }
+        lexer.nextToken();
+    }
+
+    /**
+     * State shared by the lazy bodies of one compilation unit. Bodies add nodes to the tables of the unit,
+     * so that they are parsed one at a time under the lock of this object.
+     */
+    private static final class LazyUnit {
+        final com.truward.jnova.util.source.Source source;
+        final Lexer lexer;
+        final DocCommentTable docComments;
+        final EndPosTable endPositions;
+
+        /** Diagnostics of the parsed bodies, see {@link Ast.CompilationUnit#getBodyDiagnostics()}. */
+        final List<Diagnostic> diagnostics = new CopyOnWriteArrayList<Diagnostic>();
+
+        /** Unit of the bodies, null if the bodies are not a part of the compilation unit. */
+        Ast.CompilationUnit unit;
+
+        LazyUnit(com.truward.jnova.util.source.Source source, Lexer lexer, DocCommentTable docComments,
+                 EndPosTable endPositions) {
+            this.source = source;
+            this.lexer = lexer;
+            this.docComments = docComments;
+            this.endPositions = endPositions;
+        }
+    }
+
+    /**
+     * Parses lazy block with the new parser over the source of the block. Diagnostics of the block are
+     * collected by its own log fixed to the source of the unit, the log of this parser is not used.
+     */
+    private final class LazyBody implements Ast.BlockParser {
+        private final LazyUnit lazyUnit;
+        private final int bodyPos;
+
+        LazyBody(LazyUnit lazyUnit, int bodyPos) {
+            this.lazyUnit = lazyUnit;
+            this.bodyPos = bodyPos;
+        }
+
+        @Override
+        public ImmList<? extends Ast.Statement> parseStatements(Ast.Block block) {
+            final CollectingDiagnosticsLog bodyLog = new CollectingDiagnosticsLog();
+            bodyLog.setSource(lazyUnit.source);
+
+            final Ast.Block parsed;
+            synchronized (lazyUnit) {
+                final ParserImpl bodyParser = new ParserImpl(lazyUnit.lexer.copyAt(bodyPos, bodyLog), bodyLog,
+                        bundle, names, source);
+                bodyParser.docComments = lazyUnit.docComments;
+                bodyParser.endPositions = lazyUnit.endPositions;
+                final Ast.CompilationUnit unit = lazyUnit.unit;
+                if (unit != null) {
+                    bodyParser.factory.setNodeCount(unit.getNodeCount());
+                }
+                bodyParser.lexer.nextToken();
+                parsed = bodyParser.block(bodyPos, block.getFlags());
+                if (unit != null) {
+                    unit.setNodeCount(bodyParser.factory.getNodeCount());
+                }
+                if (lazyUnit.endPositions != null) {
+                    // lazy block keeps its own end position
+                    lazyUnit.endPositions.remove(parsed);
+                }
+            }
+            lazyUnit.diagnostics.addAll(bodyLog.getDiagnostics());
+            return parsed.getStatements();
+        }
+    }
+
     /*  BlockStatements = { BlockStatement }
      *  BlockStatement  = LocalVariableDeclarationStatement
      *                  | ClassOrInterfaceOrEnumDeclaration
@@ -1573,7 +2149,7 @@ public final class ParserImpl implements Parser {
                     break;
                 case MONKEYS_AT:
                 case FINAL: {
-                    String dc = lexer.docComment();
+                    long dc = docComment();
                     Ast.Modifiers mods = modifiersOpt();
                     if (lexer.token() == Token.INTERFACE ||
                             lexer.token() == Token.CLASS ||
@@ -1581,14 +2157,16 @@ public final class ParserImpl implements Parser {
                         statements = statements.append(classOrInterfaceOrEnumDeclaration(mods, dc));
                     } else {
                         Ast.Expression t = type();
-                        statements = statements.appendList(variableDeclarators(mods, t));
+                        ImmList<Ast.VariableDecl> vdefs = variableDeclarators(mods, t);
                         // A "LocalVariableDeclarationStatement" subsumes the terminating semicolon
                         accept(Token.SEMI);
+                        toP(vdefs.last());
+                        statements = statements.appendList(vdefs);
                     }
                     break;
                 }
                 case ABSTRACT: case STRICTFP: {
-                    String dc = lexer.docComment();
+                    long dc = docComment();
                     Ast.Modifiers mods = modifiersOpt();
                     statements = statements.append(classOrInterfaceOrEnumDeclaration(mods, dc));
                     break;
@@ -1596,7 +2174,7 @@ public final class ParserImpl implements Parser {
                 case INTERFACE:
                 case CLASS:
                     statements = statements.append(classOrInterfaceOrEnumDeclaration(modifiersOpt(),
-                            lexer.docComment()));
+                            docComment()));
                     break;
                 case ENUM:
                 case ASSERT:
@@ -1604,7 +2182,7 @@ public final class ParserImpl implements Parser {
                         logError("local.enum");
                         statements = statements.
                                 append(classOrInterfaceOrEnumDeclaration(modifiersOpt(),
-                                        lexer.docComment()));
+                                        docComment()));
                         break;
                     } else if (allowAsserts && lexer.token() == Token.ASSERT) {
                         statements = statements.append(statement());
@@ -1615,6 +2193,7 @@ public final class ParserImpl implements Parser {
                     Symbol name = lexer.name();
                     Ast.Expression t = term(EXPR | TYPE);
                     if (lexer.token() == Token.COLON && t.getKind() == AstNodeKind.IDENT) {
+                        discard(t);
                         lexer.nextToken();
                         Ast.Statement stat = statement();
                         statements = statements.append(factory.at(pos).astLabeledStatement(name, stat));
@@ -1625,13 +2204,16 @@ public final class ParserImpl implements Parser {
                         pos = lexer.pos();
                         Ast.Modifiers mods = factory.at(Position.NOPOS).astModifiers(0);
                         factory.at(pos);
-                        statements = statements.appendList(variableDeclarators(mods, t));
+                        ImmList<Ast.VariableDecl> vdefs = variableDeclarators(mods, t);
                         // A "LocalVariableDeclarationStatement" subsumes the terminating semicolon
                         accept(Token.SEMI);
+                        toP(vdefs.last());
+                        statements = statements.appendList(vdefs);
                     } else {
                         // This Exec is an "ExpressionStatement"; it subsumes the terminating semicolon
-                        statements = statements.append(factory.at(pos).astExpressionStatement(checkExprStat(t)));
+                        Ast.ExpressionStatement stat = factory.at(pos).astExpressionStatement(checkExprStat(t));
                         accept(Token.SEMI);
+                        statements = statements.append(toP(stat));
                     }
             }
 
@@ -1722,7 +2304,7 @@ public final class ParserImpl implements Parser {
                 Ast.Expression cond = parExpression();
                 Ast.DoWhileLoop t = factory.at(pos).astDoWhileLoop(body, cond);
                 accept(Token.SEMI);
-                return t;
+                return toP(t);
             }
             case TRY: {
                 lexer.nextToken();
@@ -1749,7 +2331,7 @@ public final class ParserImpl implements Parser {
                 ImmList<Ast.Case> cases = switchBlockStatementGroups();
                 Ast.Switch t = factory.at(pos).astSwitch(selector, cases);
                 accept(Token.RBRACE);
-                return t;
+                return toP(t);
             }
             case SYNCHRONIZED: {
                 lexer.nextToken();
@@ -1762,14 +2344,14 @@ public final class ParserImpl implements Parser {
                 Ast.Expression result = lexer.token() == Token.SEMI ? null : expression();
                 Ast.Return t = factory.at(pos).astReturn(result);
                 accept(Token.SEMI);
-                return t;
+                return toP(t);
             }
             case THROW: {
                 lexer.nextToken();
                 Ast.Expression exc = expression();
                 Ast.Throw t = factory.at(pos).astThrow(exc);
                 accept(Token.SEMI);
-                return t;
+                return toP(t);
             }
             case BREAK: {
                 lexer.nextToken();
@@ -1777,7 +2359,7 @@ public final class ParserImpl implements Parser {
                         lexer.token() == Token.ENUM) ? ident() : null;
                 Ast.Break t = factory.at(pos).astBreak(label);
                 accept(Token.SEMI);
-                return t;
+                return toP(t);
             }
             case CONTINUE: {
                 lexer.nextToken();
@@ -1785,7 +2367,7 @@ public final class ParserImpl implements Parser {
                         lexer.token() == Token.ENUM) ? ident() : null;
                 Ast.Continue t =  factory.at(pos).astContinue(label);
                 accept(Token.SEMI);
-                return t;
+                return toP(t);
             }
             case SEMI:
                 lexer.nextToken();
@@ -1807,7 +2389,7 @@ public final class ParserImpl implements Parser {
                     }
                     Ast.Assert t = factory.at(pos).astAssert(assertion, message);
                     accept(Token.SEMI);
-                    return t;
+                    return toP(t);
                 }
                 /* else fall through to default case */
             }
@@ -1816,6 +2398,7 @@ public final class ParserImpl implements Parser {
                 Symbol name = lexer.name();
                 Ast.Expression expr = expression();
                 if (lexer.token() == Token.COLON && expr.getKind() == AstNodeKind.IDENT) {
+                    discard(expr);
                     lexer.nextToken();
                     Ast.Statement stat = statement();
                     return factory.at(pos).astLabeledStatement(name, stat);
@@ -1823,7 +2406,7 @@ public final class ParserImpl implements Parser {
                     // This Exec is an "ExpressionStatement"; it subsumes the terminating semicolon
                     Ast.ExpressionStatement stat = factory.at(pos).astExpressionStatement(checkExprStat(expr));
                     accept(Token.SEMI);
-                    return stat;
+                    return toP(stat);
                 }
         }
     }
@@ -1966,6 +2549,10 @@ public final class ParserImpl implements Parser {
     }
 
     private ImmList<Ast.Expression> annotationFieldValuesOpt() {
+        if (lexer.token() == Token.LPAREN && listener != null) {
+            skipArguments();
+            return ImmList.nil();
+        }
         return (lexer.token() == Token.LPAREN) ?
                 annotationFieldValues() :
                 ImmList.<Ast.Expression>nil();
@@ -2020,11 +2607,11 @@ public final class ParserImpl implements Parser {
                 accept(Token.LBRACE);
                 ImmList<Ast.Expression> buf = ImmList.nil();
                 if (lexer.token() != Token.RBRACE) {
-                    buf.append(annotationValue());
+                    buf = buf.append(annotationValue());
                     while (lexer.token() == Token.COMMA) {
                         lexer.nextToken();
                         if (lexer.token() == Token.RBRACE) break;
-                        buf.append(annotationValue());
+                        buf = buf.append(annotationValue());
                     }
                 }
                 accept(Token.RBRACE);
@@ -2039,27 +2626,28 @@ public final class ParserImpl implements Parser {
     /*  VariableDeclarators = VariableDeclarator { "," VariableDeclarator }
      */
     private  ImmList<Ast.VariableDecl> variableDeclarators(Ast.Modifiers mods, Ast.Expression type) {
-        return variableDeclaratorsRest(lexer.pos(), mods, type, ident(), false, null);
+        return variableDeclaratorsRest(lexer.pos(), mods, type, ident(), false, NO_DOC_COMMENT);
     }
 
     /*  VariableDeclaratorsRest = VariableDeclaratorRest { "," VariableDeclarator }
      *  ConstantDeclaratorsRest = ConstantDeclaratorRest { "," ConstantDeclarator }
      *
      *  @param reqInit  Is an initializer always required?
-     *  @param dc       The documentation comment for the variable declarations, or null.
+     *  @param dc       The documentation comment for the variable declarations, see {@link #docComment()}.
      */
     private ImmList<Ast.VariableDecl> variableDeclaratorsRest(int pos,
                                                               Ast.Modifiers mods,
                                                               Ast.Expression type,
                                                               Symbol name,
                                                               boolean reqInit,
-                                                              String dc) {
+                                                              long dc) {
         ImmList<Ast.VariableDecl> variables = ImmList.nil();
 
         variables = variables.append(variableDeclaratorRest(pos, mods, type, name, reqInit, dc));
 
         while (lexer.token() == Token.COMMA) {
             // All but last of multiple declarators subsume a comma
+            to(variables.last());
             lexer.nextToken();
             variables = variables.append(variableDeclarator(mods, type, reqInit, dc));
         }
@@ -2069,7 +2657,7 @@ public final class ParserImpl implements Parser {
     /*  VariableDeclarator = Ident VariableDeclaratorRest
      *  ConstantDeclarator = Ident ConstantDeclaratorRest
      */
-    private Ast.VariableDecl variableDeclarator(Ast.Modifiers mods, Ast.Expression type, boolean reqInit, String dc) {
+    private Ast.VariableDecl variableDeclarator(Ast.Modifiers mods, Ast.Expression type, boolean reqInit, long dc) {
         return variableDeclaratorRest(lexer.pos(), mods, type, ident(), reqInit, dc);
     }
 
@@ -2077,15 +2665,19 @@ public final class ParserImpl implements Parser {
      *  ConstantDeclaratorRest = BracketsOpt "=" VariableInitializer
      *
      *  @param reqInit  Is an initializer always required?
-     *  @param dc       The documentation comment for the variable declarations, or null.
+     *  @param dc       The documentation comment for the variable declarations, see {@link #docComment()}.
      */
     private Ast.VariableDecl variableDeclaratorRest(int pos, Ast.Modifiers mods, Ast.Expression type, Symbol name,
-                                                    boolean reqInit, String dc) {
+                                                    boolean reqInit, long dc) {
         type = bracketsOpt(type);
         Ast.Expression init = null;
         if (lexer.token() == Token.EQ) {
             lexer.nextToken();
-            init = variableInitializer();
+            if (listener != null) {
+                skipInitializer();
+            } else {
+                init = variableInitializer();
+            }
         }
         else if (reqInit) syntaxError(lexer.pos(), "expected", tokenToString(Token.EQ));
         Ast.VariableDecl result =
@@ -2198,7 +2790,12 @@ public final class ParserImpl implements Parser {
                                           Symbol name,
                                           ImmList<Ast.TypeParameter> typarams,
                                           boolean isVoid,
-                                          String dc) {
+                                          long dc,
+                                          int declPos,
+                                          Symbol reportedName,
+                                          int typeStart,
+                                          int typeEnd) {
+        final int signatureStart = lexer.pos();
         ImmList<Ast.VariableDecl> params = formalParameters();
         if (!isVoid) type = bracketsOpt(type);
         ImmList<Ast.Expression> thrown = ImmList.nil();
@@ -2206,15 +2803,25 @@ public final class ParserImpl implements Parser {
             lexer.nextToken();
             thrown = qualidentList();
         }
+        final boolean report = reporting();
+        if (report) {
+            listener.enterMethod(type == null ? Outline.CONSTRUCTOR : Outline.METHOD, (int) mods.getFlags(),
+                    reportedName, declPos, typeStart, typeEnd, signatureStart, lexer.prevEndPos());
+        }
         Ast.Block body = null;
         Ast.Expression defaultValue;
         if (lexer.token() == Token.LBRACE) {
-            body = block();
+            body = bodyBlock(lexer.pos(), 0);
             defaultValue = null;
         } else {
             if (lexer.token() == Token.DEFAULT) {
                 accept(Token.DEFAULT);
-                defaultValue = annotationValue();
+                if (listener != null) {
+                    skipInitializer();
+                    defaultValue = null;
+                } else {
+                    defaultValue = annotationValue();
+                }
             } else {
                 defaultValue = null;
             }
@@ -2227,6 +2834,9 @@ public final class ParserImpl implements Parser {
                 }
             }
         }
+        if (report) {
+            listener.exitMethod(lexer.prevEndPos());
+        }
 
         Ast.MethodDecl result = factory.at(pos).astMethodDecl(mods, name, type, typarams,
                 params, thrown,
@@ -2250,6 +2860,11 @@ public final class ParserImpl implements Parser {
             }
         }
 
+        // members of the anonymous classes are not reported
+        final boolean anonymous = className == names.empty;
+        if (anonymous) {
+            ++anonymousDepth;
+        }
         ImmList<Ast.Node> defs = ImmList.nil();
         while (lexer.token() != Token.RBRACE && lexer.token() != Token.EOF) {
             defs = defs.appendList(classOrInterfaceBodyDeclaration(className, isInterface));
@@ -2258,6 +2873,9 @@ public final class ParserImpl implements Parser {
                 skip(false, true, true, false);
             }
         }
+        if (anonymous) {
+            --anonymousDepth;
+        }
 
         accept(Token.RBRACE);
         return defs;
@@ -2285,7 +2903,7 @@ public final class ParserImpl implements Parser {
             lexer.nextToken();
             return ImmList.<Ast.Node>of(factory.at(Position.NOPOS).astBlock(0, ImmList.<Ast.Statement>nil()));
         } else {
-            String dc = lexer.docComment();
+            long dc = docComment();
             int pos = lexer.pos();
             Ast.Modifiers mods = modifiersOpt();
             if (lexer.token() == Token.CLASS ||
@@ -2295,8 +2913,18 @@ public final class ParserImpl implements Parser {
             } else if (lexer.token() == Token.LBRACE && !isInterface &&
                     (mods.getFlags() & Flags.StandardFlags & ~Flags.STATIC) == 0 &&
                     mods.getAnnotations().isEmpty()) {
-                return ImmList.<Ast.Node>of(block(pos, mods.getFlags()));
+                discard(mods);
+                final boolean report = reporting();
+                if (report) {
+                    listener.enterInitializer((int) mods.getFlags(), pos);
+                }
+                final Ast.Block block = bodyBlock(pos, mods.getFlags());
+                if (report) {
+                    listener.exitInitializer(lexer.prevEndPos());
+                }
+                return ImmList.<Ast.Node>of(block);
             } else {
+                final int declPos = pos;
                 pos = lexer.pos();
                 ImmList<Ast.TypeParameter> typarams = typeParametersOpt();
                 // Hack alert:  if there are type arguments but no Modifiers, the start
@@ -2304,36 +2932,50 @@ public final class ParserImpl implements Parser {
                 // should be an AST node for type parameters (BugId 5005090).
                 if (typarams.size() > 0 && mods.getPos() == Position.NOPOS) {
                     mods.setPos(pos);
+                    if (endPositions != null) {
+                        endPositions.storeEnd(mods, pos);
+                    }
                 }
                 Symbol name = lexer.name();
                 pos = lexer.pos();
                 Ast.Expression type;
                 boolean isVoid = lexer.token() == Token.VOID;
                 if (isVoid) {
-                    type = factory.at(pos).astPrimitiveType(TypeTags.VOID);
+                    type = to(factory.at(pos).astPrimitiveType(TypeTags.VOID));
                     lexer.nextToken();
                 } else {
                     type = type();
                 }
+                final int typeEnd = lexer.prevEndPos();
                 if (lexer.token() == Token.LPAREN && !isInterface && type.getKind() == AstNodeKind.IDENT) {
                     if (isInterface || name != className) {
                         logError("invalid.meth.decl.ret.type.req");
                     }
+                    // constructor name is not a part of the tree
+                    discard(type);
                     return ImmList.of(methodDeclaratorRest(
                             pos, mods, null, names.init, typarams,
-                            true, dc));
+                            true, dc, declPos, name, Outline.NOPOS, Outline.NOPOS));
                 } else {
+                    final int typeStart = pos;
                     pos = lexer.pos();
                     name = ident();
                     if (lexer.token() == Token.LPAREN) {
                         return ImmList.of(methodDeclaratorRest(
                                 pos, mods, type, name, typarams,
-                                isVoid, dc));
+                                isVoid, dc, declPos, name, typeStart, typeEnd));
                     } else if (!isVoid && typarams.isEmpty()) {
                         final ImmList<? extends Ast.Node> defs = variableDeclaratorsRest(
                                 pos, mods, type, name, isInterface, dc);
+                        if (reporting()) {
+                            for (final Ast.Node def : defs) {
+                                listener.onField((int) mods.getFlags(), ((Ast.VariableDecl) def).getName(),
+                                        def.getPos(), typeStart, typeEnd);
+                            }
+                        }
 
                         accept(Token.SEMI);
+                        toP(defs.last());
 
                         return defs;
                     } else {
@@ -2355,7 +2997,7 @@ public final class ParserImpl implements Parser {
     /*  ClassOrInterfaceOrEnumDeclaration = ModifiersOpt
      *           (ClassDeclaration | InterfaceDeclaration | EnumDeclaration)
      */
-    private Ast.Statement classOrInterfaceOrEnumDeclaration(Ast.Modifiers mods, String dc) {
+    private Ast.Statement classOrInterfaceOrEnumDeclaration(Ast.Modifiers mods, long dc) {
         if (lexer.token() == Token.CLASS) {
             return classDeclaration(mods, dc);
         } else if (lexer.token() == Token.INTERFACE) {
@@ -2400,10 +3042,11 @@ public final class ParserImpl implements Parser {
     /*  ClassDeclaration = CLASS Ident TypeParametersOpt [EXTENDS Type]
      *                     [IMPLEMENTS TypeList] ClassBody
      */
-    private Ast.ClassDecl classDeclaration(Ast.Modifiers mods, String dc) {
+    private Ast.ClassDecl classDeclaration(Ast.Modifiers mods, long dc) {
         int pos = lexer.pos();
         accept(Token.CLASS);
         Symbol name = ident();
+        final int signatureStart = lexer.pos();
 
         ImmList<Ast.TypeParameter> typarams = typeParametersOpt();
 
@@ -2417,7 +3060,14 @@ public final class ParserImpl implements Parser {
             lexer.nextToken();
             implementing = typeList();
         }
+        final boolean report = reporting();
+        if (report) {
+            enterClass(mods, pos, name, signatureStart);
+        }
         ImmList<Ast.Node> defs = classOrInterfaceBody(name, false);
+        if (report) {
+            listener.exitClass(lexer.prevEndPos());
+        }
         Ast.ClassDecl result = factory.at(pos).astClassDecl(
                 mods, name, typarams, extending, implementing, defs);
         attach(result, dc);
@@ -2427,10 +3077,11 @@ public final class ParserImpl implements Parser {
     /*  InterfaceDeclaration = INTERFACE Ident TypeParametersOpt
      *                         [EXTENDS TypeList] InterfaceBody
      */
-    private Ast.ClassDecl interfaceDeclaration(Ast.Modifiers mods, String dc) {
+    private Ast.ClassDecl interfaceDeclaration(Ast.Modifiers mods, long dc) {
         int pos = lexer.pos();
         accept(Token.INTERFACE);
         Symbol name = ident();
+        final int signatureStart = lexer.pos();
 
         ImmList<Ast.TypeParameter> typarams = typeParametersOpt();
 
@@ -2439,7 +3090,14 @@ public final class ParserImpl implements Parser {
             lexer.nextToken();
             extending = typeList();
         }
+        final boolean report = reporting();
+        if (report) {
+            enterClass(mods, pos, name, signatureStart);
+        }
         ImmList<Ast.Node> defs = classOrInterfaceBody(name, true);
+        if (report) {
+            listener.exitClass(lexer.prevEndPos());
+        }
         Ast.ClassDecl result = factory.at(pos).astClassDecl(
                 mods, name, typarams, null, extending, defs);
         attach(result, dc);
@@ -2448,10 +3106,11 @@ public final class ParserImpl implements Parser {
 
     /*  EnumDeclaration = ENUM Ident [IMPLEMENTS TypeList] EnumBody
      */
-    private Ast.ClassDecl enumDeclaration(Ast.Modifiers mods, String dc) {
+    private Ast.ClassDecl enumDeclaration(Ast.Modifiers mods, long dc) {
         int pos = lexer.pos();
         accept(Token.ENUM);
         Symbol name = ident();
+        final int signatureStart = lexer.pos();
 
         ImmList<Ast.Expression> implementing = ImmList.nil();
         if (lexer.token() == Token.IMPLEMENTS) {
@@ -2459,9 +3118,15 @@ public final class ParserImpl implements Parser {
             implementing = typeList();
         }
 
+        final boolean report = reporting();
+        if (report) {
+            enterClass(mods, pos, name, signatureStart);
+        }
         ImmList<Ast.Node> defs = enumBody(name);
-        Ast.Modifiers newMods = factory.at(mods.getPos())
-                .astModifiers(mods.getFlags() | Flags.ENUM, mods.getAnnotations());
+        if (report) {
+            listener.exitClass(lexer.prevEndPos());
+        }
+        Ast.Modifiers newMods = replaceModifiers(mods, mods.getFlags() | Flags.ENUM);
 
         Ast.ClassDecl result = factory.at(pos)
                 .astClassDecl(newMods, name, ImmList.<Ast.TypeParameter>nil(),
@@ -2514,7 +3179,7 @@ public final class ParserImpl implements Parser {
     /*  EnumeratorDeclaration = AnnotationsOpt [TypeArguments] IDENTIFIER [ Arguments ] [ "{" ClassBody "}" ]
      */
     private Ast.Node enumeratorDeclaration(Symbol enumName) {
-        String dc = lexer.docComment();
+        long dc = docComment();
         int flags = Flags.PUBLIC | Flags.STATIC | Flags.FINAL | Flags.ENUM;
         if (lexer.deprecatedFlag()) {
             flags |= Flags.DEPRECATED;
@@ -2527,14 +3192,23 @@ public final class ParserImpl implements Parser {
         int identPos = lexer.pos();
         Symbol name = ident();
         int createPos = lexer.pos();
-        ImmList<Ast.Expression> args = (lexer.token() == Token.LPAREN)
-                ? arguments() : ImmList.<Ast.Expression>nil();
+        ImmList<Ast.Expression> args = ImmList.nil();
+        if (lexer.token() == Token.LPAREN) {
+            if (listener != null) {
+                skipArguments();
+            } else {
+                args = arguments();
+            }
+        }
         Ast.ClassDecl body = null;
         if (lexer.token() == Token.LBRACE) {
             Ast.Modifiers mods1 = factory.at(Position.NOPOS).astModifiers(Flags.ENUM | Flags.STATIC, ImmList.<Ast.Annotation>nil());
             ImmList<Ast.Node> defs = classOrInterfaceBody(names.empty, false);
             body = factory.at(identPos).astAnonymousClassDecl(names, mods1, defs);
         }
+        if (reporting()) {
+            listener.onEnumConstant(flags, name, identPos);
+        }
         if (args.isEmpty() && body == null)
             createPos = Position.NOPOS;
         Ast.Ident ident = factory.at(Position.NOPOS).astIdent(enumName);
@@ -2642,12 +3316,22 @@ public final class ParserImpl implements Parser {
         // check whether flags gets modified, if yes - create another modifiers instance
         if ((mods.getFlags() & flags) != flags) {
             // TODO: Due to mutability - recreate modifiers - think of better way
-            mods = factory.astModifiers(mods.getFlags() | flags, mods.getAnnotations());
+            mods = replaceModifiers(mods, mods.getFlags() | flags);
         }
 
         return mods;
     }
 
+    // Creates the modifiers with the given flags in place of the parsed ones.
+    private Ast.Modifiers replaceModifiers(Ast.Modifiers mods, long flags) {
+        final Ast.Modifiers result = factory.at(mods.getPos()).astModifiers(flags, mods.getAnnotations());
+        if (endPositions != null && mods.getPos() != Position.NOPOS) {
+            endPositions.storeEnd(result, endPositions.getEndPos(mods));
+            discard(mods);
+        }
+        return result;
+    }
+
     /*  FormalParameter = { FINAL | '@' Annotation } Type VariableDeclaratorId
      *  LastFormalParameter = { FINAL | '@' Annotation } Type '...' Ident | FormalParameter
      */
@@ -2657,9 +3341,9 @@ public final class ParserImpl implements Parser {
         if (lexer.token() == Token.ELLIPSIS) {
             checkVarargs();
 
-            mods = factory.astModifiers(mods.getFlags() | Flags.VARARGS, mods.getAnnotations());
+            mods = replaceModifiers(mods, mods.getFlags() | Flags.VARARGS);
 
-            type = factory.at(lexer.pos()).astArrayType(type);
+            type = to(factory.at(lexer.pos()).astArrayType(type));
             lexer.nextToken();
         }
 
@@ -2688,20 +3372,66 @@ public final class ParserImpl implements Parser {
             case AstNodeKind.ERRONEOUS:
                 return t;
             default:
-                log.error(bundle.message("not.stmt"), Offset.at(t.getPos()));
+                log.report(Diagnostic.error(bundle, Offset.at(t.getPos()), "not.stmt"));
                 return factory.at(t.getPos()).astErroneous(ImmList.<Ast.Node>of(t));
         }
     }
 
+    /** Operation tags of the binary operators indexed by the token ordinals, -1 for the other tokens. */
+    private static final int[] OPTAGS = new int[Token.values().length];
+
+    /** Precedences of the binary operators indexed by the token ordinals, -1 for the other tokens. */
+    private static final int[] PRECEDENCES = new int[Token.values().length];
+
+    static {
+        Arrays.fill(OPTAGS, -1);
+        Arrays.fill(PRECEDENCES, -1);
+        binop(Token.BARBAR, AstNodeKind.OR);
+        binop(Token.AMPAMP, AstNodeKind.AND);
+        binop(Token.BAR, AstNodeKind.BITOR);
+        binop(Token.BAREQ, AstNodeKind.BITOR_ASG);
+        binop(Token.CARET, AstNodeKind.BITXOR);
+        binop(Token.CARETEQ, AstNodeKind.BITXOR_ASG);
+        binop(Token.AMP, AstNodeKind.BITAND);
+        binop(Token.AMPEQ, AstNodeKind.BITAND_ASG);
+        binop(Token.EQEQ, AstNodeKind.EQ);
+        binop(Token.BANGEQ, AstNodeKind.NE);
+        binop(Token.LT, AstNodeKind.LT);
+        binop(Token.GT, AstNodeKind.GT);
+        binop(Token.LTEQ, AstNodeKind.LE);
+        binop(Token.GTEQ, AstNodeKind.GE);
+        binop(Token.LTLT, AstNodeKind.SL);
+        binop(Token.LTLTEQ, AstNodeKind.SL_ASG);
+        binop(Token.GTGT, AstNodeKind.SR);
+        binop(Token.GTGTEQ, AstNodeKind.SR_ASG);
+        binop(Token.GTGTGT, AstNodeKind.USR);
+        binop(Token.GTGTGTEQ, AstNodeKind.USR_ASG);
+        binop(Token.PLUS, AstNodeKind.PLUS);
+        binop(Token.PLUSEQ, AstNodeKind.PLUS_ASG);
+        binop(Token.SUB, AstNodeKind.MINUS);
+        binop(Token.SUBEQ, AstNodeKind.MINUS_ASG);
+        binop(Token.STAR, AstNodeKind.MUL);
+        binop(Token.STAREQ, AstNodeKind.MUL_ASG);
+        binop(Token.SLASH, AstNodeKind.DIV);
+        binop(Token.SLASHEQ, AstNodeKind.DIV_ASG);
+        binop(Token.PERCENT, AstNodeKind.MOD);
+        binop(Token.PERCENTEQ, AstNodeKind.MOD_ASG);
+        binop(Token.INSTANCEOF, AstNodeKind.TYPETEST);
+    }
+
+    private static void binop(Token token, int tag) {
+        OPTAGS[token.ordinal()] = tag;
+        PRECEDENCES[token.ordinal()] = AstInfo.opPrec(tag);
+    }
+
     /**
      * Return precedence of operator represented by token,
-     * -1 if token is not a binary operator. {}@see AstInfo#opPrec(int)}
+     * -1 if token is not a binary operator. {@see AstInfo#opPrec(int)}
      * @param token Token.
      * @return Precedence.
      */
     private static int prec(Token token) {
-        int oc = optag(token);
-        return (oc >= 0) ? AstInfo.opPrec(oc) : -1;
+        return PRECEDENCES[token.ordinal()];
     }
 
     /**
@@ -2711,72 +3441,7 @@ public final class ParserImpl implements Parser {
      * @return Ast node kind.
      */
     private static int optag(Token token) {
-        switch (token) {
-            case BARBAR:
-                return AstNodeKind.OR;
-            case AMPAMP:
-                return AstNodeKind.AND;
-            case BAR:
-                return AstNodeKind.BITOR;
-            case BAREQ:
-                return AstNodeKind.BITOR_ASG;
-            case CARET:
-                return AstNodeKind.BITXOR;
-            case CARETEQ:
-                return AstNodeKind.BITXOR_ASG;
-            case AMP:
-                return AstNodeKind.BITAND;
-            case AMPEQ:
-                return AstNodeKind.BITAND_ASG;
-            case EQEQ:
-                return AstNodeKind.EQ;
-            case BANGEQ:
-                return AstNodeKind.NE;
-            case LT:
-                return AstNodeKind.LT;
-            case GT:
-                return AstNodeKind.GT;
-            case LTEQ:
-                return AstNodeKind.LE;
-            case GTEQ:
-                return AstNodeKind.GE;
-            case LTLT:
-                return AstNodeKind.SL;
-            case LTLTEQ:
-                return AstNodeKind.SL_ASG;
-            case GTGT:
-                return AstNodeKind.SR;
-            case GTGTEQ:
-                return AstNodeKind.SR_ASG;
-            case GTGTGT:
-                return AstNodeKind.USR;
-            case GTGTGTEQ:
-                return AstNodeKind.USR_ASG;
-            case PLUS:
-                return AstNodeKind.PLUS;
-            case PLUSEQ:
-                return AstNodeKind.PLUS_ASG;
-            case SUB:
-                return AstNodeKind.MINUS;
-            case SUBEQ:
-                return AstNodeKind.MINUS_ASG;
-            case STAR:
-                return AstNodeKind.MUL;
-            case STAREQ:
-                return AstNodeKind.MUL_ASG;
-            case SLASH:
-                return AstNodeKind.DIV;
-            case SLASHEQ:
-                return AstNodeKind.DIV_ASG;
-            case PERCENT:
-                return AstNodeKind.MOD;
-            case PERCENTEQ:
-                return AstNodeKind.MOD_ASG;
-            case INSTANCEOF:
-                return AstNodeKind.TYPETEST;
-            default:
-                return -1;
-        }
+        return OPTAGS[token.ordinal()];
     }
 
     /**
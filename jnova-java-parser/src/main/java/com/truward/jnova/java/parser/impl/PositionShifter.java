@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser.impl;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstScanner;
+
+/**
+ * Shifts positions of the nodes that follow the edited range.
+ */
+final class PositionShifter extends AstScanner {
+    private final int end;
+
+    private final int shift;
+
+    private final Ast.Block replaced;
+
+    /** Modifiers and type of the previous variable, declarators like "int a, b" share them. */
+    private Ast.Modifiers lastModifiers;
+
+    private Ast.Node lastType;
+
+    /**
+     * @param end       End of the edited range in the positions of the tree, exclusive.
+     * @param shift     Value to add to the positions at or after the end of the edited range.
+     * @param replaced  Block which statements are replaced, they are not visited.
+     */
+    PositionShifter(int end, int shift, Ast.Block replaced) {
+        this.end = end;
+        this.shift = shift;
+        this.replaced = replaced;
+    }
+
+    @Override
+    public void scan(Ast.Node node) {
+        if (node != null) {
+            if (node.getPos() >= end) {
+                node.setPos(node.getPos() + shift);
+            }
+            node.accept(this);
+        }
+    }
+
+    @Override
+    public void visitVariable(Ast.VariableDecl node) {
+        // shared nodes are shifted once
+        if (node.getModifiers() != lastModifiers) {
+            scan(node.getModifiers());
+        }
+        if (node.getVariableType() != lastType) {
+            scan(node.getVariableType());
+        }
+
+        final Ast.Modifiers modifiers = node.getModifiers();
+        final Ast.Node type = node.getVariableType();
+        scan(node.getInitializer());
+        lastModifiers = modifiers;
+        lastType = type;
+    }
+
+    @Override
+    public void visitBlock(Ast.Block node) {
+        // nodes of the blocks that end before the edited range are not shifted
+        if (node.getEndPos() >= end) {
+            node.setEndPos(node.getEndPos() + shift);
+            if (node != replaced) {
+                super.visitBlock(node);
+            }
+        }
+    }
+}
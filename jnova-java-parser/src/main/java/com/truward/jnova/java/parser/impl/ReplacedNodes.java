@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser.impl;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstScanner;
+
+import java.util.Arrays;
+
+/**
+ * Collects the ids of the replaced nodes, so that the new nodes reuse them.
+ */
+final class ReplacedNodes extends AstScanner {
+    private int[] ids;
+
+    private int count;
+
+    /**
+     * @param freeIds Ids freed before, they are kept.
+     */
+    ReplacedNodes(int[] freeIds) {
+        this.ids = Arrays.copyOf(freeIds, freeIds.length + 64);
+        this.count = freeIds.length;
+    }
+
+    /**
+     * @return Free ids, each one is given once even if the node is shared by the declarators like "int a, b".
+     */
+    int[] getIds() {
+        Arrays.sort(ids, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; ++i) {
+            if (unique == 0 || ids[unique - 1] != ids[i]) {
+                ids[unique++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, unique);
+    }
+
+    @Override
+    public void scan(Ast.Node node) {
+        if (node != null) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = node.getId();
+            node.accept(this);
+        }
+    }
+}
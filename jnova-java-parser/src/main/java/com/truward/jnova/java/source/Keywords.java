@@ -18,9 +18,6 @@ import com.truward.jnova.java.parser.Token;
 import com.truward.jnova.util.naming.Symbol;
 import com.truward.jnova.util.naming.SymbolTable;
 
-import javax.annotation.PostConstruct;
-import javax.annotation.Resource;
-
 /**
  * Map from Name to Token and Token to String.
  */
@@ -40,8 +37,7 @@ public final class Keywords {
     private Symbol[] tokenName = new Symbol[Token.values().length];
 
 
-    @Resource
-    private SymbolTable nameTable;
+    private final SymbolTable nameTable;
 
     private void enterKeyword(String keyword, Token token) {
         final Symbol n = nameTable.fromSequence(keyword);
@@ -51,9 +47,9 @@ public final class Keywords {
         }
     }
 
-    @PostConstruct
-    public void postConstruct() {
-        assert key == null;
+    public Keywords(SymbolTable nameTable) {
+        assert nameTable != null;
+        this.nameTable = nameTable;
 
         for (Token token : Token.values()) {
             if (token.getName() != null) {
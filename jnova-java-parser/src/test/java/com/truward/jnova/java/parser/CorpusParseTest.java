@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstPrettyPrinter;
+import com.truward.jnova.java.ast.corpus.CorpusGenerator;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.java.parser.impl.ParserImpl;
+import com.truward.jnova.util.naming.SymbolTable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Parses sources produced by the synthetic corpus generator.
+ */
+public final class CorpusParseTest extends ParserTestSupport {
+
+    private Parser parser;
+
+    @Before
+    public void initParser() {
+        context.registerBean(ParserImpl.class);
+
+        parser = context.getBean(Parser.class);
+    }
+
+    private static String print(Ast.Node node) {
+        final StringWriter writer = new StringWriter();
+        new AstPrettyPrinter(writer, true).printExpr(node);
+        return writer.toString();
+    }
+
+    private Ast.CompilationUnit parse(String source) {
+        setSource(source);
+        final Ast.CompilationUnit unit = parser.parseCompilationUnit();
+        assertEquals("", logWriter.toString());
+        return unit;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        final SymbolTable table = context.getBean(SymbolTable.class);
+        final CorpusShape shape = new CorpusShape();
+        shape.setClassCount(5);
+        shape.setGenericsRatio(0.5);
+        shape.setCommentRatio(0.3);
+        shape.setUnicodeEscapeRatio(0.1);
+        // parser folds adjacent string literals, so the printed trees would differ
+        shape.setStringChainLength(0);
+
+        final String expected = print(new CorpusGenerator(table, shape, 1L).generateUnit());
+        assertEquals(expected, print(parse(new CorpusGenerator(table, shape, 1L).generateSource())));
+    }
+
+    @Test
+    public void testDenseShape() {
+        final CorpusShape shape = new CorpusShape();
+        shape.setClassCount(3);
+        shape.setExpressionDepth(8);
+        shape.setStringChainLength(40);
+        shape.setGenericsRatio(1.0);
+        shape.setCommentRatio(0.5);
+        shape.setUnicodeEscapeRatio(0.3);
+
+        final String printed = print(parse(new CorpusGenerator(context.getBean(SymbolTable.class), shape, 2L)
+                .generateSource()));
+        assertEquals(printed, print(parse(printed)));
+    }
+}
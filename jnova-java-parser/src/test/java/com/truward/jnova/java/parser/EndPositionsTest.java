@@ -0,0 +1,164 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstNodeKind;
+import com.truward.jnova.java.ast.AstScanner;
+import com.truward.jnova.java.ast.EndPosTable;
+import com.truward.jnova.java.ast.corpus.CorpusGenerator;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.java.source.Position;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests end positions of the nodes.
+ */
+public final class EndPositionsTest {
+    private static final String SAMPLE = "class A {\n" +
+            "    int a = 1, b = 2;\n" +
+            "    java.util.List<java.util.List<String>> l;\n" +
+            "    int[] f(int i) {\n" +
+            "        do { i++; } while (i < 10);\n" +
+            "        return a[i];\n" +
+            "    }\n" +
+            "}\n";
+
+    private final CollectingDiagnosticsLog log = new CollectingDiagnosticsLog();
+
+    private final JavaParsers.Builder builder = JavaParsers.builder().diagnostics(log).endPositions(true);
+
+    /**
+     * Collects all the nodes in the scan order.
+     */
+    private static final class NodeCollector extends AstScanner {
+        final List<Ast.Node> nodes = new ArrayList<Ast.Node>();
+
+        @Override
+        public void scan(Ast.Node node) {
+            if (node != null) {
+                nodes.add(node);
+                node.accept(this);
+            }
+        }
+    }
+
+    private static List<Ast.Node> nodes(Ast.Node root) {
+        final NodeCollector collector = new NodeCollector();
+        collector.scan(root);
+        return collector.nodes;
+    }
+
+    private static String generateSource() {
+        final CorpusShape shape = new CorpusShape();
+        shape.setClassCount(3);
+        shape.setCommentRatio(0.2);
+        shape.setUnicodeEscapeRatio(0.05);
+        return new CorpusGenerator(new HashSymbolTable(), shape, 5L).generateSource();
+    }
+
+    private Ast.CompilationUnit parse(Parser parser, String content) {
+        parser.reset(new DefaultSource(content));
+        return parser.parseCompilationUnit();
+    }
+
+    private static List<Integer> ends(Ast.CompilationUnit unit) {
+        final List<Integer> result = new ArrayList<Integer>();
+        for (final Ast.Node node : nodes(unit)) {
+            result.add(unit.getEndPositions().getEndPos(node));
+        }
+        return result;
+    }
+
+    private static void assertRange(Ast.CompilationUnit unit, int kind, String text) {
+        final int start = SAMPLE.indexOf(text);
+        assertTrue(start >= 0);
+        for (final Ast.Node node : nodes(unit)) {
+            if (node.getKind() == kind && node.getPos() == start) {
+                assertEquals(text, SAMPLE.substring(start, unit.getEndPositions().getEndPos(node)));
+                return;
+            }
+        }
+        fail("No node of kind " + kind + " at " + start);
+    }
+
+    @Test
+    public void testEndPositions() {
+        final Ast.CompilationUnit unit = parse(builder.build(), SAMPLE);
+
+        // operators and brackets are the positions of the nodes, as in javac
+        assertRange(unit, AstNodeKind.VARIABLE_DECL, "a = 1,");
+        assertRange(unit, AstNodeKind.VARIABLE_DECL, "b = 2;");
+        assertRange(unit, AstNodeKind.LITERAL, "10");
+        assertRange(unit, AstNodeKind.POSTINC, "++");
+        assertRange(unit, AstNodeKind.EXEC, "i++;");
+        assertRange(unit, AstNodeKind.BLOCK, "{ i++; }");
+        assertRange(unit, AstNodeKind.DOLOOP, "do { i++; } while (i < 10);");
+        assertRange(unit, AstNodeKind.LT, "< 10");
+        assertRange(unit, AstNodeKind.INDEXED, "[i]");
+        assertRange(unit, AstNodeKind.RETURN, "return a[i];");
+        assertRange(unit, AstNodeKind.TYPEARRAY, "[]");
+
+        // closing angle brackets of the nested type arguments are split
+        assertRange(unit, AstNodeKind.TYPEAPPLY, "<String>");
+        assertRange(unit, AstNodeKind.TYPEAPPLY, "<java.util.List<String>>");
+        assertTrue(log.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testNoEndPositionsByDefault() {
+        final Ast.CompilationUnit unit = parse(JavaParsers.builder().diagnostics(log).build(), SAMPLE);
+        assertNull(unit.getEndPositions());
+    }
+
+    @Test
+    public void testAllNodesOfTree() {
+        final Ast.CompilationUnit unit = parse(builder.build(), generateSource());
+        final EndPosTable endPositions = unit.getEndPositions();
+        int positioned = 0;
+        for (final Ast.Node node : nodes(unit)) {
+            if (node.getPos() != Position.NOPOS) {
+                assertTrue(endPositions.getEndPos(node) >= node.getPos());
+                ++positioned;
+            }
+        }
+        // nodes created and then discarded by the parser have no end positions
+        assertEquals(positioned, endPositions.size());
+        assertTrue(log.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testSameEndsOfLazyBodiesAndTokens() {
+        final String content = generateSource();
+        final List<Integer> expected = ends(parse(builder.build(), content));
+
+        assertEquals(expected, ends(parse(builder.lazyBodies(true).build(), content)));
+
+        final char[] input = content.toCharArray();
+        final TokenBuffer tokens = TokenBuffer.scan(builder.buildLexer(), input, input.length);
+        final Parser parser = builder.lazyBodies(false).build();
+        parser.reset(new DefaultSource(content), tokens);
+        assertEquals(expected, ends(parser.parseCompilationUnit()));
+        assertTrue(log.getDiagnostics().isEmpty());
+    }
+}
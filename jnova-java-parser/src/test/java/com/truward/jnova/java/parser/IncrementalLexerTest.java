@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.ast.corpus.CorpusGenerator;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests that the incrementally updated tokens are the same as the ones scanned from scratch.
+ */
+public final class IncrementalLexerTest {
+
+    private static final String[] INSERTIONS = { "x", " ", "\n", "1", ".", "/*", "*/", "//", "\"", "'a'", "\\u0041",
+            "/** @deprecated */", "{", "}", "int y = 0x1f;", ">>", "=" };
+
+    private final JavaParsers.Builder builder = JavaParsers.builder().diagnostics(new CollectingDiagnosticsLog());
+
+    private TokenBuffer scan(IncrementalLexer incrementalLexer) {
+        final char[] text = new String(incrementalLexer.getBuffer(), 0, incrementalLexer.length()).toCharArray();
+        return TokenBuffer.scan(builder.buildLexer(), text, text.length);
+    }
+
+    private static void assertSameTokens(TokenBuffer expected, TokenBuffer actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.getToken(i), actual.getToken(i));
+            assertEquals(expected.getPos(i), actual.getPos(i));
+            assertEquals(expected.getEndPos(i), actual.getEndPos(i));
+            assertSame(expected.getName(i), actual.getName(i));
+            assertEquals(expected.getLiteral(i), actual.getLiteral(i));
+            assertEquals(expected.getRadix(i), actual.getRadix(i));
+            assertEquals(expected.isDeprecated(i), actual.isDeprecated(i));
+            assertEquals(expected.getErrPos(i), actual.getErrPos(i));
+        }
+        assertEquals(expected.getContentHash(), actual.getContentHash());
+    }
+
+    @Test
+    public void testEdits() {
+        final IncrementalLexer lexer = new IncrementalLexer(builder.buildLexer(), "class A { int a = b; }");
+
+        // edit within the identifier
+        lexer.edit(15, 0, "x");
+        assertSameTokens(scan(lexer), lexer.getTokens());
+        assertEquals("ax", lexer.getTokens().getName(4).toString());
+
+        // open the comment that hides the rest of the source
+        lexer.edit(10, 0, "/*");
+        assertSameTokens(scan(lexer), lexer.getTokens());
+        assertEquals(Token.ERROR, lexer.getTokens().getToken(3));
+
+        // close it
+        lexer.edit(10, 2, "");
+        assertSameTokens(scan(lexer), lexer.getTokens());
+
+        // string literal
+        lexer.edit(19, 1, "\"b; } \" + c");
+        assertSameTokens(scan(lexer), lexer.getTokens());
+
+        // stale chars of the escape are left in the buffer past the end of the text
+        lexer.edit(lexer.length(), 0, " \\u0041");
+        lexer.edit(lexer.length() - 5, 5, "");
+        assertSameTokens(scan(lexer), lexer.getTokens());
+
+        // delete all
+        lexer.edit(0, lexer.length(), "");
+        assertSameTokens(scan(lexer), lexer.getTokens());
+        assertEquals(1, lexer.getTokens().size());
+    }
+
+    @Test
+    public void testRandomEdits() {
+        final CorpusShape shape = new CorpusShape();
+        shape.setClassCount(2);
+        shape.setCommentRatio(0.3);
+        shape.setUnicodeEscapeRatio(0.05);
+        final IncrementalLexer lexer = new IncrementalLexer(builder.buildLexer(),
+                new CorpusGenerator(new HashSymbolTable(), shape, 7L).generateSource());
+
+        final Random random = new Random(7L);
+        for (int i = 0; i < 500; ++i) {
+            final int offset = random.nextInt(lexer.length() + 1);
+            final int deleted = random.nextInt(3) == 0 ? Math.min(random.nextInt(10), lexer.length() - offset) : 0;
+            final String inserted = random.nextInt(4) == 0 ? "" : INSERTIONS[random.nextInt(INSERTIONS.length)];
+            lexer.edit(offset, deleted, inserted);
+            assertSameTokens(scan(lexer), lexer.getTokens());
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstScanner;
+import com.truward.jnova.java.ast.EndPosTable;
+import com.truward.jnova.java.ast.NodeTable;
+import com.truward.jnova.java.ast.corpus.CorpusGenerator;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the incrementally parsed compilation units are the same as the ones parsed from scratch.
+ */
+public final class IncrementalParseTest {
+
+    private static final String[] INSERTIONS = { "x", "1", " ", "\n", "foo();", " a = b + 1; ", "int q = 2;",
+            "{ }", "{", "}", "(", "/*", "*/", "\"", ";", "if (a) return;", "new Object() { void f() {} }" };
+
+    private final CollectingDiagnosticsLog log = new CollectingDiagnosticsLog();
+
+    private final Parser parser = JavaParsers.builder().diagnostics(log).endPositions(true).updateInPlace(true)
+            .build();
+
+    private final Parser fullParser = JavaParsers.builder().diagnostics(new CollectingDiagnosticsLog())
+            .endPositions(true).build();
+
+    /**
+     * Records kinds, positions and end positions of all the nodes.
+     */
+    private static final class PositionRecorder extends AstScanner {
+        final StringBuilder result = new StringBuilder();
+
+        final EndPosTable endPositions;
+
+        PositionRecorder(EndPosTable endPositions) {
+            this.endPositions = endPositions;
+        }
+
+        @Override
+        public void scan(Ast.Node node) {
+            if (node != null) {
+                result.append(node.getKind()).append('@').append(node.getPos())
+                        .append('-').append(endPositions.getEndPos(node)).append(' ');
+                node.accept(this);
+            }
+        }
+
+        @Override
+        public void visitBlock(Ast.Block node) {
+            result.append("}@").append(node.getEndPos()).append(' ');
+            super.visitBlock(node);
+        }
+    }
+
+    private static String positions(Ast.CompilationUnit unit) {
+        final PositionRecorder recorder = new PositionRecorder(unit.getEndPositions());
+        recorder.scan(unit);
+        return recorder.result.toString();
+    }
+
+    private Ast.CompilationUnit parse(Parser parser, String content) {
+        parser.reset(new DefaultSource(content));
+        return parser.parseCompilationUnit();
+    }
+
+    private static void assertUniqueIds(final Ast.CompilationUnit unit) {
+        final NodeTable<Ast.Node> nodes = new NodeTable<Ast.Node>(unit.getNodeCount());
+        new AstScanner() {
+            @Override
+            public void scan(Ast.Node node) {
+                if (node != null) {
+                    assertTrue(node.getId() < unit.getNodeCount());
+                    // declarators of one declaration share the type and modifiers
+                    final Ast.Node other = nodes.get(node);
+                    assertTrue(other == null || other == node);
+                    nodes.put(node, node);
+                    node.accept(this);
+                }
+            }
+        }.scan(unit);
+    }
+
+    private static Ast.MethodDecl method(Ast.CompilationUnit unit, int index) {
+        return (Ast.MethodDecl) ((Ast.ClassDecl) unit.getDefinitions().get(0)).getDefinitions().get(index);
+    }
+
+    @Test
+    public void testReuseNodes() {
+        final String content = "class A {\n" +
+                "    void f() { int a = 1; if (a > 0) { a = 2; } }\n" +
+                "    static { g(); }\n" +
+                "    void h() { return; }\n" +
+                "}\n";
+        final Ast.CompilationUnit previous = parse(parser, content);
+        final Ast.MethodDecl f = method(previous, 0);
+        final Ast.Statement declaration = f.getBody().getStatements().get(0);
+        final Ast.MethodDecl h = method(previous, 2);
+        final int hPos = h.getPos();
+
+        // a = 2 -> a = 42 within the inner block
+        final int offset = content.indexOf("2;");
+        final String edited = content.substring(0, offset) + "4" + content.substring(offset);
+        parser.reset(new DefaultSource(edited));
+        final Ast.CompilationUnit unit = parser.parseCompilationUnit(previous, offset, 0, 1);
+
+        assertSame(previous, unit);
+        assertSame(declaration, f.getBody().getStatements().get(0));
+        assertSame(h, method(unit, 2));
+        assertEquals(hPos + 1, h.getPos());
+
+        final Ast.CompilationUnit expected = parse(fullParser, edited);
+        assertEquals(expected.toString(), unit.toString());
+        assertEquals(positions(expected), positions(unit));
+        assertUniqueIds(unit);
+        assertTrue(log.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testPreviousKeptByDefault() {
+        final String content = "class A { void f() { a(); } void g() { b(); } }";
+        final Ast.CompilationUnit previous = parse(fullParser, content);
+        final String previousText = previous.toString();
+        final String previousPositions = positions(previous);
+
+        final int offset = content.indexOf("a();");
+        final String edited = content.substring(0, offset) + "x = 1; " + content.substring(offset);
+        fullParser.reset(new DefaultSource(edited));
+        final Ast.CompilationUnit unit = fullParser.parseCompilationUnit(previous, offset, 0, 7);
+
+        assertNotSame(previous, unit);
+        assertEquals(previousText, previous.toString());
+        assertEquals(previousPositions, positions(previous));
+        assertEquals(parse(fullParser, edited).toString(), unit.toString());
+    }
+
+    @Test
+    public void testIdsReused() {
+        final String content = "class A { void f() { a(); } void g() { b(); } }";
+        final Ast.CompilationUnit unit = parse(parser, content);
+        final int nodeCount = unit.getNodeCount();
+
+        // statement is inserted and removed again, so that the ids of the removed ones are taken by the new ones
+        final int offset = content.indexOf("a();");
+        final String inserted = "int x = 1; x++; ";
+        for (int i = 0; i < 10; ++i) {
+            final String edited = content.substring(0, offset) + inserted + content.substring(offset);
+            parser.reset(new DefaultSource(edited));
+            assertSame(unit, parser.parseCompilationUnit(unit, offset, 0, inserted.length()));
+            assertUniqueIds(unit);
+
+            parser.reset(new DefaultSource(content));
+            assertSame(unit, parser.parseCompilationUnit(unit, offset, inserted.length(), 0));
+            assertUniqueIds(unit);
+        }
+        assertTrue(unit.getNodeCount() <= nodeCount + 16);
+        assertEquals(unit.getNodeCount() - nodeCount, unit.getFreeIds().length);
+    }
+
+    @Test
+    public void testUnbalancedEdit() {
+        final String content = "class A { void f() { a(); } void g() { b(); } }";
+        final Ast.CompilationUnit previous = parse(parser, content);
+
+        // brace closes the method body earlier, so that the whole source is parsed again
+        final int offset = content.indexOf("a();");
+        final String edited = content.substring(0, offset) + "}" + content.substring(offset);
+        parser.reset(new DefaultSource(edited));
+        final Ast.CompilationUnit unit = parser.parseCompilationUnit(previous, offset, 0, 1);
+
+        assertNotSame(previous, unit);
+        assertEquals(parse(fullParser, edited).toString(), unit.toString());
+    }
+
+    @Test
+    public void testRandomEdits() {
+        final CorpusShape shape = new CorpusShape();
+        shape.setClassCount(2);
+        shape.setCommentRatio(0.2);
+        String content = new CorpusGenerator(new HashSymbolTable(), shape, 11L).generateSource();
+        Ast.CompilationUnit unit = parse(parser, content);
+
+        final Random random = new Random(11L);
+        int reused = 0;
+        for (int i = 0; i < 300; ++i) {
+            final int offset = random.nextInt(content.length() + 1);
+            final int deleted = random.nextInt(3) == 0 ? Math.min(random.nextInt(8), content.length() - offset) : 0;
+            final String inserted = random.nextInt(5) == 0 ? "" : INSERTIONS[random.nextInt(INSERTIONS.length)];
+            content = content.substring(0, offset) + inserted + content.substring(offset + deleted);
+
+            parser.reset(new DefaultSource(content));
+            final Ast.CompilationUnit previous = unit;
+            unit = parser.parseCompilationUnit(previous, offset, deleted, inserted.length());
+            if (unit == previous) {
+                ++reused;
+            }
+
+            final Ast.CompilationUnit expected = parse(fullParser, content);
+            assertEquals(expected.toString(), unit.toString());
+            assertEquals(positions(expected), positions(unit));
+            // end positions of the replaced nodes are removed
+            assertEquals(expected.getEndPositions().size(), unit.getEndPositions().size());
+            assertUniqueIds(unit);
+        }
+        assertTrue("Reused trees: " + reused, reused > 20);
+    }
+}
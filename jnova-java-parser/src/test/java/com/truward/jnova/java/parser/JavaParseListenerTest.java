@@ -0,0 +1,254 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstScanner;
+import com.truward.jnova.java.ast.DefaultAstFactory;
+import com.truward.jnova.java.ast.corpus.CorpusGenerator;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.java.code.PredefinedNames;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.naming.Symbol;
+import com.truward.jnova.util.naming.SymbolTable;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests parse events and the declarations built from them against the syntax tree.
+ */
+public final class JavaParseListenerTest {
+
+    private final CollectingDiagnosticsLog log = new CollectingDiagnosticsLog();
+
+    private final SymbolTable symbolTable = new HashSymbolTable();
+
+    private final Parser parser = JavaParsers.builder().symbolTable(symbolTable).diagnostics(log).build();
+
+    private static final class RecordingListener implements JavaParseListener {
+        final List<String> events = new ArrayList<String>();
+
+        final List<String> identifiers = new ArrayList<String>();
+
+        @Override
+        public void enterCompilationUnit() {
+            events.add("enterCompilationUnit");
+        }
+
+        @Override
+        public void exitCompilationUnit() {
+            events.add("exitCompilationUnit");
+        }
+
+        @Override
+        public void onPackage(Symbol name, int pos, int start, int end) {
+            events.add("package " + name);
+        }
+
+        @Override
+        public void onImport(Symbol name, boolean staticImport, int pos, int start, int end) {
+            events.add("import " + name + (staticImport ? " static" : ""));
+        }
+
+        @Override
+        public void enterClass(int kind, int flags, Symbol name, int pos, int signatureStart, int signatureEnd) {
+            events.add("enterClass " + kind + " " + flags + " " + name);
+        }
+
+        @Override
+        public void exitClass(int endPos) {
+            events.add("exitClass");
+        }
+
+        @Override
+        public void onEnumConstant(int flags, Symbol name, int pos) {
+            events.add("enumConstant " + flags + " " + name);
+        }
+
+        @Override
+        public void onField(int flags, Symbol name, int pos, int typeStart, int typeEnd) {
+            events.add("field " + flags + " " + name);
+        }
+
+        @Override
+        public void enterMethod(int kind, int flags, Symbol name, int pos, int typeStart, int typeEnd,
+                                int signatureStart, int signatureEnd) {
+            events.add("enterMethod " + kind + " " + flags + " " + name);
+        }
+
+        @Override
+        public void exitMethod(int endPos) {
+            events.add("exitMethod");
+        }
+
+        @Override
+        public void enterInitializer(int flags, int pos) {
+            events.add("enterInitializer " + flags);
+        }
+
+        @Override
+        public void exitInitializer(int endPos) {
+            events.add("exitInitializer");
+        }
+
+        @Override
+        public void onIdentifier(Symbol name, int pos) {
+            identifiers.add(name.toString());
+        }
+    }
+
+    // Describes the declarations of the unit without descending into the bodies and initializers.
+    private static List<String> declarations(Ast.CompilationUnit unit) {
+        final List<String> result = new ArrayList<String>();
+        new AstScanner() {
+            @Override
+            public void visitCompilationUnit(Ast.CompilationUnit node) {
+                if (node.getPackageId() != null) {
+                    result.add("package " + qualifiedName(node.getPackageId()));
+                }
+                scan(node.getDefinitions());
+            }
+
+            @Override
+            public void visitImport(Ast.Import node) {
+                result.add("import " + qualifiedName(node.getQualifier()) + (node.isStaticImport() ? " static" : ""));
+            }
+
+            @Override
+            public void visitClass(Ast.ClassDecl node) {
+                result.add("class " + node.getModifiers().getFlags() + " " + node.getName());
+                scan(node.getDefinitions());
+            }
+
+            @Override
+            public void visitMethod(Ast.MethodDecl node) {
+                result.add("method " + node.getModifiers().getFlags() + " " + node.getName());
+            }
+
+            @Override
+            public void visitVariable(Ast.VariableDecl node) {
+                result.add("variable " + node.getModifiers().getFlags() + " " + node.getName());
+            }
+
+            @Override
+            public void visitBlock(Ast.Block node) {
+                result.add("block " + node.getFlags());
+            }
+        }.scan(unit);
+        return result;
+    }
+
+    private static String qualifiedName(Ast.Node node) {
+        if (node instanceof Ast.FieldAccess) {
+            final Ast.FieldAccess fieldAccess = (Ast.FieldAccess) node;
+            return qualifiedName(fieldAccess.getExpression()) + "." + fieldAccess.getIdentifier();
+        }
+        return ((Ast.Ident) node).getName().toString();
+    }
+
+    private void assertSameDeclarationsAsTree(String content) {
+        final JavaParseSkeletonBuilder builder = new JavaParseSkeletonBuilder(new DefaultAstFactory(),
+                new PredefinedNames(symbolTable));
+        final RecordingListener recorder = new RecordingListener();
+        parser.reset(new DefaultSource(content));
+        parser.parse(builder);
+        parser.reset(new DefaultSource(content));
+        parser.parse(recorder);
+
+        parser.reset(new DefaultSource(content));
+        final Ast.CompilationUnit unit = parser.parseCompilationUnit();
+        assertTrue(log.getDiagnostics().isEmpty());
+        assertEquals(declarations(unit), declarations(builder.getCompilationUnit()));
+
+        // every identifier token is reported once
+        final List<String> tokens = new ArrayList<String>();
+        final Lexer lexer = JavaParsers.builder().diagnostics(log).buildLexer();
+        lexer.setSource(content.toCharArray(), content.length());
+        for (lexer.nextToken(); lexer.token() != Token.EOF; lexer.nextToken()) {
+            if (lexer.token() == Token.IDENTIFIER) {
+                tokens.add(lexer.name().toString());
+            }
+        }
+        assertEquals(tokens, recorder.identifiers);
+    }
+    @Test
+    public void testEvents() {
+        final RecordingListener listener = new RecordingListener();
+        parser.reset(new DefaultSource("package a.b;\n" +
+                "import static java.lang.Math.*;\n" +
+                "class Sample {\n" +
+                "    int x = y + 1, z;\n" +
+                "    static { run(x); }\n" +
+                "    Sample() {}\n" +
+                "    void f() { class Local { int g; } }\n" +
+                "    enum E { A, B }\n" +
+                "}\n"));
+        parser.parse(listener);
+
+        assertEquals("[enterCompilationUnit, package b, import * static, enterClass 2 0 Sample, field 0 x, field 0 z, " +
+                "enterInitializer 8, exitInitializer, enterMethod 9 0 Sample, exitMethod, enterMethod 8 0 f, " +
+                "exitMethod, enterClass 4 16384 E, enumConstant 16409 A, enumConstant 16409 B, exitClass, " +
+                "exitClass, exitCompilationUnit]", listener.events.toString());
+        assertEquals("[a, b, java, lang, Math, Sample, x, y, z, run, x, Sample, f, Local, g, E, A, B]",
+                listener.identifiers.toString());
+    }
+
+    @Test
+    public void testSameDeclarationsAsTree() {
+        assertSameDeclarationsAsTree("package com.example;\n" +
+                "import java.util.*;\n" +
+                "import static java.lang.Math.max;\n" +
+                "@SuppressWarnings({\"a\", \"b\"})\n" +
+                "public class Sample<T extends Comparable<T>> extends Base implements Runnable {\n" +
+                "    private Map<String, List<Integer>> map = new HashMap<String, List<Integer>>(), other;\n" +
+                "    int a = f(1, 2), b[] = {1, 2}, c;\n" +
+                "    boolean lt = a < b, gt = a > b >> 1, cond = a < b ? a > c : a >>> b > c;\n" +
+                "    List<String> empty = Collections.<String>emptyList(),\n" +
+                "        list = new ArrayList<List<String>>(a < b ? 1 : 2);\n" +
+                "    @Retention(value = RetentionPolicy.RUNTIME)\n" +
+                "    Object anon = new Runnable() { int x = 1, y; }, after;\n" +
+                "    static { init(); }\n" +
+                "    public Sample(int a) throws Exception { super(); this.a = a; }\n" +
+                "    /** @deprecated */\n" +
+                "    public <K> java.util.List<K>[] items(K key, int... rest) throws IOException, Error {\n" +
+                "        class Local { Local() {} void skipped() {} }\n" +
+                "        outer: for (String s : strings) { if (s == null) continue outer; else break outer; }\n" +
+                "        return new Runnable() { public void run() { Sample.this.run(); } } == null ? null : null;\n" +
+                "    }\n" +
+                "    abstract void run();\n" +
+                "    enum Color { RED, GREEN(1) { void f() { java.lang.Object.class.getName(); } }, BLUE; int code; }\n" +
+                "    @interface Marker { String value() default NAME; }\n" +
+                "}\n" +
+                "interface Empty {}\n");
+    }
+
+    @Test
+    public void testSameDeclarationsOnCorpus() {
+        final CorpusShape shape = new CorpusShape();
+        shape.setClassCount(10);
+        shape.setGenericsRatio(0.5);
+        shape.setCommentRatio(0.3);
+        for (long seed = 0; seed < 5; ++seed) {
+            assertSameDeclarationsAsTree(new CorpusGenerator(new HashSymbolTable(), shape, seed).generateSource());
+        }
+    }
+}
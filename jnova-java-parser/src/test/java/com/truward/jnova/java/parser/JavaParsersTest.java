@@ -0,0 +1,163 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstInfo;
+import com.truward.jnova.java.ast.DocCommentTable;
+import com.truward.jnova.java.ast.corpus.CorpusGenerator;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.java.code.Flags;
+import com.truward.jnova.java.parser.impl.ParserImpl;
+import com.truward.jnova.java.source.Source;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.naming.StringPool;
+import com.truward.jnova.util.naming.SymbolTable;
+import com.truward.jnova.util.naming.support.HashStringPool;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests parsers created without injection context.
+ */
+public final class JavaParsersTest extends ParserTestSupport {
+
+    @Test
+    public void testSameTreeAsInjected() {
+        final String content = new CorpusGenerator(new HashSymbolTable(), new CorpusShape(), 1L).generateSource();
+
+        context.registerBean(ParserImpl.class);
+        final Parser injected = context.getBean(Parser.class);
+        injected.reset(new DefaultSource(content));
+        final Ast.CompilationUnit expected = injected.parseCompilationUnit();
+
+        // same symbol table, so that the symbols of both trees are identical
+        final CollectingDiagnosticsLog log = new CollectingDiagnosticsLog();
+        final Parser parser = JavaParsers.builder().symbolTable(context.getBean(SymbolTable.class))
+                .sourceVersion(Source.DEFAULT).diagnostics(log).build();
+        parser.reset(new DefaultSource(content));
+
+        final Ast.CompilationUnit actual = parser.parseCompilationUnit();
+
+        // side tables are compared separately
+        final DocCommentTable expectedDocComments = expected.getDocComments();
+        final DocCommentTable actualDocComments = actual.getDocComments();
+        assertEquals(expectedDocComments.size(), actualDocComments.size());
+        for (int i = 0; i < expectedDocComments.size(); ++i) {
+            assertEquals(expectedDocComments.getStartPos(i), actualDocComments.getStartPos(i));
+            assertEquals(expectedDocComments.getEndPos(i), actualDocComments.getEndPos(i));
+        }
+        expected.setDocComments(null);
+        actual.setDocComments(null);
+
+        StructMatcher.assertStructMatches(Ast.Node.class, expected, actual);
+        assertEquals("", logWriter.toString());
+        assertTrue(log.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testSourceVersion() {
+        final CollectingDiagnosticsLog log = new CollectingDiagnosticsLog();
+        final Parser parser = JavaParsers.builder().sourceVersion(Source.JDK1_4).diagnostics(log).build();
+
+        parser.reset(new DefaultSource("class A { java.util.List<String> list; }"));
+        parser.parseCompilationUnit();
+        assertEquals(1, log.getTotalErrors());
+    }
+
+    @Test
+    public void testStringPool() {
+        final String content = "class A { String a = \"text\"; String b = \"text\"; char c = 'x'; }";
+        final StringPool pool = new HashStringPool();
+        final JavaParsers.Builder builder = JavaParsers.builder().diagnostics(new CollectingDiagnosticsLog());
+
+        for (final boolean pooled : new boolean[] { false, true }) {
+            final Parser parser = pooled ? builder.stringPool(pool).build() : builder.build();
+            parser.reset(new DefaultSource(content));
+            final Ast.CompilationUnit unit = parser.parseCompilationUnit();
+            final Object a = ((Ast.Literal) variable(unit, 0).getInitializer()).getValue();
+            final Object b = ((Ast.Literal) variable(unit, 1).getInitializer()).getValue();
+
+            assertEquals("text", a);
+            assertEquals(pooled, a == b);
+            assertEquals('x', ((Ast.Literal) variable(unit, 2).getInitializer()).getCharValue());
+        }
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void testDocComments() {
+        final String content = "/** Unit */\npackage p;\n" +
+                "/**\n * Class A.\n *   indented\n */\nclass A {\n" +
+                "    /** Fields. */ int a, b;\n" +
+                "    /** @deprecated */ /* regular */ void f() {\n" +
+                "        /** Local. */ class L {}\n" +
+                "    }\n" +
+                "    void g() {}\n" +
+                "}\n";
+        final JavaParsers.Builder builder = JavaParsers.builder().diagnostics(new CollectingDiagnosticsLog());
+
+        for (final boolean lazyBodies : new boolean[] { false, true }) {
+            final Parser parser = builder.lazyBodies(lazyBodies).build();
+            final DefaultSource source = new DefaultSource(content);
+            parser.reset(source);
+            final Ast.CompilationUnit unit = parser.parseCompilationUnit();
+            final Ast.ClassDecl a = (Ast.ClassDecl) unit.getDefinitions().get(0);
+            final Ast.MethodDecl f = (Ast.MethodDecl) a.getDefinitions().get(2);
+            // lazy body adds its comments when it is parsed
+            final Ast.Node local = f.getBody().getStatements().get(0);
+
+            final Map<Ast.Node, String> docComments = AstInfo.getDocComments(unit);
+            assertEquals(6, docComments.size());
+            assertEquals(" Unit", docComments.get(unit));
+            assertEquals(" Class A.\n   indented", docComments.get(a));
+            assertEquals(" Fields.", docComments.get(a.getDefinitions().get(0)));
+            assertEquals(" Fields.", docComments.get(a.getDefinitions().get(1)));
+            assertEquals(" @deprecated", docComments.get(f));
+            assertEquals(" Local.", docComments.get(local));
+            assertNull(docComments.get(a.getDefinitions().get(3)));
+            assertTrue((f.getModifiers().getFlags() & Flags.DEPRECATED) != 0);
+
+            final DocCommentTable table = unit.getDocComments();
+            final int index = table.indexOf(local);
+            assertEquals(content.indexOf("/** Local"), table.getStartPos(index));
+            assertEquals(content.indexOf("class L"), table.getEndPos(index) + 1);
+
+            // same comments are replayed from the token buffer
+            parser.reset(source, TokenBuffer.scan(builder.buildLexer(), source.getBuffer(), source.length()));
+            final Ast.CompilationUnit replayed = parser.parseCompilationUnit();
+            ((Ast.MethodDecl) ((Ast.ClassDecl) replayed.getDefinitions().get(0)).getDefinitions().get(2))
+                    .getBody().getStatements();
+            assertEquals(unit.toString(), replayed.toString());
+        }
+
+        final Parser parser = builder.lazyBodies(false).docComments(false).build();
+        parser.reset(new DefaultSource(content));
+        final Ast.CompilationUnit unit = parser.parseCompilationUnit();
+        final Ast.MethodDecl f = (Ast.MethodDecl) ((Ast.ClassDecl) unit.getDefinitions().get(0)).getDefinitions().get(2);
+        assertNull(unit.getDocComments());
+        assertTrue(AstInfo.getDocComments(unit).isEmpty());
+        assertEquals(0, f.getModifiers().getFlags() & Flags.DEPRECATED);
+    }
+
+    private static Ast.VariableDecl variable(Ast.CompilationUnit unit, int index) {
+        return (Ast.VariableDecl) ((Ast.ClassDecl) unit.getDefinitions().get(0)).getDefinitions().get(index);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstScanner;
+import com.truward.jnova.java.ast.NodeTable;
+import com.truward.jnova.java.ast.corpus.CorpusGenerator;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.java.code.Flags;
+import com.truward.jnova.util.diagnostics.Diagnostic;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests lazy parsing of method and initializer bodies.
+ */
+public final class LazyBodiesTest {
+
+    private final CollectingDiagnosticsLog log = new CollectingDiagnosticsLog();
+
+    private Ast.CompilationUnit parse(String content, boolean lazyBodies) {
+        final Parser parser = JavaParsers.builder().diagnostics(log).lazyBodies(lazyBodies).build();
+        parser.reset(new DefaultSource(content));
+        return parser.parseCompilationUnit();
+    }
+
+    private static void assertUniqueIds(final Ast.CompilationUnit unit) {
+        final NodeTable<Ast.Node> nodes = new NodeTable<Ast.Node>(unit.getNodeCount());
+        new AstScanner() {
+            @Override
+            public void scan(Ast.Node node) {
+                if (node != null) {
+                    assertTrue(node.getId() < unit.getNodeCount());
+                    // declarators of one declaration share the type and modifiers
+                    final Ast.Node other = nodes.get(node);
+                    assertTrue(other == null || other == node);
+                    nodes.put(node, node);
+                    node.accept(this);
+                }
+            }
+        }.scan(unit);
+    }
+
+    @Test
+    public void testSameTreeAsEager() {
+        final CorpusShape shape = new CorpusShape();
+        shape.setClassCount(3);
+        shape.setCommentRatio(0.2);
+        shape.setUnicodeEscapeRatio(0.05);
+        final String generated = new CorpusGenerator(new HashSymbolTable(), shape, 1L).generateSource();
+
+        final String handWritten = "class A {\n" +
+                "    static { int a = '{'; }\n" +
+                "    { String s = \"}}\"; }\n" +
+                "    Runnable r = new Runnable() { public void run() { if (true) { } } };\n" +
+                "    abstract void m();\n" +
+                "    A() { class Local { void f() { } } }\n" +
+                "}\n";
+
+        for (final String content : new String[] { generated, handWritten }) {
+            final String eager = parse(content, false).toString();
+            final String lazy = parse(content, true).toString();
+            assertEquals(eager, lazy);
+        }
+        assertTrue(log.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testBodyParsedOnAccess() {
+        final Ast.CompilationUnit unit = parse("class A {\n void f() { int a = ; }\n static { }\n}", true);
+        final Ast.ClassDecl classDecl = (Ast.ClassDecl) unit.getDefinitions().getHead();
+        final Ast.MethodDecl method = (Ast.MethodDecl) classDecl.getDefinitions().getHead();
+        final Ast.Block initializer = (Ast.Block) classDecl.getDefinitions().getTail().getHead();
+
+        assertFalse(method.getBody().isParsed());
+        assertFalse(initializer.isParsed());
+        assertEquals(32, method.getBody().getEndPos());
+        assertTrue(unit.getBodyDiagnostics().isEmpty());
+
+        // errors in the body are collected by the unit on access
+        assertEquals(1, method.getBody().getStatements().size());
+        assertTrue(method.getBody().isParsed());
+        assertEquals(1, unit.getBodyDiagnostics().size());
+        assertEquals(0, log.getTotalErrors());
+
+        assertTrue(initializer.getStatements().isEmpty());
+        assertEquals(Flags.STATIC, initializer.getFlags());
+    }
+
+    @Test
+    public void testLexicalErrorsReportedOnce() {
+        final String content = "class A {\n void f() { double d = 1e; }\n}";
+        parse(content, false);
+        final List<Diagnostic> eager = new ArrayList<Diagnostic>(log.getDiagnostics());
+        assertEquals("malformed.fp.lit", eager.get(0).getKey());
+        log.clear();
+
+        final Ast.CompilationUnit unit = parse(content, true);
+        final Ast.ClassDecl classDecl = (Ast.ClassDecl) unit.getDefinitions().getHead();
+        ((Ast.MethodDecl) classDecl.getDefinitions().getHead()).getBody().getStatements();
+        assertTrue(log.getDiagnostics().isEmpty());
+        assertEquals(eager, unit.getBodyDiagnostics());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final CorpusShape shape = new CorpusShape();
+        shape.setClassCount(2);
+        final Ast.CompilationUnit unit = parse(new CorpusGenerator(new HashSymbolTable(), shape, 2L).generateSource(),
+                true);
+
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; ++i) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    new AstScanner().scan(unit);
+                }
+            });
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertUniqueIds(unit);
+        assertTrue(unit.getBodyDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testBodiesContinueNodeIds() {
+        final Ast.CompilationUnit unit = parse("class A {\n void f() { int a = 1; }\n void g() { f(); }\n}", true);
+        final int outlineCount = unit.getNodeCount();
+
+        // scanner parses the bodies
+        assertUniqueIds(unit);
+        assertTrue(unit.getNodeCount() > outlineCount);
+        assertUniqueIds(unit);
+        assertTrue(log.getDiagnostics().isEmpty());
+    }
+}
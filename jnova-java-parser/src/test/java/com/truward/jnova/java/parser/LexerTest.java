@@ -14,7 +14,12 @@
 
 package com.truward.jnova.java.parser;
 
+import com.truward.jnova.java.ast.corpus.CorpusGenerator;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.java.source.Position;
 import com.truward.jnova.util.ImmList;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -77,4 +82,90 @@ public final class LexerTest extends ParserTestSupport {
         setSource("import abc.def;");
         assertScanEquals(Token.IMPORT, "abc", Token.DOT, "def", Token.SEMI);
     }
+
+    @Test
+    public void testLiteralVal() {
+        setSource("\"a\\tb\" 0x1fL 1.5e3 'c'");
+        for (final String expected : new String[] { "a\tb", "1f", "1.5e3", "c" }) {
+            lexer.nextToken();
+            final CharSequence literal = lexer.literalVal();
+            assertEquals(expected, literal.toString());
+            assertEquals(expected.length(), literal.length());
+            assertEquals(expected.charAt(0), literal.charAt(0));
+            assertEquals(lexer.stringVal(), literal.toString());
+        }
+    }
+
+    @Test
+    public void testSameTokensWithUnicodeEscapes() {
+        final CorpusShape shape = new CorpusShape();
+        shape.setCommentRatio(0.2);
+        shape.setUnicodeEscapeRatio(0.05);
+        final String content = new CorpusGenerator(new HashSymbolTable(), shape, 5L).generateSource() +
+                "class B { String s = \"\\u0041a\\\\u0041\\\"b\\u0043\"; char c = '\\u0044'; " +
+                "int \\u0061bc\\u0064, e\\u0066, \\uuu0067 = x$1 + y\\u00e9; }";
+        assertTrue(content.contains("\\u"));
+
+        // escape-free input is scanned by the fast paths, the escaped one partly by the general loops
+        final JavaParsers.Builder builder = JavaParsers.builder().diagnostics(new CollectingDiagnosticsLog());
+        final Lexer expected = builder.buildLexer();
+        final char[] plain = unescape(content).toCharArray();
+        expected.setSource(plain, plain.length);
+        final Lexer actual = builder.buildLexer();
+        final char[] escaped = content.toCharArray();
+        actual.setSource(escaped, escaped.length);
+
+        do {
+            expected.nextToken();
+            actual.nextToken();
+            final Token token = expected.token();
+            assertEquals(token, actual.token());
+            if (token == Token.IDENTIFIER) {
+                assertEquals(expected.name().toString(), actual.name().toString());
+            } else if (token.getName() == null && token != Token.EOF) {
+                assertEquals(expected.stringVal(), actual.stringVal());
+            }
+        } while (expected.token() != Token.EOF);
+        assertEquals(Position.NOPOS, actual.errPos());
+    }
+
+    @Test
+    public void testCommentsAndWhitespace() {
+        // escaped line feed ends the line comment unless the backslash is escaped, escaped slash ends the comment
+        final String content = "a /* b * c **/ b \t\f // x \\u000A c /* *\\u002F d // \\\\u000A y\r\n" +
+                "e /** x\n * @deprecated\n */ f /* \u00e9 */ g\u0020 \\u0020h // end";
+        setSource(content);
+        for (final String expected : new String[] { "a", "b", "c", "d", "e", "f", "g", "h" }) {
+            lexer.nextToken();
+            assertEquals(Token.IDENTIFIER, lexer.token());
+            assertEquals(expected, lexer.name().toString());
+            assertEquals(expected.equals("f"), lexer.deprecatedFlag());
+            lexer.resetDeprecatedFlag();
+        }
+        lexer.nextToken();
+        assertEquals(Token.EOF, lexer.token());
+        assertEquals(Position.NOPOS, lexer.errPos());
+    }
+
+    // Replaces the unicode escapes with the chars they stand for (JLS 3.3).
+    private static String unescape(String content) {
+        final StringBuilder result = new StringBuilder(content.length());
+        int backslashes = 0;
+        for (int i = 0; i < content.length(); ++i) {
+            final char ch = content.charAt(i);
+            if (ch == '\\' && backslashes % 2 == 0 && i + 1 < content.length() && content.charAt(i + 1) == 'u') {
+                int start = i + 1;
+                while (content.charAt(start) == 'u') {
+                    ++start;
+                }
+                result.append((char) Integer.parseInt(content.substring(start, start + 4), 16));
+                i = start + 3;
+                backslashes = 0;
+            } else {
+                result.append(ch);
+                backslashes = ch == '\\' ? backslashes + 1 : 0;
+            }
+        }
+        return result.toString();
+    }
 }
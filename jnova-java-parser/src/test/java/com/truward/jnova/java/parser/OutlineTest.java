@@ -0,0 +1,172 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.ast.Ast;
+import com.truward.jnova.java.ast.AstScanner;
+import com.truward.jnova.java.ast.corpus.CorpusGenerator;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.java.code.Flags;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests declaration outline.
+ */
+public final class OutlineTest {
+
+    private final CollectingDiagnosticsLog log = new CollectingDiagnosticsLog();
+
+    private final Parser parser = JavaParsers.builder().diagnostics(log).build();
+
+    private Outline outline(String content) {
+        parser.reset(new DefaultSource(content));
+        return parser.parseOutline();
+    }
+
+    private static String describe(Outline outline) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < outline.size(); ++i) {
+            builder.append(outline.getKind(i)).append(' ').append(outline.getParent(i)).append(' ')
+                    .append(outline.getName(i)).append(" [").append(outline.getTypeText(i)).append("] [")
+                    .append(outline.getSignatureText(i)).append("]\n");
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void testDeclarations() {
+        final Outline outline = outline("package com.example;\n" +
+                "import java.util.*;\n" +
+                "import static java.lang.Math.max;\n" +
+                "@SuppressWarnings({\"a\", \"b\"})\n" +
+                "public class Sample<T extends Comparable<T>> extends Base implements Runnable {\n" +
+                "    private Map<String, List<Integer>> map = new HashMap<String, List<Integer>>(), other;\n" +
+                "    int a = f(1, 2), b[] = {1, 2}, c;\n" +
+                "    static { init(); }\n" +
+                "    public Sample(int a) throws Exception { super(); }\n" +
+                "    /** @deprecated */\n" +
+                "    public <K> java.util.List<K>[] items(K key, int... rest) throws IOException, Error {\n" +
+                "        class Local { void skipped() {} }\n" +
+                "        return null;\n" +
+                "    }\n" +
+                "    abstract void run();\n" +
+                "    enum Color { RED, GREEN(1) { void f() {} }, BLUE; int code; }\n" +
+                "    @interface Marker { String value() default \"}\"; }\n" +
+                "}\n" +
+                "interface Empty {}\n");
+
+        assertEquals("0 -1 example [null] [com.example]\n" +
+                "1 -1 * [null] [java.util.*]\n" +
+                "1 -1 max [null] [java.lang.Math.max]\n" +
+                "2 -1 Sample [null] [<T extends Comparable<T>> extends Base implements Runnable]\n" +
+                "7 3 map [Map<String, List<Integer>>] [null]\n" +
+                "7 3 other [Map<String, List<Integer>>] [null]\n" +
+                "7 3 a [int] [null]\n" +
+                "7 3 b [int] [null]\n" +
+                "7 3 c [int] [null]\n" +
+                "10 3 null [null] [null]\n" +
+                "9 3 Sample [null] [(int a) throws Exception]\n" +
+                "8 3 items [java.util.List<K>[]] [(K key, int... rest) throws IOException, Error]\n" +
+                "8 3 run [void] [()]\n" +
+                "4 3 Color [null] [null]\n" +
+                "6 13 RED [null] [null]\n" +
+                "6 13 GREEN [null] [null]\n" +
+                "6 13 BLUE [null] [null]\n" +
+                "7 13 code [int] [null]\n" +
+                "5 3 Marker [null] [null]\n" +
+                "8 18 value [String] [()]\n" +
+                "3 -1 Empty [null] [null]\n", describe(outline));
+
+        assertEquals(Flags.PUBLIC, outline.getFlags(3));
+        assertEquals(Flags.STATIC, outline.getFlags(1 + 1));
+        assertEquals(Flags.STATIC, outline.getFlags(9));
+        assertEquals(Flags.PUBLIC | Flags.DEPRECATED, outline.getFlags(11));
+        assertEquals(Flags.ENUM, outline.getFlags(13));
+        assertEquals(Flags.ANNOTATION | Flags.INTERFACE, outline.getFlags(18));
+        assertEquals("package com.example;".indexOf("package"), outline.getPos(0));
+        assertTrue(log.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testPositions() {
+        final String content = "class A { java.util.Map<String, String[]> m = new java.util.HashMap<String, String[]>(); " +
+                "int x = 1; /** doc */ @Deprecated public void f() {} A() {} }";
+        final Outline outline = outline(content);
+
+        assertEquals("2 -1 A [null] [null]\n" +
+                "7 0 m [java.util.Map<String, String[]>] [null]\n" +
+                "7 0 x [int] [null]\n" +
+                "8 0 f [void] [()]\n" +
+                "9 0 A [null] [()]\n", describe(outline));
+        // fields are at their names, the other declarations start with their modifiers
+        assertEquals(0, outline.getPos(0));
+        assertEquals(content.indexOf(" m ") + 1, outline.getPos(1));
+        assertEquals(content.indexOf(" x ") + 1, outline.getPos(2));
+        assertEquals(content.indexOf("@Deprecated"), outline.getPos(3));
+        assertEquals(content.indexOf("A()"), outline.getPos(4));
+        assertTrue(log.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testSameDeclarationsAsTree() {
+        final CorpusShape shape = new CorpusShape();
+        shape.setClassCount(10);
+        shape.setGenericsRatio(0.5);
+        shape.setCommentRatio(0.3);
+        final String content = new CorpusGenerator(new HashSymbolTable(), shape, 1L).generateSource();
+
+        final List<String> expected = new ArrayList<String>();
+        parser.reset(new DefaultSource(content));
+        parser.parseCompilationUnit().accept(new AstScanner() {
+            @Override
+            public void visitClass(Ast.ClassDecl node) {
+                expected.add("class " + node.getName());
+                super.visitClass(node);
+            }
+
+            @Override
+            public void visitMethod(Ast.MethodDecl node) {
+                expected.add("method " + node.getName());
+            }
+
+            @Override
+            public void visitVariable(Ast.VariableDecl node) {
+                expected.add("field " + node.getName());
+            }
+        });
+
+        final Outline outline = outline(content);
+        final List<String> actual = new ArrayList<String>();
+        for (int i = 0; i < outline.size(); ++i) {
+            switch (outline.getKind(i)) {
+                case Outline.CLASS: actual.add("class " + outline.getName(i)); break;
+                case Outline.METHOD: actual.add("method " + outline.getName(i)); break;
+                case Outline.FIELD: actual.add("field " + outline.getName(i)); break;
+                default: break;
+            }
+        }
+
+        assertEquals(expected, actual);
+        assertTrue(log.getDiagnostics().isEmpty());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.ast.AstPrettyPrinter;
+import com.truward.jnova.java.ast.corpus.CorpusGenerator;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.java.parser.impl.ParallelParsingService;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+import com.truward.jnova.util.source.Source;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests parallel parsing service.
+ */
+public final class ParallelParsingServiceTest {
+
+    private ParallelParsingService service;
+
+    @Before
+    public void initService() {
+        service = new ParallelParsingService(4);
+    }
+
+    @After
+    public void closeService() {
+        service.close();
+    }
+
+    private static Source source(String content, String name) {
+        return new DefaultSource(new StringReader(content), content.length(), name);
+    }
+
+    private static String print(ParseResult result) {
+        final StringWriter writer = new StringWriter();
+        new AstPrettyPrinter(writer, true).printExpr(result.getCompilationUnit());
+        return writer.toString();
+    }
+
+    @Test
+    public void testParseMany() {
+        final List<String> contents = new ArrayList<String>();
+        final List<Source> sources = new ArrayList<Source>();
+        for (int i = 0; i < 24; ++i) {
+            final CorpusShape shape = new CorpusShape();
+            shape.setClassCount(1 + i % 5);
+            // errors in the middle of the batch must not affect other sources
+            final String content = (i % 7 == 3) ? "class Broken { int a = ; }" :
+                    new CorpusGenerator(new HashSymbolTable(), shape, i).generateSource();
+            contents.add(content);
+            sources.add(source(content, "Source" + i + ".java"));
+        }
+
+        final List<ParseResult> results = service.parse(sources);
+        assertEquals(sources.size(), results.size());
+
+        for (int i = 0; i < results.size(); ++i) {
+            final ParseResult result = results.get(i);
+            assertSame(sources.get(i), result.getSource());
+            assertNull(result.getFailure());
+
+            if (i % 7 == 3) {
+                assertTrue(result.hasErrors());
+                assertEquals(1, result.getDiagnostics().size());
+            } else {
+                assertFalse(result.toString(), result.hasErrors());
+
+                // same tree as if parsed alone
+                final List<ParseResult> single = service.parse(
+                        Collections.singletonList(source(contents.get(i), "Single.java")));
+                assertEquals(print(single.get(0)), print(result));
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        assertTrue(service.parse(new ArrayList<Source>()).isEmpty());
+    }
+}
@@ -20,8 +20,10 @@ import com.truward.jnova.java.code.Flags;
 import com.truward.jnova.java.code.TypeTags;
 import com.truward.jnova.java.parser.impl.ParserImpl;
 import com.truward.jnova.util.ImmList;
+import com.truward.jnova.util.diagnostics.DiagnosticsLog;
 import com.truward.jnova.util.naming.Symbol;
 import com.truward.jnova.util.naming.SymbolTable;
+import com.truward.jnova.util.source.support.DefaultSource;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -155,7 +157,7 @@ public final class ParserTest extends ParserTestSupport {
                                                         ImmList.<Ast.TypeParameter>nil(),
                                                         ImmList.<Ast.VariableDecl>nil(),
                                                         ImmList.<Ast.Expression>nil(),
-                                                        f.astBlock(ImmList.<Ast.Statement>nil()),
+                                                        f.astBlock(0, 133, ImmList.<Ast.Statement>nil()),
                                                         null
                                                 )
                                         )
@@ -225,7 +227,7 @@ public final class ParserTest extends ParserTestSupport {
                                                                 f.astIdent(nm("String")),
                                                                 null)),
                                                         ImmList.<Ast.Expression>nil(),
-                                                        f.astBlock(ImmList.of(
+                                                        f.astBlock(0, 182, ImmList.of(
                                                                 f.astExpressionStatement(f.astMethodInvocation(
                                                                         f.astFieldAccess(
                                                                                 f.astMethodInvocation(
@@ -264,4 +266,94 @@ public final class ParserTest extends ParserTestSupport {
                 "int a = 1263546546574987987;\n" +
                 "        ^\n", logContent);
     }
+
+    @Test
+    public void testResetBetweenSources() {
+        final DiagnosticsLog log = context.getBean(DiagnosticsLog.class);
+
+        // error far from the beginning of the source
+        parser.reset(new DefaultSource("class A {\n int a = 1;\n int b = 2;\n int c = ; }"));
+        parser.parseCompilationUnit();
+        assertEquals(1, log.getTotalErrors());
+
+        // error positions of the previous source do not suppress errors in this one
+        parser.reset(new DefaultSource("class B { int = 1; }"));
+        parser.parseCompilationUnit();
+        assertEquals(2, log.getTotalErrors());
+
+        parser.reset(new DefaultSource("class C {}"));
+        final Ast.CompilationUnit unit = parser.parseCompilationUnit();
+        assertEquals(2, log.getTotalErrors());
+        StructMatcher.assertStructMatches(
+                Ast.Node.class,
+                f.astCompilationUnit(ImmList.<Ast.Annotation>nil(), null, ImmList.of(
+                        f.astClassDecl(f.astModifiers(0), nm("C"), ImmList.<Ast.TypeParameter>nil(), null,
+                                ImmList.<Ast.Expression>nil(), ImmList.<Ast.Node>nil()))),
+                unit);
+    }
+
+    @Test
+    public void testNestedInfixExpressions() {
+        final DiagnosticsLog log = context.getBean(DiagnosticsLog.class);
+
+        // nesting is deeper than the initial capacity of the operator precedence stacks
+        String expression = "a0";
+        for (int i = 1; i < 40; ++i) {
+            expression = "a" + i + " + a" + i + " * (" + expression + ") << 2 > f(a" + i + ") || b";
+        }
+        parser.reset(new DefaultSource("class A { boolean b = " + expression + "; }"));
+        final Ast.CompilationUnit unit = parser.parseCompilationUnit();
+
+        assertEquals(0, log.getTotalErrors());
+        assertTrue(unit.toString().contains(expression));
+    }
+
+    @Test
+    public void testPrimitiveLiterals() {
+        final DiagnosticsLog log = context.getBean(DiagnosticsLog.class);
+        parser.reset(new DefaultSource("class A { Object[] a = { -2147483648, 0x7fffffff, 0xffffffff, 017, " +
+                "-9223372036854775808L, 0xffffffffffffffffL, 1.5f, 2.5e3, 'c', true, false }; }"));
+        final Ast.CompilationUnit unit = parser.parseCompilationUnit();
+        assertEquals(0, log.getTotalErrors());
+
+        final Ast.VariableDecl variable = (Ast.VariableDecl) ((Ast.ClassDecl) unit.getDefinitions().get(0))
+                .getDefinitions().get(0);
+        final ImmList<Ast.Expression> elements = ((Ast.NewArray) variable.getInitializer()).getInitializers();
+        final Ast.Literal[] literals = new Ast.Literal[elements.size()];
+        int index = 0;
+        for (final Ast.Expression element : elements) {
+            literals[index++] = (Ast.Literal) element;
+        }
+
+        assertEquals(Integer.MIN_VALUE, literals[0].getIntValue());
+        assertEquals(Integer.MAX_VALUE, literals[1].getIntValue());
+        assertEquals(-1, literals[2].getIntValue());
+        assertEquals(15, literals[3].getIntValue());
+        assertEquals(Long.MIN_VALUE, literals[4].getLongValue());
+        assertEquals(-1L, literals[5].getLongValue());
+        assertEquals(1.5f, literals[6].getFloatValue(), 0.0f);
+        assertEquals(2.5e3, literals[7].getDoubleValue(), 0.0);
+        assertEquals('c', literals[8].getCharValue());
+        assertTrue(literals[9].getBooleanValue());
+        assertFalse(literals[10].getBooleanValue());
+
+        // boxed values are the same as the ones of the literals created with the boxed values
+        assertEquals(Integer.MIN_VALUE, literals[0].getValue());
+        assertEquals(Long.MIN_VALUE, literals[4].getValue());
+        assertEquals(1.5f, literals[6].getValue());
+        assertEquals('c', literals[8].getValue());
+        assertEquals(Boolean.TRUE, literals[9].getValue());
+        assertEquals(Boolean.FALSE, literals[10].getValue());
+        StructMatcher.assertStructMatches(Ast.Node.class, f.astLiteral(TypeTags.DOUBLE, 2.5e3), literals[7]);
+        StructMatcher.assertStructMatches(Ast.Node.class, f.astLiteral(TypeTags.CHAR, (int) 'c'), literals[8]);
+    }
+
+    @Test
+    public void testTooLargeIntegralLiterals() {
+        final DiagnosticsLog log = context.getBean(DiagnosticsLog.class);
+        parser.reset(new DefaultSource("class A { long[] a = { 2147483648, -2147483649, 0x100000000, " +
+                "9223372036854775808L, 0x10000000000000000L }; }"));
+        parser.parseCompilationUnit();
+        assertEquals(5, log.getTotalErrors());
+    }
 }
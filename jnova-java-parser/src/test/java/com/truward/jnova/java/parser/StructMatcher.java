@@ -72,6 +72,10 @@ public final class StructMatcher {
         for (int i = 0; i < expectedFields.length; ++i) {
             final Field expectedField = expectedFields[i];
             final Field actualField = actualFields[i];
+            if (expectedField.getName().equals("nodeCount")) {
+                // node ids depend on the factory, not on the structure
+                continue;
+            }
 
             final boolean prevExpectedAcc = expectedField.isAccessible();
             final boolean prevActualAcc = actualField.isAccessible();
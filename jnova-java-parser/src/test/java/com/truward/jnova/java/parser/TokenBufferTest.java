@@ -0,0 +1,205 @@
+/*
+ * Copyright 2013 Alexander Shabanov - http://alexshabanov.com.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.truward.jnova.java.parser;
+
+import com.truward.jnova.java.ast.corpus.CorpusGenerator;
+import com.truward.jnova.java.ast.corpus.CorpusShape;
+import com.truward.jnova.java.parser.impl.BufferedLexer;
+import com.truward.jnova.util.diagnostics.support.CollectingDiagnosticsLog;
+import com.truward.jnova.util.naming.support.HashSymbolTable;
+import com.truward.jnova.util.source.support.DefaultSource;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests scanning and replaying tokens with the token buffer.
+ */
+public final class TokenBufferTest {
+
+    private static final String SAMPLE = "package a;\n" +
+            "/** @deprecated */\n" +
+            "class A<T extends java.util.List<java.util.List<T>>> {\n" +
+            "    long x = 0x1fL + 017 + 1e3 + 'c' + \"s\\u0041\";\n" +
+            "    /* comment */ void f() { int \\u0061 = x >>> 2; }\n" +
+            "}\n";
+
+    private final CollectingDiagnosticsLog log = new CollectingDiagnosticsLog();
+
+    private final JavaParsers.Builder builder = JavaParsers.builder().diagnostics(log);
+
+    private static String generateSource() {
+        final CorpusShape shape = new CorpusShape();
+        shape.setClassCount(3);
+        shape.setCommentRatio(0.2);
+        shape.setUnicodeEscapeRatio(0.05);
+        return new CorpusGenerator(new HashSymbolTable(), shape, 3L).generateSource();
+    }
+
+    private TokenBuffer scan(String content) {
+        final char[] input = content.toCharArray();
+        return TokenBuffer.scan(builder.buildLexer(), input, input.length);
+    }
+
+    private static void assertSameTokens(Lexer expected, Lexer actual) {
+        do {
+            expected.nextToken();
+            actual.nextToken();
+            final Token token = expected.token();
+            assertEquals(token, actual.token());
+            assertEquals(expected.pos(), actual.pos());
+            assertEquals(expected.prevEndPos(), actual.prevEndPos());
+            assertEquals(expected.endPos(), actual.endPos());
+            assertEquals(expected.deprecatedFlag(), actual.deprecatedFlag());
+            assertEquals(expected.docCommentPos(), actual.docCommentPos());
+            assertEquals(expected.docCommentEndPos(), actual.docCommentEndPos());
+            if (token == Token.IDENTIFIER) {
+                assertSame(expected.name(), actual.name());
+            } else if (token == Token.CHARLITERAL || token == Token.STRINGLITERAL) {
+                assertEquals(expected.stringVal(), actual.stringVal());
+            } else if (token.getName() == null && token != Token.EOF && token != Token.ERROR) {
+                assertEquals(expected.stringVal(), actual.stringVal());
+                assertEquals(expected.radix(), actual.radix());
+            }
+        } while (expected.token() != Token.EOF);
+    }
+
+    @Test
+    public void testReplaySameTokens() {
+        for (final String content : new String[] { SAMPLE, generateSource() }) {
+            final char[] input = content.toCharArray();
+            final Lexer expected = builder.buildLexer();
+            expected.setSource(input, input.length);
+
+            final BufferedLexer actual = new BufferedLexer(builder.buildLexer());
+            actual.setSource(input, input.length);
+            assertSameTokens(expected, actual);
+
+            // EOF is repeated
+            actual.nextToken();
+            assertEquals(Token.EOF, actual.token());
+        }
+        assertTrue(log.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testMarkReset() {
+        final BufferedLexer lexer = new BufferedLexer(builder.buildLexer());
+        lexer.setTokens(scan(SAMPLE));
+        lexer.nextToken();
+        lexer.nextToken();
+        final int mark = lexer.mark();
+        final int pos = lexer.pos();
+        assertEquals("a", lexer.name().toString());
+
+        while (lexer.token() != Token.EOF) {
+            lexer.nextToken();
+        }
+        lexer.reset(mark);
+        assertEquals(pos, lexer.pos());
+        assertEquals(Token.IDENTIFIER, lexer.token());
+        lexer.nextToken();
+        assertEquals(Token.SEMI, lexer.token());
+    }
+
+    @Test
+    public void testCopyAt() {
+        final TokenBuffer tokens = scan(SAMPLE);
+        final BufferedLexer lexer = new BufferedLexer(builder.buildLexer());
+        lexer.setTokens(tokens);
+
+        final int pos = SAMPLE.indexOf("void");
+        final Lexer copy = lexer.copyAt(pos);
+        copy.nextToken();
+        assertEquals(Token.VOID, copy.token());
+        assertEquals(pos, copy.pos());
+        assertEquals(tokens.indexAt(pos), ((BufferedLexer) copy).mark());
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        final TokenBuffer tokens = scan(SAMPLE);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        tokens.writeTo(new DataOutputStream(bytes));
+        final TokenBuffer read = TokenBuffer.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+                new HashSymbolTable());
+
+        assertEquals(tokens.getContentHash(), read.getContentHash());
+        assertEquals(tokens.size(), read.size());
+        for (int i = 0; i < tokens.size(); ++i) {
+            assertEquals(tokens.getToken(i), read.getToken(i));
+            assertEquals(tokens.getPos(i), read.getPos(i));
+            assertEquals(tokens.getEndPos(i), read.getEndPos(i));
+            assertEquals(String.valueOf(tokens.getName(i)), String.valueOf(read.getName(i)));
+            assertEquals(tokens.getLiteral(i), read.getLiteral(i));
+            assertEquals(tokens.getRadix(i), read.getRadix(i));
+            assertEquals(tokens.isDeprecated(i), read.isDeprecated(i));
+        }
+
+        final char[] input = SAMPLE.toCharArray();
+        assertEquals(TokenBuffer.contentHash(input, input.length), read.getContentHash());
+    }
+
+    @Test
+    public void testParseFromTokens() {
+        final String literals = "class A { long[] a = { -9223372036854775808L, 0x7fffffffffffffffL, 0777L, " +
+                "-2147483648, 0xffffffff, 017, 42 }; }";
+        for (final String content : new String[] { generateSource(), literals }) {
+            final TokenBuffer tokens = scan(content);
+            for (final boolean lazyBodies : new boolean[] { false, true }) {
+                final Parser parser = builder.lazyBodies(lazyBodies).build();
+                parser.reset(new DefaultSource(content));
+                final String expected = parser.parseCompilationUnit().toString();
+
+                parser.reset(new DefaultSource(content), tokens);
+                assertEquals(expected, parser.parseCompilationUnit().toString());
+
+                // parser switches back to the source lexer
+                parser.reset(new DefaultSource(content));
+                assertEquals(expected, parser.parseCompilationUnit().toString());
+            }
+        }
+        assertTrue(log.getDiagnostics().isEmpty());
+    }
+
+    @Test
+    public void testLexicalErrorsReportedOnce() {
+        final String content = "class A { char c = ''; }";
+        final TokenBuffer tokens = scan(content);
+        final int lexicalErrors = log.getDiagnostics().size();
+        assertTrue(lexicalErrors > 0);
+
+        final int errorToken = tokens.indexAt(content.indexOf("''"));
+        assertEquals(Token.ERROR, tokens.getToken(errorToken));
+        assertTrue(tokens.getErrPos(errorToken) >= 0);
+
+        log.clear();
+        final Parser parser = builder.build();
+        parser.reset(new DefaultSource(content));
+        parser.parseCompilationUnit();
+        final int allErrors = log.getDiagnostics().size();
+
+        log.clear();
+        parser.reset(new DefaultSource(content), tokens);
+        parser.parseCompilationUnit();
+        assertEquals(allErrors - lexicalErrors, log.getDiagnostics().size());
+    }
+}